@@ -0,0 +1,159 @@
+package co.bugg.quickplay;
+
+import co.bugg.quickplay.client.render.GlyphRenderer;
+import co.bugg.quickplay.util.EventRouter;
+import co.bugg.quickplay.util.chat.ChatType;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.client.event.RenderPlayerEvent;
+import net.minecraftforge.fml.common.eventhandler.Event;
+import net.minecraftforge.fml.common.gameevent.InputEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Subsystems which only do anything while the client is on Hypixel: the chat buffer, the instance watcher,
+ * glyph rendering, the instance display, daily reward parsing and keybinds.
+ *
+ * These are activated once {@link co.bugg.quickplay.util.ServerChecker} confirms the client is on Hypixel, and
+ * deactivated when the client disconnects or the mod is disabled, so that they cost nothing per tick or per frame
+ * anywhere else.
+ */
+public class HypixelSubsystems {
+
+    /**
+     * Event handler whose Hypixel-only listeners are subscribed while active
+     */
+    private final QuickplayEventHandler eventHandler = new QuickplayEventHandler();
+    /**
+     * Renderer for player glyphs
+     */
+    private final GlyphRenderer glyphRenderer = new GlyphRenderer();
+    /**
+     * Subscriptions to {@link Quickplay#eventRouter} and {@link Quickplay#chatPipeline} while active
+     */
+    private final List<EventRouter.Subscription> subscriptions = new ArrayList<>();
+    /**
+     * Listeners called with the new state whenever the subsystems are activated or deactivated
+     */
+    private final List<Consumer<Boolean>> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * Whether the subsystems are currently active
+     */
+    private volatile boolean active = false;
+
+    /**
+     * Activate all Hypixel-only subsystems, if they aren't already active and the mod is enabled
+     */
+    public synchronized void activate() {
+        if(active || !Quickplay.INSTANCE.state.get().enabled) {
+            return;
+        }
+        active = true;
+
+        subscribe(RenderPlayerEvent.Post.class, glyphRenderer::onPlayerRender);
+        subscribe(RenderGameOverlayEvent.class, eventHandler::onRenderOverlay);
+        subscriptions.add(Quickplay.INSTANCE.chatPipeline.subscribe(ChatType.DAILY_REWARD, eventHandler::onDailyReward));
+        // Always dispatch to the current keybinds config, as it may be replaced at runtime
+        subscribe(InputEvent.KeyInputEvent.class, e -> Quickplay.INSTANCE.keybinds.onKeyInput(e));
+        subscribe(TickEvent.ClientTickEvent.class, e -> Quickplay.INSTANCE.keybinds.onTick(e));
+
+        if(Quickplay.INSTANCE.chatBuffer != null) {
+            // Anything pushed while inactive was meant for another server
+            Quickplay.INSTANCE.chatBuffer.clear().start();
+        }
+        if(Quickplay.INSTANCE.instanceWatcher != null) {
+            Quickplay.INSTANCE.instanceWatcher.start();
+        }
+        Quickplay.INSTANCE.latencyTracker.start();
+        Quickplay.INSTANCE.autoRequeue.start();
+
+        Quickplay.INSTANCE.traceRecorder.instant("Hypixel subsystems activated", "session");
+        notifyListeners();
+    }
+
+    /**
+     * Deactivate all Hypixel-only subsystems, if they're active
+     */
+    public synchronized void deactivate() {
+        if(!active) {
+            return;
+        }
+        active = false;
+
+        subscriptions.forEach(EventRouter.Subscription::unsubscribe);
+        subscriptions.clear();
+
+        Quickplay.INSTANCE.autoRequeue.stop();
+        Quickplay.INSTANCE.latencyTracker.stop();
+        if(Quickplay.INSTANCE.chatBuffer != null) {
+            Quickplay.INSTANCE.chatBuffer.stop().clear();
+        }
+        if(Quickplay.INSTANCE.instanceWatcher != null) {
+            Quickplay.INSTANCE.instanceWatcher.stop();
+        }
+
+        Quickplay.INSTANCE.traceRecorder.instant("Hypixel subsystems deactivated", "session");
+        notifyListeners();
+    }
+
+    /**
+     * Getter for {@link #active}
+     * @return {@link #active}
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Get the number of event listeners subscribed while active
+     * @return Number of subscriptions, 0 when inactive
+     */
+    public synchronized int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Add a listener which is called with the new state whenever the subsystems are activated or deactivated
+     * @param listener Listener to add
+     */
+    public void addListener(Consumer<Boolean> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener added with {@link #addListener(Consumer)}
+     * @param listener Listener to remove
+     */
+    public void removeListener(Consumer<Boolean> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Subscribe to an event type until the subsystems are deactivated
+     * @param eventType Type of event to listen for
+     * @param listener Listener to call
+     * @param <T> Type of event
+     */
+    private <T extends Event> void subscribe(Class<T> eventType, Consumer<? super T> listener) {
+        subscriptions.add(Quickplay.INSTANCE.eventRouter.subscribe(eventType, listener));
+    }
+
+    /**
+     * Call all listeners with the current state
+     */
+    private void notifyListeners() {
+        final boolean state = active;
+        for(Consumer<Boolean> listener : listeners) {
+            try {
+                listener.accept(state);
+            } catch(Exception e) {
+                e.printStackTrace();
+                Quickplay.INSTANCE.sendExceptionRequest(e);
+            }
+        }
+    }
+}
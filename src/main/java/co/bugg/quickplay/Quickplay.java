@@ -5,7 +5,6 @@ import co.bugg.quickplay.client.command.CommandMain;
 import co.bugg.quickplay.client.command.CommandQuickplay;
 import co.bugg.quickplay.client.gui.InstanceDisplay;
 import co.bugg.quickplay.client.gui.QuickplayGuiPartySpinner;
-import co.bugg.quickplay.client.render.GlyphRenderer;
 import co.bugg.quickplay.client.render.PlayerGlyph;
 import co.bugg.quickplay.config.*;
 import co.bugg.quickplay.games.Game;
@@ -18,8 +17,20 @@ import co.bugg.quickplay.util.*;
 import co.bugg.quickplay.util.analytics.AnalyticsRequest;
 import co.bugg.quickplay.util.analytics.GoogleAnalytics;
 import co.bugg.quickplay.util.analytics.GoogleAnalyticsFactory;
+import co.bugg.quickplay.util.buffer.BufferMetrics;
 import co.bugg.quickplay.util.buffer.ChatBuffer;
 import co.bugg.quickplay.util.buffer.MessageBuffer;
+import co.bugg.quickplay.util.chat.ChatPipeline;
+import co.bugg.quickplay.util.concurrent.ExecutorMetrics;
+import co.bugg.quickplay.util.concurrent.InstrumentedExecutor;
+import co.bugg.quickplay.util.concurrent.JobScheduler;
+import co.bugg.quickplay.util.concurrent.SaturationPolicy;
+import co.bugg.quickplay.util.diagnostics.ExceptionReporter;
+import co.bugg.quickplay.util.diagnostics.RenderWatchdog;
+import co.bugg.quickplay.util.diagnostics.TraceRecorder;
+import co.bugg.quickplay.util.state.ClientState;
+import co.bugg.quickplay.util.state.StateStore;
+import co.bugg.quickplay.util.stats.LatencyTracker;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import net.minecraft.client.Minecraft;
@@ -31,10 +42,15 @@ import net.minecraft.client.resources.SimpleReloadableResourceManager;
 import net.minecraft.command.ICommand;
 import net.minecraft.util.*;
 import net.minecraftforge.client.ClientCommandHandler;
+import net.minecraftforge.client.event.ClientChatReceivedEvent;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.eventhandler.Event;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.network.FMLNetworkEvent;
 
 import java.awt.*;
 import java.io.File;
@@ -42,9 +58,11 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Mod(
         modid = Reference.MOD_ID,
@@ -60,29 +78,92 @@ public class Quickplay {
     public static Quickplay INSTANCE = new Quickplay();
 
     /**
-     * Whether the client is currently connected to the Hypixel network
+     * State shared between threads: whether the mod is enabled, whether the client is on Hypixel,
+     * Premium status and the game list
      */
-    public boolean onHypixel = false;
-    /**
-     * Whether the mod is currently enabled
-     */
-    public boolean enabled = false;
+    public final StateStore state = new StateStore();
     /**
      * The reason the mod has been disabled, if it is disabled
      */
     public String disabledReason = null;
     /**
-     * Verification method used to verify the client is online Hypixel, or null if not on Hypixel.
+     * Thread pool for blocking network I/O, e.g. web requests and analytics
+     */
+    public final InstrumentedExecutor networkPool = new InstrumentedExecutor("network", 6, 512, SaturationPolicy.DROP);
+    /**
+     * Thread pool for blocking disk I/O, e.g. loading and saving configs and caches
+     */
+    public final InstrumentedExecutor diskPool = new InstrumentedExecutor("disk", 2, 256, SaturationPolicy.CALLER_RUNS);
+    /**
+     * Thread pool for short CPU-bound tasks
+     */
+    public final InstrumentedExecutor computePool = new InstrumentedExecutor("compute",
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)), 1024, SaturationPolicy.CALLER_RUNS);
+    /**
+     * Thread pool for long-running tasks that mostly sleep, e.g. GUI animations and timed loops
+     */
+    public final InstrumentedExecutor backgroundPool = new InstrumentedExecutor("background", 32, 128, SaturationPolicy.DROP);
+    /**
+     * The only Quickplay object registered on the Forge event bus, which routes events to internal listeners
+     */
+    public final EventRouter eventRouter = new EventRouter();
+    /**
+     * Timing wheel for running code after a number of client ticks
+     * Stays subscribed even when the mod is disabled
+     */
+    public final TickScheduler tickScheduler = new TickScheduler();
+    /**
+     * Registry of named periodic and delayed jobs, e.g. pinging the web server and buffers
+     */
+    public final JobScheduler jobScheduler = new JobScheduler();
+    /**
+     * Opt-in watchdog reporting frames that take too long to render
+     * @see ConfigSettings#stallWatchdog
+     */
+    public final RenderWatchdog renderWatchdog = new RenderWatchdog();
+    /**
+     * Recorder for startup spans and milestones, exported with <code>/qp trace</code>
+     */
+    public final TraceRecorder traceRecorder = new TraceRecorder();
+    /**
+     * Asynchronous reporter aggregating and uploading exceptions
+     */
+    public final ExceptionReporter exceptionReporter = new ExceptionReporter();
+    /**
+     * Classifies incoming chat and dispatches it to handlers by type
+     */
+    public final ChatPipeline chatPipeline = new ChatPipeline();
+    /**
+     * Single-flight <code>/whereami</code> requests, shared by everything that needs to know the current instance
+     */
+    public final WhereamiWrapper whereami = new WhereamiWrapper();
+    /**
+     * Subsystems which are only active while the client is on Hypixel
+     */
+    public final HypixelSubsystems hypixelSubsystems = new HypixelSubsystems();
+    /**
+     * Components owning resources for as long as the mod is enabled, started by {@link #enable()}
+     * and stopped by {@link #disable(String)}
+     */
+    public final Lifecycle lifecycle = createLifecycle();
+    /**
+     * Completes once every stage of the most recent {@link #enable()} has completed
+     */
+    public volatile CompletableFuture<Void> startup = CompletableFuture.completedFuture(null);
+    /**
+     * Completes once the most recent {@link #enable()} has applied the loaded configs and registered commands
+     * on the client thread
      */
-    public ServerChecker.VerificationMethod verificationMethod;
+    public volatile CompletableFuture<Void> configured = CompletableFuture.completedFuture(null);
     /**
-     * Thread pool for blocking code
+     * Subscriptions to {@link #eventRouter} that last as long as the mod is enabled
      */
-    public final ExecutorService threadPool = Executors.newCachedThreadPool();
+    public final List<EventRouter.Subscription> subscriptions = new CopyOnWriteArrayList<>();
     /**
      * A list of all registered event handlers
+     * Only used for external objects, Quickplay's own listeners subscribe to {@link #eventRouter}
      */
-    public final List<Object> eventHandlers = new ArrayList<>();
+    public final List<Object> eventHandlers = new CopyOnWriteArrayList<>();
     /**
      * A list of all registered commands
      */
@@ -103,10 +184,6 @@ public class Quickplay {
      * Factory for creating, loading, etc. of mod assets
      */
     public AssetFactory assetFactory;
-    /**
-     * List of games
-     */
-    public List<Game> gameList = new ArrayList<>();
     /**
      * InstanceWatcher that constantly watches for what Hypixel server instance the client is on
      */
@@ -127,6 +204,18 @@ public class Quickplay {
      * Privacy settings for the mod's data collection
      */
     public ConfigUsageStats usageStats;
+    /**
+     * Queue-to-game latencies recorded for each mode
+     */
+    public ConfigLatencyStats latencyStats;
+    /**
+     * Tracker recording how long each mode takes to get the client into a game
+     */
+    public final LatencyTracker latencyTracker = new LatencyTracker();
+    /**
+     * Queues for the last mode again when a game ends, if enabled
+     */
+    public final AutoRequeue autoRequeue = new AutoRequeue();
     /**
      * Whether the user should be asked if they want to share stats next time they join a server
      */
@@ -140,9 +229,9 @@ public class Quickplay {
      */
     public int pingFrequency = 0;
     /**
-     * Thread containing code that's pinging the web server periodically
+     * Name of the {@link #jobScheduler} job pinging the web server periodically
      */
-    public Future pingThread;
+    public static final String pingJobName = "ping";
     /**
      * Help menu for Quickplay Premium
      * retrieved from the <code>enable</code> endpoint on mod enable from the content field <code>premiumInfo</code>
@@ -164,12 +253,6 @@ public class Quickplay {
      * How many ping requests have been sent out
      */
     public int currentPing = 0;
-
-    /**
-     * Whether this client is premium or not
-     * Verified from the web server
-     */
-    boolean premiumClient = false;
     /**
      * When Quickplay Premium expires for this user
      */
@@ -178,10 +261,6 @@ public class Quickplay {
      * URL to this Premium user's purchase page.
      */
     public String purchasePageURL = null;
-    /**
-     * Session key used for Premium-related resource requests
-     */
-    public String sessionKey;
 
     @EventHandler
     public void init(FMLInitializationEvent event) {
@@ -189,10 +268,88 @@ public class Quickplay {
         // if the mod is disabled - this allows for
         // communicating important information about why
         // the mod is currently disabled, or how to fix.
-        messageBuffer = (MessageBuffer) new MessageBuffer(100).start();
+        messageBuffer = (MessageBuffer) new MessageBuffer(256).start();
+        MinecraftForge.EVENT_BUS.register(eventRouter);
+        eventRouter.subscribe(TickEvent.ClientTickEvent.class, tickScheduler::onTick);
+        eventRouter.subscribe(ClientChatReceivedEvent.class, chatPipeline::onChat);
+        // Drains the main thread executor, so it's subscribed for good rather than while enabled
+        eventRouter.subscribe(TickEvent.RenderTickEvent.class, QuickplayEventHandler::onRender);
+        // Hypixel-only subsystems follow whether the client is on Hypixel
+        state.watch(current -> current.onHypixel, (wasOnHypixel, onHypixel) -> syncHypixelSubsystems());
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "Quickplay-shutdown"));
         enable();
     }
 
+    /**
+     * Activate or deactivate {@link #hypixelSubsystems} to match whether the mod is enabled and the client is on
+     * Hypixel. State changes come in on the Netty and network threads, but the subsystems touch client state, so
+     * this hops to the client thread and reads the state again once there. The subsystems need settings and
+     * keybinds, so this also waits for {@link #configured}.
+     */
+    private void syncHypixelSubsystems() {
+        configured.whenCompleteAsync((ignored, throwable) -> {
+            if(state.get().enabled && state.get().onHypixel) {
+                hypixelSubsystems.activate();
+            } else {
+                hypixelSubsystems.deactivate();
+            }
+        }, QuickplayEventHandler.mainThreadExecutor);
+    }
+
+    /**
+     * Release everything Quickplay owns when the game closes: stop the lifecycle, the job scheduler and the thread pools
+     */
+    public void shutdown() {
+        lifecycle.stop();
+        jobScheduler.shutdown();
+        // Let queued tasks, e.g. the analytics session end, finish without waiting for them
+        getExecutors().forEach(InstrumentedExecutor::shutdown);
+    }
+
+    /**
+     * Get all of Quickplay's thread pools
+     * @return List of thread pools
+     */
+    public List<InstrumentedExecutor> getExecutors() {
+        return Arrays.asList(networkPool, diskPool, computePool, backgroundPool);
+    }
+
+    /**
+     * Get a snapshot of the metrics of all of Quickplay's thread pools
+     * @return List of metrics, one per thread pool
+     */
+    public List<ExecutorMetrics> getExecutorMetrics() {
+        final List<ExecutorMetrics> metrics = new ArrayList<>();
+        for(InstrumentedExecutor executor : getExecutors()) {
+            metrics.add(executor.getMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Get a snapshot of the metrics of the chat and message buffers
+     * @return List of metrics, one per buffer that exists
+     */
+    public List<BufferMetrics> getBufferMetrics() {
+        final List<BufferMetrics> metrics = new ArrayList<>();
+        if(chatBuffer != null) {
+            metrics.add(chatBuffer.getMetrics());
+        }
+        if(messageBuffer != null) {
+            metrics.add(messageBuffer.getMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Get a snapshot of the instance watcher's polling metrics
+     * @return Metrics, or null if there's no instance watcher
+     */
+    public PollMetrics getPollMetrics() {
+        final InstanceWatcher watcher = instanceWatcher;
+        return watcher == null ? null : watcher.getMetrics();
+    }
+
     /**
      * Register a specific object as an event handler
      * @param handler Object to register
@@ -214,144 +371,348 @@ public class Quickplay {
     }
 
     /**
-     * Enable the mod
+     * Subscribe a listener to {@link #eventRouter} until the mod is disabled
+     * @param type Class of the event to listen for
+     * @param listener Listener to call whenever the event is fired
+     * @param <T> Type of the event
      */
-    public void enable() {
-        if(!this.enabled) {
+    private <T extends Event> void subscribeWhileEnabled(Class<T> type, Consumer<? super T> listener) {
+        subscriptions.add(eventRouter.subscribe(type, listener));
+    }
 
-            this.enabled = true;
-            requestFactory = new HttpRequestFactory();
+    /**
+     * Enable the mod
+     *
+     * Startup is split into stages so that as little as possible happens on the calling thread:
+     * <ol>
+     *     <li>The resource pack is registered on the calling thread</li>
+     *     <li>Configs and the cached game list are loaded in parallel on {@link #diskPool}</li>
+     *     <li>Once configs are loaded, they're applied and commands are registered on the client thread, while
+     *     analytics and Premium verification start on {@link #networkPool}</li>
+     *     <li>Once the game list is also loaded, the enable request is sent on {@link #networkPool}</li>
+     * </ol>
+     * {@link #startup} completes once every stage has.
+     *
+     * Synchronized with {@link #disable(String)}, which the web server can ask for from {@link #networkPool}
+     * while the mod is still being enabled.
+     */
+    public synchronized void enable() {
+        if(!state.get().enabled) {
+
+            final TraceRecorder.Span enableSpan = traceRecorder.begin("enable", "startup");
+            state.update(current -> current.withEnabled(true));
+            lifecycle.start();
             assetFactory = new AssetFactory();
 
             assetFactory.createDirectories();
-            assetFactory.dumpOldCache();
-            resourcePack = assetFactory.registerResourcePack();
-
-            try {
-                settings = (ConfigSettings) AConfiguration.load("settings.json", ConfigSettings.class);
-                keybinds = (ConfigKeybinds) AConfiguration.load("keybinds.json", ConfigKeybinds.class);
-                usageStats = (ConfigUsageStats) AConfiguration.load("privacy.json", ConfigUsageStats.class);
-            } catch (IOException | JsonSyntaxException e) {
-                // Config either doesn't exist or couldn't be parsed
-                e.printStackTrace();
-                assetFactory.createDirectories();
+            // Registering adds to Minecraft's resource pack list, so only do it once
+            if(resourcePack == null) {
+                final TraceRecorder.Span resourcePackSpan = traceRecorder.begin("registerResourcePack", "startup");
+                resourcePack = assetFactory.registerResourcePack();
+                resourcePackSpan.end();
+            }
 
-                if(settings == null) {
-                    settings = new ConfigSettings();
-                }
-                if(keybinds == null) {
-                    keybinds = new ConfigKeybinds(true);
+            final CompletableFuture<Void> configStage = CompletableFuture.runAsync(this::loadConfigs, diskPool);
+            final CompletableFuture<Game[]> cacheStage = CompletableFuture.supplyAsync(() -> {
+                final TraceRecorder.Span dumpCacheSpan = traceRecorder.begin("dumpOldCache", "startup");
+                assetFactory.dumpOldCache();
+                dumpCacheSpan.end();
+                // Try to load the previous game list from cache
+                // Web server will probably instruct to reload if it's available
+                final TraceRecorder.Span cacheSpan = traceRecorder.begin("loadCachedGamelist", "startup");
+                try {
+                    return assetFactory.readCachedGamelist();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    sendExceptionRequest(e);
+                    return null;
+                } finally {
+                    cacheSpan.end();
                 }
-                if(usageStats == null) {
-                    promptUserForUsageStats = true;
+            }, diskPool);
+            // Games are sorted by the priorities in the settings, so both have to be loaded
+            final CompletableFuture<Void> gameListStage = cacheStage.thenAcceptBoth(configStage, (gameListArray, ignored) -> {
+                if(gameListArray != null && state.get().enabled) {
+                    final TraceRecorder.Span organizeSpan = traceRecorder.begin("organizeGameList", "startup");
+                    final List<Game> organized = Arrays.asList(organizeGameList(gameListArray));
+                    state.update(current -> current.withGameList(organized));
+                    organizeSpan.end();
                 }
+            });
 
+            final CompletableFuture<Void> analyticsStage = configStage.thenRunAsync(this::startAnalyticsSession, networkPool.neverDropping());
+            final CompletableFuture<Void> premiumStage = configStage.thenRunAsync(() -> {
+                // Check for Premium subscription
+                final TraceRecorder.Span premiumSpan = traceRecorder.begin("verifyPremium", "startup");
                 try {
-                    // Write the default config that we just made to save it
-                    settings.save();
-                    keybinds.save();
-                } catch (IOException e1) {
-                    // File couldn't be saved
-                    e1.printStackTrace();
-                    sendExceptionRequest(e1);
-                    Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
-                            "quickplay.config.saveerror").setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+                    if(state.get().enabled) {
+                        verifyPremium();
+                    }
+                } catch (IOException | NoSubscriptionException e) {
+                    e.printStackTrace();
+                } finally {
+                    premiumSpan.end();
                 }
-            }
+            }, networkPool.neverDropping());
+            // Sent after the cached game list is loaded, so the cache can't overwrite a game list sent in response
+            final CompletableFuture<Void> enableRequestStage = gameListStage.thenRunAsync(this::sendEnableRequest, networkPool.neverDropping());
+
+            // The client thread drains its tasks every frame, so this doesn't hold up initialization
+            configured = configStage
+                    .handle((ignored, throwable) -> {
+                        if(throwable != null) {
+                            final Throwable cause = throwable instanceof CompletionException &&
+                                    throwable.getCause() != null ? throwable.getCause() : throwable;
+                            cause.printStackTrace();
+                            if(cause instanceof Exception) {
+                                sendExceptionRequest((Exception) cause);
+                            }
+                        }
+                        return null;
+                    })
+                    .thenRunAsync(this::applyConfigs, QuickplayEventHandler.mainThreadExecutor);
+
+            startup = CompletableFuture.allOf(configured, analyticsStage, premiumStage, enableRequestStage);
+            startup.thenRun(() -> {
+                traceRecorder.milestone("startup complete");
+                // Tracing from launch is only useful if the startup trace ends up somewhere
+                if(traceRecorder.isEnabled()) {
+                    exportTrace();
+                }
+            });
+            startup.exceptionally(throwable -> {
+                final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+                        throwable.getCause() : throwable;
+                cause.printStackTrace();
+                if(cause instanceof Exception) {
+                    sendExceptionRequest((Exception) cause);
+                }
+                return null;
+            });
+
+            final QuickplayEventHandler eventHandler = new QuickplayEventHandler();
+            subscribeWhileEnabled(FMLNetworkEvent.ClientConnectedToServerEvent.class, eventHandler::onJoin);
+            subscribeWhileEnabled(FMLNetworkEvent.ClientDisconnectionFromServerEvent.class, eventHandler::onLeave);
+            subscribeWhileEnabled(WorldEvent.Load.class, eventHandler::onWorldLoad);
 
-            // Create new Google Analytics instance if possible
-            if(usageStats != null && usageStats.statsToken != null) {
-                createGoogleAnalytics();
+            // Started along with the other Hypixel-only subsystems
+            chatBuffer = new ChatBuffer(100);
+            instanceDisplay = new InstanceDisplay();
+            instanceWatcher = new InstanceWatcher(30);
+            // If re-enabled while connected, otherwise this happens once ServerChecker confirms Hypixel
+            if(state.get().onHypixel) {
+                syncHypixelSubsystems();
             }
+            enableSpan.end();
+        }
+    }
 
-            // Send analytical data to Google
-            if(usageStats != null && usageStats.statsToken != null && usageStats.sendUsageStats && ga != null) {
-                threadPool.submit(() -> {
-                    try {
-                        ga.createEvent("Systematic Events", "Mod Enable")
-                                .setSessionControl(AnalyticsRequest.SessionControl.START)
-                                .send();
-                    } catch (IOException e) {
-                        e.printStackTrace();
+    /**
+     * Create the lifecycle of everything that has to be started on enable or stopped on disable.
+     * Components are stopped in reverse order.
+     * @return The lifecycle
+     */
+    private Lifecycle createLifecycle() {
+        return new Lifecycle()
+                .register("jobs", jobScheduler::onEnable, jobScheduler::onDisable)
+                .register("http", () -> requestFactory = new HttpRequestFactory(), () -> requestFactory.close())
+                .register("listeners", null, () -> {
+                    subscriptions.forEach(EventRouter.Subscription::unsubscribe);
+                    subscriptions.clear();
+                    // Copy the list, as unregistering removes from it
+                    new ArrayList<>(eventHandlers).forEach(this::unregisterEventHandler);
+                })
+                .register("hypixel", null, this::syncHypixelSubsystems)
+                .register("watchdog", null, () -> renderWatchdog.setRunning(false, 0))
+                .register("analytics", null, () -> {
+                    if(usageStats != null && usageStats.sendUsageStats && ga != null) {
+                        networkPool.execute(() -> {
+                            try {
+                                ga.createEvent("Systematic Events", "Mod Disable")
+                                        .setSessionControl(AnalyticsRequest.SessionControl.END)
+                                        .send();
+                            } catch (IOException e) {
+                                e.printStackTrace();
+                            }
+                        });
                     }
-                });
+                })
+                // Re-sent by the web server on every enable
+                .register("glyphs", null, () -> glyphs.clear());
+    }
+
+    /**
+     * Apply the configs loaded by {@link #loadConfigs()}, falling back to defaults for any that couldn't be,
+     * and register commands, which depend on the settings. Called on the client thread.
+     */
+    private void applyConfigs() {
+        final TraceRecorder.Span span = traceRecorder.begin("applyConfigs", "startup");
+        if(settings == null) {
+            settings = new ConfigSettings();
+        }
+        if(keybinds == null) {
+            keybinds = new ConfigKeybinds(true);
+        }
+        settings.apply();
+        registerCommands();
+        span.end();
+    }
+
+    /**
+     * Load all configurations, creating and saving defaults for any that don't exist or couldn't be parsed.
+     * Called on {@link #diskPool}.
+     */
+    private void loadConfigs() {
+        final TraceRecorder.Span span = traceRecorder.begin("loadConfigs", "startup");
+        try {
+            latencyStats = (ConfigLatencyStats) AConfiguration.load("latency.json", ConfigLatencyStats.class);
+        } catch (IOException | JsonSyntaxException e) {
+            // Nothing recorded yet, or unreadable. Either way start from scratch
+            latencyStats = new ConfigLatencyStats();
+        }
+        try {
+            settings = (ConfigSettings) AConfiguration.load("settings.json", ConfigSettings.class);
+            keybinds = (ConfigKeybinds) AConfiguration.load("keybinds.json", ConfigKeybinds.class);
+            usageStats = (ConfigUsageStats) AConfiguration.load("privacy.json", ConfigUsageStats.class);
+        } catch (IOException | JsonSyntaxException e) {
+            // Config either doesn't exist or couldn't be parsed
+            e.printStackTrace();
+            assetFactory.createDirectories();
+
+            if(settings == null) {
+                settings = new ConfigSettings();
+            }
+            if(keybinds == null) {
+                keybinds = new ConfigKeybinds(true);
+            }
+            if(usageStats == null) {
+                promptUserForUsageStats = true;
             }
 
-            // Try to load the previous game list from cache
-            // Web server will probably instruct to reload if it's available
             try {
-                final Game[] gameListArray = this.assetFactory.loadCachedGamelist();
-                if(gameListArray != null) {
-                    this.gameList = java.util.Arrays.asList(gameListArray);
-                }
-            } catch (Exception e) {
+                // Write the default config that we just made to save it
+                settings.save();
+                keybinds.save();
+            } catch (IOException e1) {
+                // File couldn't be saved
+                e1.printStackTrace();
+                sendExceptionRequest(e1);
+                Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                        "quickplay.config.saveerror").setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+            }
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Create the Google Analytics instance if possible and send the session start event
+     */
+    private void startAnalyticsSession() {
+        // Create new Google Analytics instance if possible
+        if(usageStats != null && usageStats.statsToken != null) {
+            final TraceRecorder.Span span = traceRecorder.begin("createGoogleAnalytics", "startup");
+            createGoogleAnalytics();
+            span.end();
+        }
+
+        // Send analytical data to Google
+        if(usageStats != null && usageStats.statsToken != null && usageStats.sendUsageStats && ga != null) {
+            try {
+                ga.createEvent("Systematic Events", "Mod Enable")
+                        .setSessionControl(AnalyticsRequest.SessionControl.START)
+                        .send();
+            } catch (IOException e) {
                 e.printStackTrace();
-                sendExceptionRequest(e);
             }
+        }
+    }
+
+    /**
+     * Send the enable request to the web server and handle its response
+     */
+    private void sendEnableRequest() {
+        if(!state.get().enabled) {
+            return;
+        }
+        final Request request = requestFactory.newEnableRequest();
+        if(request != null) {
+            final TraceRecorder.Span span = traceRecorder.begin("enableRequest", "startup");
+            final WebResponse response = request.execute();
+            span.end();
 
-            this.threadPool.submit(() -> {
-                final Request request = requestFactory.newEnableRequest();
-                if(request != null) {
-                    final WebResponse response = request.execute();
+            if (response != null) {
+                for (ResponseAction action : response.actions) {
+                    action.run();
+                }
 
-                    if (response != null) {
-                        for (ResponseAction action : response.actions) {
-                            action.run();
+                try {
+                    if (response.ok && response.content != null) {
+                        // Add the premium about information
+                        if(response.content.getAsJsonObject().get("premiumInfo") != null) {
+                            premiumAbout = IChatComponent.Serializer
+                                    .jsonToComponent(response.content.getAsJsonObject().get("premiumInfo").toString());
                         }
-
-                        try {
-                            if (response.ok && response.content != null) {
-                                // Add the premium about information
-                                if(response.content.getAsJsonObject().get("premiumInfo") != null) {
-                                    premiumAbout = IChatComponent.Serializer
-                                            .jsonToComponent(response.content.getAsJsonObject().get("premiumInfo").toString());
-                                }
-                                // Add all glyphs
-                                if(response.content.getAsJsonObject().get("glyphs") != null) {
-                                    QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
-                                        glyphs.addAll(Arrays.asList(new Gson().fromJson(response.content
-                                                .getAsJsonObject().get("glyphs"), PlayerGlyph[].class)));
-                                    });
-                                }
-                            }
-                        } catch (IllegalStateException e) {
-                            e.printStackTrace();
-                            sendExceptionRequest(e);
+                        // Add all glyphs
+                        if(response.content.getAsJsonObject().get("glyphs") != null) {
+                            QuickplayEventHandler.mainThreadExecutor.execute(() -> {
+                                glyphs.addAll(Arrays.asList(new Gson().fromJson(response.content
+                                        .getAsJsonObject().get("glyphs"), PlayerGlyph[].class)));
+                            });
                         }
                     }
+                } catch (IllegalStateException e) {
+                    e.printStackTrace();
+                    sendExceptionRequest(e);
                 }
-            });
-
-            // Check for Premium subscription
-            try {
-                verifyPremium();
-            } catch (IOException | NoSubscriptionException e) {
-                e.printStackTrace();
             }
+        }
+    }
 
-            registerEventHandler(new GlyphRenderer());
-            registerEventHandler(new QuickplayEventHandler());
-
-            chatBuffer = (ChatBuffer) new ChatBuffer(100).start();
-            instanceWatcher = new InstanceWatcher(30).start();
-            instanceDisplay = new InstanceDisplay();
-
-            commands.add(new CommandQuickplay());
+    /**
+     * Register all of Quickplay's client commands
+     */
+    private void registerCommands() {
+        // Client commands can't be unregistered, so they're registered once and check whether the mod is enabled
+        if(!commands.isEmpty()) {
+            return;
+        }
+        final TraceRecorder.Span span = traceRecorder.begin("registerCommands", "startup");
+        commands.add(new CommandQuickplay());
+
+        if(settings.redesignedLobbyCommand) {
+            // Register lobby commands
+            commands.add(new CommandHub("l"));
+            commands.add(new CommandHub("lobby"));
+            commands.add(new CommandHub("hub"));
+            commands.add(new CommandHub("spawn"));
+            commands.add(new CommandHub("leave"));
+            commands.add(new CommandMain("main"));
+        }
+        // Copy of the lobby command that doesn't override server commands
+        // Used for "Go to Lobby" buttons
+        commands.add(new CommandHub("quickplaylobby", "lobby"));
+        commands.forEach(ClientCommandHandler.instance::registerCommand);
+        span.end();
+    }
 
-            if(settings.redesignedLobbyCommand) {
-                // Register lobby commands
-                commands.add(new CommandHub("l"));
-                commands.add(new CommandHub("lobby"));
-                commands.add(new CommandHub("hub"));
-                commands.add(new CommandHub("spawn"));
-                commands.add(new CommandHub("leave"));
-                commands.add(new CommandMain("main"));
+    /**
+     * Export everything {@link #traceRecorder} has recorded on {@link #diskPool}, and tell the user where it went
+     */
+    public void exportTrace() {
+        diskPool.execute(() -> {
+            try {
+                final File file = traceRecorder.export();
+                System.out.println("Quickplay trace exported to " + file.getPath());
+                messageBuffer.push(new Message(new ChatComponentTranslation("quickplay.commands.quickplay.trace.exported",
+                        file.getPath()).setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GREEN))));
+            } catch (IOException e) {
+                e.printStackTrace();
+                sendExceptionRequest(e);
+                messageBuffer.push(new Message(new ChatComponentTranslation("quickplay.commands.quickplay.trace.error")
+                        .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
             }
-            // Copy of the lobby command that doesn't override server commands
-            // Used for "Go to Lobby" buttons
-            commands.add(new CommandHub("quickplaylobby", "lobby"));
-            commands.forEach(ClientCommandHandler.instance::registerCommand);
-        }
+        });
     }
 
     /**
@@ -374,22 +735,14 @@ public class Quickplay {
     }
 
     /**
-     * Disable the mod
+     * Disable the mod. Synchronized with {@link #enable()}
+     * @param reason Reason shown to the user when they try to use the mod
      */
-    public void disable(String reason) {
-        // TODO This gets stuck when event handlers are unregistered.
-        if(this.enabled) {
-            this.enabled = false;
-            eventHandlers.forEach(this::unregisterEventHandler);
+    public synchronized void disable(String reason) {
+        if(state.get().enabled) {
+            state.update(current -> current.withEnabled(false));
             this.disabledReason = reason;
-
-            if(chatBuffer != null) {
-                chatBuffer.stop();
-            }
-
-            if(instanceWatcher != null) {
-                instanceWatcher.stop();
-            }
+            lifecycle.stop();
         }
     }
 
@@ -399,6 +752,7 @@ public class Quickplay {
      * @return Whether the mod is enabled
      */
     public boolean checkEnabledStatus() {
+        final boolean enabled = state.get().enabled;
         if(!enabled) {
             IChatComponent message = new ChatComponentTranslation("quickplay.disabled", this.disabledReason);
             message.setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED));
@@ -421,24 +775,12 @@ public class Quickplay {
     }
 
     /**
-     * Send an exception request to Quickplay backend for error reporting
+     * Report an exception to Quickplay backend for error reporting. Never blocks, repeats are aggregated
+     * and uploads are rate limited by {@link #exceptionReporter}.
      * @param e Exception that occurred
      */
     public void sendExceptionRequest(Exception e) {
-        if(usageStats != null && usageStats.sendUsageStats) {
-            final WebResponse response = requestFactory.newExceptionRequest(e).execute();
-            if(response != null) {
-                for (ResponseAction action : response.actions)
-                    action.run();
-            }
-            if(ga != null) {
-                try {
-                    ga.createException().setExceptionDescription(e.getMessage()).send();
-                } catch (IOException e1) {
-                    e1.printStackTrace();
-                }
-            }
-        }
+        exceptionReporter.report(e);
     }
 
     /**
@@ -517,8 +859,8 @@ public class Quickplay {
 
     /**
      * Verify whether this client has a Quickplay Premium subscription, and authenticate
-     * {@link #expirationTime} and {@link #premiumClient} are set by this method.
-     * This method also returns {@link #premiumClient} on completion.
+     * {@link #expirationTime} and {@link ClientState#premiumClient} are set by this method.
+     * This method also returns {@link ClientState#premiumClient} on completion.
      * @throws NoSubscriptionException when the client attempts to get a handshake secret,
      *      but doesnt have a subscription.
      */
@@ -538,40 +880,42 @@ public class Quickplay {
                         action.run();
 
                 if(response.content != null && response.content.getAsJsonObject().get("premium") != null) {
-                    this.premiumClient = response.content.getAsJsonObject().get("premium").getAsBoolean();
+                    final boolean premium = response.content.getAsJsonObject().get("premium").getAsBoolean();
+                    state.update(current -> current.withPremiumClient(premium));
 
                     if(response.content.getAsJsonObject().get("sessionKey") != null) {
-                        this.sessionKey = response.content.getAsJsonObject().get("sessionKey").getAsString();
+                        final String sessionKey = response.content.getAsJsonObject().get("sessionKey").getAsString();
+                        state.update(current -> current.withSessionKey(sessionKey));
                     }
 
                     // Reauthenticate just before the session expires
-                    if(response.content.getAsJsonObject().get("sessionExpriesIn") != null)
-                        Quickplay.INSTANCE.threadPool.submit(() -> {
-                            try {
-                                // Sleep until 5 minutes before the session expires, or for at least 5 minutes.
-                                Thread.sleep(Math.max(response.content.getAsJsonObject().get("sessionExpiresIn")
-                                        .getAsLong() - 300000, 300000));
-                            } catch (InterruptedException e) {
-                                e.printStackTrace();
-                            }
+                    if(response.content.getAsJsonObject().get("sessionExpiresIn") != null) {
+                        // Wait until 5 minutes before the session expires, or for at least 5 minutes.
+                        final long reauthDelay = Math.max(response.content.getAsJsonObject().get("sessionExpiresIn")
+                                .getAsLong() - 300000, 300000);
+                        jobScheduler.newJob("premium-reauth", () -> {
                             try {
                                 verifyPremium();
                             } catch (IOException | NoSubscriptionException e) {
                                 e.printStackTrace();
                             }
-                        });
+                        }).once(reauthDelay, TimeUnit.MILLISECONDS)
+                                .onDisable(JobScheduler.DisablePolicy.CANCEL)
+                                .executeOn(networkPool)
+                                .start();
+                    }
 
-                    if(this.premiumClient && response.content.getAsJsonObject().get("expires") != null) {
+                    if(premium && response.content.getAsJsonObject().get("expires") != null) {
                         this.expirationTime = response.content.getAsJsonObject().get("expires").getAsLong();
                     }
-                    if(this.premiumClient && response.content.getAsJsonObject().get("purchasePage") != null) {
+                    if(premium && response.content.getAsJsonObject().get("purchasePage") != null) {
                         this.purchasePageURL = response.content.getAsJsonObject().get("purchasePage").getAsString();
                     }
                 } else {
-                    this.premiumClient = false;
+                    state.update(current -> current.withPremiumClient(false));
                 }
 
-                return this.premiumClient;
+                return state.get().premiumClient;
             } else {
                 throw new IOException("Failed to verify Premium: null or not-ok response from web server.");
             }
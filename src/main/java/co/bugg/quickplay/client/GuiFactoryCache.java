@@ -0,0 +1,94 @@
+package co.bugg.quickplay.client;
+
+import net.minecraft.client.gui.GuiScreen;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache of GUI constructors, used to turn a GUI class name and constructor parameters (as stored in
+ * {@link QuickplayKeybind}) into a {@link Supplier} that creates the GUI without any reflection.
+ *
+ * Constructors are looked up once per class name and parameter types and stored as {@link MethodHandle}s.
+ */
+public class GuiFactoryCache {
+
+    /**
+     * Constructor handles, keyed by class name and parameter types.
+     * Each handle takes an Object[] of parameters and returns a {@link GuiScreen}.
+     */
+    private static final Map<String, MethodHandle> constructors = new ConcurrentHashMap<>();
+
+    /**
+     * Resolve a GUI class and its constructor parameters into a factory
+     * @param className Fully qualified name of the GUI class
+     * @param constructorParams Parameters to pass to the constructor. The constructor is chosen by their runtime types.
+     * @return Factory which creates a new instance of the GUI each time it's called
+     * @throws ReflectiveOperationException The class or a matching constructor couldn't be found or accessed
+     * @throws IllegalArgumentException The class isn't a {@link GuiScreen}
+     */
+    public static Supplier<GuiScreen> resolve(String className, Object[] constructorParams) throws ReflectiveOperationException {
+        if(className == null || constructorParams == null) {
+            throw new IllegalArgumentException("className and constructorParams cannot be null");
+        }
+
+        final Class<?>[] paramsClasses = new Class[constructorParams.length];
+        for(int i = 0; i < constructorParams.length; i++) {
+            if(constructorParams[i] == null) {
+                throw new IllegalArgumentException("constructorParams cannot contain null");
+            }
+            paramsClasses[i] = constructorParams[i].getClass();
+        }
+
+        final String key = className + Arrays.toString(paramsClasses);
+        MethodHandle handle = constructors.get(key);
+        if(handle == null) {
+            handle = findConstructor(className, paramsClasses);
+            constructors.put(key, handle);
+        }
+
+        final MethodHandle constructor = handle;
+        final Object[] params = constructorParams.clone();
+        return () -> {
+            try {
+                return (GuiScreen) constructor.invokeExact(params);
+            } catch(RuntimeException | Error e) {
+                throw e;
+            } catch(Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        };
+    }
+
+    /**
+     * Look up a GUI constructor and adapt it to take its parameters as an Object[]
+     * @param className Fully qualified name of the GUI class
+     * @param paramsClasses Types of the constructor's parameters
+     * @return Handle of type (Object[])GuiScreen
+     * @throws ReflectiveOperationException The class or a matching constructor couldn't be found or accessed
+     */
+    private static MethodHandle findConstructor(String className, Class<?>[] paramsClasses) throws ReflectiveOperationException {
+        final Class<?> clazz = Class.forName(className);
+        if(!GuiScreen.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException("class corresponding to className is not of type GuiScreen");
+        }
+
+        final Constructor<?> constructor = clazz.getDeclaredConstructor(paramsClasses);
+        return MethodHandles.publicLookup().unreflectConstructor(constructor)
+                .asSpreader(Object[].class, paramsClasses.length)
+                .asType(MethodType.methodType(GuiScreen.class, Object[].class));
+    }
+
+    /**
+     * Remove all cached constructors
+     */
+    public static void clear() {
+        constructors.clear();
+    }
+}
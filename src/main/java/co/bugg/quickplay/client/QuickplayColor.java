@@ -2,10 +2,12 @@ package co.bugg.quickplay.client;
 
 import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.util.GsonPostProcessorFactory;
+import co.bugg.quickplay.util.concurrent.JobScheduler;
 
 import java.awt.*;
 import java.io.Serializable;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Quickplay GUI Color system
@@ -23,9 +25,17 @@ public class QuickplayColor implements Serializable, GsonPostProcessorFactory.Po
      */
     protected float chromaSpeed;
     /**
-     * The future thread that calculate's this color's chroma values
+     * The job that calculates this color's chroma values, or null if this color has no chroma
      */
-    protected transient Future chromaFuture;
+    protected transient JobScheduler.Job chromaJob;
+    /**
+     * Name of {@link #chromaJob}, assigned the first time it's started
+     */
+    protected transient String chromaJobName;
+    /**
+     * Sequence used to give every color's chroma job a different name, as jobs with the same name replace each other
+     */
+    private static final AtomicLong chromaJobIds = new AtomicLong();
 
     /**
      * Constructor
@@ -60,25 +70,21 @@ public class QuickplayColor implements Serializable, GsonPostProcessorFactory.Po
     }
 
     /**
-     * Start a thread initializing the chroma animation
-     * Cancel any old threads if one exists
+     * Start a job running the chroma animation, if this color has chroma
+     * Cancel the old job if one exists
      */
     protected synchronized void startChromaThread() {
-        if(this.chromaFuture != null) this.chromaFuture.cancel(true);
+        if(this.chromaJob != null) this.chromaJob.cancel();
+        this.chromaJob = null;
 
-        this.chromaFuture = Quickplay.INSTANCE.threadPool.submit(() -> {
-            while(getChromaSpeed() != 0) {
+        if(getChromaSpeed() != 0) {
+            if(this.chromaJobName == null) this.chromaJobName = "chroma#" + chromaJobIds.incrementAndGet();
+            this.chromaJob = Quickplay.INSTANCE.jobScheduler.newJob(this.chromaJobName, () -> {
                 float[] hsb = new float[3];
                 Color.RGBtoHSB(this.color.getRed(), this.color.getGreen(), this.color.getBlue(), hsb);
                 this.color = new Color(Color.HSBtoRGB((hsb[0] += getChromaSpeed()), hsb[1], hsb[2]));
-
-                try {
-                    Thread.sleep(20);
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-        });
+            }).fixedRate(20, TimeUnit.MILLISECONDS).start();
+        }
     }
 
     /**
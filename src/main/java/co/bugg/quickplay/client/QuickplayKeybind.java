@@ -3,19 +3,18 @@ package co.bugg.quickplay.client;
 import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.QuickplayEventHandler;
 import co.bugg.quickplay.util.GsonPostProcessorFactory;
+import co.bugg.quickplay.util.MainThreadExecutor;
 import co.bugg.quickplay.util.Message;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.util.ChatComponentTranslation;
 import net.minecraft.util.ChatStyle;
 import net.minecraft.util.EnumChatFormatting;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
-import net.minecraftforge.fml.common.gameevent.InputEvent;
 import org.apache.commons.lang3.StringUtils;
-import org.lwjgl.input.Keyboard;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.function.Supplier;
 
 /**
  * Quickplay's Keybind system
@@ -25,7 +24,7 @@ import java.io.Serializable;
  *     <li>GUI opening</li>
  * </ul>
  */
-public class QuickplayKeybind implements Serializable, GsonPostProcessorFactory.PostProcessor{
+public class QuickplayKeybind implements Serializable, GsonPostProcessorFactory.PostProcessor {
 
     /**
      * Name of this keybind
@@ -56,10 +55,16 @@ public class QuickplayKeybind implements Serializable, GsonPostProcessorFactory.
      */
     public boolean requiresPressTimer = false;
     /**
-     * The number of times this keybind is activated. This is used to make sure the user doesn't release the
-     * keybind and repress it before the keybind hold duration is complete.
+     * If this keybind opens a GUI:
+     * Factory for the GUI, resolved from {@link #className} and {@link #constructorParams} when this keybind is
+     * created or loaded. Null if the GUI couldn't be resolved.
+     */
+    private transient Supplier<GuiScreen> guiFactory = null;
+    /**
+     * If this keybind opens a GUI:
+     * The reason the GUI couldn't be resolved, or null if it was resolved successfully
      */
-    private transient int pressCount = 0;
+    private transient Exception guiFactoryError = null;
 
     /**
      * Constructor
@@ -88,6 +93,7 @@ public class QuickplayKeybind implements Serializable, GsonPostProcessorFactory.
         this(name, defaultKey);
         this.className = guiClass.getName();
         this.constructorParams = guiConstructorParams;
+        resolveGuiFactory();
     }
 
     /**
@@ -99,49 +105,60 @@ public class QuickplayKeybind implements Serializable, GsonPostProcessorFactory.
     public QuickplayKeybind(String name, int defaultKey) {
         this.name = name;
         this.key = defaultKey;
+    }
 
-        registerAsEventHandler();
+    /**
+     * Resolve {@link #className} and {@link #constructorParams} into {@link #guiFactory}, so that pressing this
+     * keybind doesn't require any reflection. If it fails, the error is saved to {@link #guiFactoryError}.
+     */
+    public void resolveGuiFactory() {
+        guiFactory = null;
+        guiFactoryError = null;
+        if(className != null && constructorParams != null) {
+            try {
+                guiFactory = GuiFactoryCache.resolve(className, constructorParams);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                e.printStackTrace();
+                guiFactoryError = e;
+            }
+        }
     }
 
     /**
-     * Register this keybind as an event handler
+     * Whether this keybind is valid, i.e. if it opens a GUI, the GUI could be resolved
+     * @return Whether this keybind is valid
      */
-    private void registerAsEventHandler() {
-        Quickplay.INSTANCE.registerEventHandler(this);
+    public boolean isValid() {
+        return guiFactoryError == null;
     }
 
     /**
      * Called whenever this keybind is triggered
+     * Key presses are dispatched to keybinds by {@link co.bugg.quickplay.config.ConfigKeybinds}
      */
     public void keyPressed() {
         // Open a GUI if one is available
-        if(className != null && constructorParams != null) {
+        if(guiFactoryError != null) {
+            // Already reported when the GUI was resolved
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.keybinds.illegal", name)
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+        } else if(guiFactory != null) {
             try {
-                final Class clazz = Class.forName(className);
-                if (clazz == null || (clazz != GuiScreen.class && !GuiScreen.class.isAssignableFrom(clazz))) {
-                    throw new IllegalArgumentException("class corresponding to className could not be found or is not of type GuiScreen");
-                }
-
-                Class[] paramsClasses = new Class[constructorParams.length];
-                int i = 0;
-                for (Object param : constructorParams)
-                    paramsClasses[i++] = param.getClass();
-
-                final GuiScreen screen = (GuiScreen) clazz.getDeclaredConstructor(paramsClasses)
-                        .newInstance(constructorParams);
+                final GuiScreen screen = guiFactory.get();
                 // Minecraft doesn't like opening GUIs outside the main thread, or else the cursor disappears.
                 // https://www.minecraftforge.net/forum/topic/36866-189mouse-not-showing-up-in-gui/
-                QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
+                QuickplayEventHandler.mainThreadExecutor.execute(() -> {
                     Minecraft.getMinecraft().displayGuiScreen(screen);
-                });
+                }, MainThreadExecutor.Priority.HIGH);
 
                 // Send analytical data to Google
                 if (Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                         Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                    Quickplay.INSTANCE.threadPool.submit(() -> {
+                    Quickplay.INSTANCE.networkPool.submit(() -> {
                         try {
                             Quickplay.INSTANCE.ga.createEvent("Keybinds", "Keybind Pressed")
-                                    .setEventLabel(clazz.getName() + " (" + StringUtils.join(constructorParams, ", ") + ")")
+                                    .setEventLabel(className + " (" + StringUtils.join(constructorParams, ", ") + ")")
                                     // Event value 0 for GUI, event value 1 for command
                                     .setEventValue(0)
                                     .send();
@@ -169,7 +186,7 @@ public class QuickplayKeybind implements Serializable, GsonPostProcessorFactory.
             // Send analytical data to Google
             if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                     Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         Quickplay.INSTANCE.ga.createEvent("Keybinds", "Keybind Pressed")
                                 .setEventLabel(chatCommand)
@@ -186,32 +203,12 @@ public class QuickplayKeybind implements Serializable, GsonPostProcessorFactory.
 
     @Override
     public void postDeserializationProcess() {
-        registerAsEventHandler();
-    }
-
-    @SubscribeEvent
-    public void onKeyPress(InputEvent.KeyInputEvent event) {
-        // Keybinds only work On Hypixel and if Quickplay is enabled.
-        if(!Quickplay.INSTANCE.checkEnabledStatus() || !Quickplay.INSTANCE.onHypixel) {
-            return;
-        }
-        if(key != Keyboard.KEY_NONE && Keyboard.isKeyDown(key)) {
-            int currentPressCount = ++this.pressCount;
-
-            Quickplay.INSTANCE.threadPool.submit(() -> {
-                if(this.requiresPressTimer) {
-                    try {
-                        Thread.sleep((long) (Quickplay.INSTANCE.settings.keybindPressTime * 1000));
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
-                /* Make sure the key wasn't let go and pressed again between
-                 the original press and the time this code runs. */
-                if(Keyboard.isKeyDown(key) && this.pressCount == currentPressCount) {
-                    keyPressed();
-                }
-            });
+        resolveGuiFactory();
+        if(!isValid() && Quickplay.INSTANCE.messageBuffer != null) {
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.keybinds.illegal", name)
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+            Quickplay.INSTANCE.sendExceptionRequest(guiFactoryError);
         }
     }
 }
@@ -82,7 +82,7 @@ public abstract class BaseCommand extends ACommand implements ICommand {
         // Send analytical data to Google
         if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                 Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-            Quickplay.INSTANCE.threadPool.submit(() -> {
+            Quickplay.INSTANCE.networkPool.submit(() -> {
                 try {
                     Quickplay.INSTANCE.ga.createEvent("commands", "Execute Command")
                             .setEventLabel("/" + getName() + " " + String.join(" ", args))
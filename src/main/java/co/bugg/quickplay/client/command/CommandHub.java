@@ -56,11 +56,11 @@ public class CommandHub extends BaseCommand {
 
     @Override
     public void processCommand(ICommandSender sender, String[] args) {
-        Quickplay.INSTANCE.threadPool.submit(() -> {
+        Quickplay.INSTANCE.backgroundPool.submit(() -> {
             if(Quickplay.INSTANCE.checkEnabledStatus()) {
                 // sendChatMessage is used here instead of chatBuffer.push, as chatBuffer.push would try
                 // to execute as a client command which would loop infinitely
-                if(Quickplay.INSTANCE.onHypixel) {
+                if(Quickplay.INSTANCE.state.get().onHypixel) {
                     if(args.length == 0) {
                         Minecraft.getMinecraft().thePlayer.sendChatMessage("/" + serverCommand);
                     } else if(args.length == 1) {
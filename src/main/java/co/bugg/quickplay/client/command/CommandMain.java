@@ -2,6 +2,7 @@ package co.bugg.quickplay.client.command;
 
 import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.util.Message;
+import co.bugg.quickplay.util.ServerId;
 import net.minecraft.client.Minecraft;
 import net.minecraft.command.ICommandSender;
 import net.minecraft.util.ChatComponentTranslation;
@@ -56,11 +57,11 @@ public class CommandMain extends BaseCommand {
 
     @Override
     public void processCommand(ICommandSender sender, String[] args) {
-        Quickplay.INSTANCE.threadPool.submit(() -> {
+        Quickplay.INSTANCE.backgroundPool.submit(() -> {
             if(Quickplay.INSTANCE.checkEnabledStatus()) {
                 // sendChatMessage is used here instead of chatBuffer.push, as chatBuffer.push would try
                 // to execute as a client command which would loop infinitely
-                if(Quickplay.INSTANCE.onHypixel) {
+                if(Quickplay.INSTANCE.state.get().onHypixel) {
                     if(args.length == 0) {
                         Minecraft.getMinecraft().thePlayer.sendChatMessage("/" + serverCommand);
                     } else {
@@ -70,7 +71,8 @@ public class CommandMain extends BaseCommand {
                             final int lobbyNumber = Integer.parseInt(args[0]);
 
                             // If not in main lobby, go to main lobby first
-                            if(!Quickplay.INSTANCE.instanceWatcher.getCurrentServer().startsWith("lobby")) {
+                            final ServerId currentServer = Quickplay.INSTANCE.instanceWatcher.getCurrentServerId();
+                            if(currentServer == null || !currentServer.isMainLobby()) {
                                 Minecraft.getMinecraft().thePlayer.sendChatMessage("/" + serverCommand);
 
                                 try {
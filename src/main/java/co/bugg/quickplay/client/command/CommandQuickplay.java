@@ -29,9 +29,11 @@ public class CommandQuickplay extends BaseCommand {
         addSubCommand(new SubCommandConfig(this));
         addSubCommand(new SubCommandPremium(this));
         addSubCommand(new SubCommandHistory(this));
+        addSubCommand(new SubCommandStats(this));
         addSubCommand(new SubCommandDiscord(this));
         addSubCommand(new SubCommandParty(this));
         addSubCommand(new SubCommandRefreshResource(this));
+        addSubCommand(new SubCommandTrace(this));
         addSubCommand(new SubCommandWiki(this));
         addSubCommand(new SubCommandVersion(this));
     }
@@ -2,6 +2,7 @@ package co.bugg.quickplay.client.command;
 
 import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.util.Message;
+import co.bugg.quickplay.util.ServerId;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.util.ChatComponentTranslation;
 import net.minecraft.util.ChatStyle;
@@ -36,13 +37,11 @@ public class SubCommandDelivery extends ACommand {
 
     @Override
     public void run(String[] args) {
-        if(Quickplay.INSTANCE.onHypixel) {
-            String currentServer = Quickplay.INSTANCE.instanceWatcher.getCurrentServer();
-            if(currentServer == null) currentServer = "null";
+        if(Quickplay.INSTANCE.state.get().onHypixel) {
+            final ServerId currentServer = Quickplay.INSTANCE.instanceWatcher.getCurrentServerId();
 
-            if((currentServer.contains("mini") || currentServer.contains("mega") || currentServer.contains("limbo")) &&
-                    !currentServer.contains("walls")) {
-                if(currentServer.contains("limbo")) {
+            if(currentServer != null && (currentServer.isInGame() || currentServer.isLimbo())) {
+                if(currentServer.isLimbo()) {
                     Quickplay.INSTANCE.chatBuffer.push("/lobby");
                 } else {
                     Quickplay.INSTANCE.chatBuffer.push("/achat §");
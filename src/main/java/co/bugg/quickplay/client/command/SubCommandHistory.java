@@ -2,18 +2,29 @@ package co.bugg.quickplay.client.command;
 
 import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.util.Message;
+import co.bugg.quickplay.util.history.HistoryEntry;
+import co.bugg.quickplay.util.history.HistoryPage;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.util.*;
 
+import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 /**
- * Sub command to display instance history
+ * Sub command to display instance history,
+ * a page at a time & optionally filtered by server type
  */
 public class SubCommandHistory extends ACommand {
 
+    /**
+     * Number of instances displayed per page
+     */
+    public static final int pageSize = 20;
+
     /**
      * Constructor
      * @param parent Parent command
@@ -23,7 +34,7 @@ public class SubCommandHistory extends ACommand {
                 parent,
                 Collections.singletonList("history"),
                 I18n.format("quickplay.commands.quickplay.history.help"),
-                "[count]",
+                "[page] [server type]",
                 true,
                 true,
                 85,
@@ -34,43 +45,34 @@ public class SubCommandHistory extends ACommand {
 
     @Override
     public void run(String[] args) {
-        if(Quickplay.INSTANCE.onHypixel) {
-            if(Quickplay.INSTANCE.instanceWatcher != null && Quickplay.INSTANCE.instanceWatcher.instanceHistory != null) {
+        if(Quickplay.INSTANCE.state.get().onHypixel) {
+            if(Quickplay.INSTANCE.instanceWatcher != null) {
 
-                // Get how many isntances to display
-                // Default # of instances to display
-                final int defaultInstanceCount = 20;
-                int instanceCount;
-                if (args.length > 0) {
+                // Get which page to display & which server type to filter by, in either order
+                int page = 0;
+                String typeFilter = null;
+                for(String arg : args) {
                     try {
-                        instanceCount = Math.abs(Integer.parseInt(args[0]));
+                        page = Math.max(Math.abs(Integer.parseInt(arg)) - 1, 0);
                     } catch(NumberFormatException e) {
-                        instanceCount = defaultInstanceCount;
+                        typeFilter = arg;
                     }
-                } else {
-                    instanceCount = defaultInstanceCount;
-                }
-
-                // If the number provided by the user is too large, use the max
-                instanceCount = Math.min(Quickplay.INSTANCE.instanceWatcher.instanceHistory.size(), instanceCount);
-
-                final IChatComponent instanceList = new ChatComponentText("");
-
-                for(int i = 0; i < instanceCount; i++) {
-                    instanceList.appendText(Quickplay.INSTANCE.instanceWatcher.instanceHistory.get(i) + "\n");
                 }
 
-                instanceList.setChatStyle(new ChatStyle().setColor(EnumChatFormatting.YELLOW));
-
-                Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
-                        "quickplay.commands.quickplay.history.header", instanceCount)
-                        .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GOLD))));
-                Quickplay.INSTANCE.messageBuffer.push(new Message(instanceList));
+                final int requestedPage = page;
+                final String requestedFilter = typeFilter;
+                // The journal may span days of history, so read it off the client thread
+                Quickplay.INSTANCE.diskPool.execute(() -> {
+                    try {
+                        sendPage(Quickplay.INSTANCE.instanceWatcher.journal.read(requestedPage, pageSize, requestedFilter));
+                    } catch(IOException e) {
+                        e.printStackTrace();
+                        Quickplay.INSTANCE.sendExceptionRequest(e);
+                        sendError();
+                    }
+                });
             } else {
-                // Something went wrong
-                Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
-                        "quickplay.commands.quickplay.history.error")
-                        .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+                sendError();
             }
         } else {
             // Not online hypixel
@@ -80,6 +82,42 @@ public class SubCommandHistory extends ACommand {
         }
     }
 
+    /**
+     * Send a page of instance history to the client
+     * @param page Page to send
+     */
+    private void sendPage(HistoryPage page) {
+        if(page.entries.isEmpty()) {
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.commands.quickplay.history.empty")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+            return;
+        }
+
+        final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        final IChatComponent instanceList = new ChatComponentText("");
+        for(HistoryEntry entry : page.entries) {
+            instanceList.appendSibling(new ChatComponentText(dateFormat.format(new Date(entry.timestamp)) + " ")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GRAY)));
+            instanceList.appendSibling(new ChatComponentText(entry.server + "\n")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.YELLOW)));
+        }
+
+        Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                "quickplay.commands.quickplay.history.page", page.page + 1, page.getPageCount(), page.total)
+                .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GOLD))));
+        Quickplay.INSTANCE.messageBuffer.push(new Message(instanceList));
+    }
+
+    /**
+     * Tell the client something went wrong
+     */
+    private void sendError() {
+        Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                "quickplay.commands.quickplay.history.error")
+                .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+    }
+
     @Override
     public List<String> getTabCompletions(String[] args) {
         return new ArrayList<>();
@@ -2,6 +2,7 @@ package co.bugg.quickplay.client.command;
 
 import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.util.Message;
+import co.bugg.quickplay.util.ServerId;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.util.ChatComponentTranslation;
 import net.minecraft.util.ChatStyle;
@@ -36,11 +37,10 @@ public class SubCommandLimbo extends ACommand {
 
     @Override
     public void run(String[] args) {
-        if(Quickplay.INSTANCE.onHypixel) {
-            String currentServer = Quickplay.INSTANCE.instanceWatcher.getCurrentServer();
-            if(currentServer == null) currentServer = "null";
+        if(Quickplay.INSTANCE.state.get().onHypixel) {
+            final ServerId currentServer = Quickplay.INSTANCE.instanceWatcher.getCurrentServerId();
 
-            if(currentServer.contains("mini") || currentServer.contains("mega") && !currentServer.contains("walls")) {
+            if(currentServer != null && currentServer.isInGame()) {
                 Quickplay.INSTANCE.chatBuffer.push("/achat §");
 
                 // Sleep for a sec to give time to get to the lobby
@@ -55,7 +55,7 @@ public class SubCommandLimbo extends ACommand {
                 }
             }
 
-            if(!currentServer.equals("limbo")) {
+            if(currentServer == null || !currentServer.isLimbo()) {
                 Quickplay.INSTANCE.chatBuffer.push("/achat §");
             } else {
                 Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
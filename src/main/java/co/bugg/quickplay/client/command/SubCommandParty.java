@@ -48,7 +48,7 @@ public class SubCommandParty extends ACommand {
             new TickDelay(() -> Minecraft.getMinecraft().displayGuiScreen(new QuickplayGuiPartyEditor()), 1);
         } else {
             if(args[1].equals("launch")) {
-                new TickDelay(() -> Quickplay.INSTANCE.threadPool.submit(Quickplay.INSTANCE::launchPartyMode), 1);
+                new TickDelay(() -> Quickplay.INSTANCE.backgroundPool.submit(Quickplay.INSTANCE::launchPartyMode), 1);
             } else {
                 Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
                         "quickplay.party.syntax", "/qp party launch")
@@ -37,7 +37,7 @@ public class SubCommandRefreshResource extends ACommand {
     @Override
     public void run(String[] args) {
         if(args.length >= 1) {
-            QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
+            QuickplayEventHandler.mainThreadExecutor.execute(() -> {
                 // Reload the resource pack
                 Quickplay.INSTANCE.reloadResource(new File(AssetFactory.assetsDirectory + "/" + args[0]),
                         new ResourceLocation(Reference.MOD_ID, args[0]));
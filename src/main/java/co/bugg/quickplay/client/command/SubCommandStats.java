@@ -0,0 +1,132 @@
+package co.bugg.quickplay.client.command;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.config.ConfigLatencyStats;
+import co.bugg.quickplay.games.Game;
+import co.bugg.quickplay.games.Mode;
+import co.bugg.quickplay.util.Message;
+import co.bugg.quickplay.util.PollMetrics;
+import co.bugg.quickplay.util.stats.LatencyHistogram;
+import net.minecraft.client.resources.I18n;
+import net.minecraft.util.*;
+
+import java.util.*;
+
+/**
+ * Sub command to display how long each mode takes to get the client into a game
+ * @see co.bugg.quickplay.util.stats.LatencyTracker
+ */
+public class SubCommandStats extends ACommand {
+
+    /**
+     * Constructor
+     * @param parent Parent command
+     */
+    public SubCommandStats(ACommand parent) {
+        super(
+                parent,
+                Collections.singletonList("stats"),
+                I18n.format("quickplay.commands.quickplay.stats.help"),
+                "",
+                true,
+                true,
+                84,
+                false,
+                parent == null ? 0 : parent.getDepth() + 1
+        );
+    }
+
+    @Override
+    public void run(String[] args) {
+        final ConfigLatencyStats stats = Quickplay.INSTANCE.latencyStats;
+
+        // Work out the percentiles up front, as latencies may be recorded while the lines are built
+        final List<String> commands = new ArrayList<>();
+        final Map<String, long[]> percentiles = new HashMap<>();
+        final Map<String, Long> counts = new HashMap<>();
+        if(stats != null) {
+            synchronized(stats) {
+                for(Map.Entry<String, LatencyHistogram> entry : stats.modes.entrySet()) {
+                    final LatencyHistogram histogram = entry.getValue();
+                    if(histogram == null || histogram.count <= 0) {
+                        continue;
+                    }
+                    commands.add(entry.getKey());
+                    percentiles.put(entry.getKey(), new long[]{histogram.percentile(50), histogram.percentile(90),
+                            histogram.percentile(99)});
+                    counts.put(entry.getKey(), histogram.count);
+                }
+            }
+        }
+
+        if(commands.isEmpty()) {
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.commands.quickplay.stats.empty")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+            pushPollMetrics();
+            return;
+        }
+        commands.sort(Comparator.comparingLong(command -> percentiles.get(command)[0]));
+
+        final Map<String, String> modeNames = getModeNames();
+        final IChatComponent modeList = new ChatComponentText("");
+        for(String command : commands) {
+            final long[] modePercentiles = percentiles.get(command);
+            modeList.appendSibling(new ChatComponentText(modeNames.getOrDefault(command, command) + ": ")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.YELLOW)));
+            modeList.appendSibling(new ChatComponentText(LatencyHistogram.formatSeconds(modePercentiles[0]) + " / " +
+                    LatencyHistogram.formatSeconds(modePercentiles[1]) + " / " +
+                    LatencyHistogram.formatSeconds(modePercentiles[2]) + " ")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.WHITE)));
+            modeList.appendSibling(new ChatComponentTranslation("quickplay.commands.quickplay.stats.games",
+                    counts.get(command)).setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GRAY)));
+            modeList.appendText("\n");
+        }
+
+        Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                "quickplay.commands.quickplay.stats.header")
+                .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GOLD))));
+        Quickplay.INSTANCE.messageBuffer.push(new Message(modeList));
+        pushPollMetrics();
+    }
+
+    /**
+     * Tell the user how many <code>/whereami</code> commands instance polling has sent and saved, if it's running
+     */
+    private static void pushPollMetrics() {
+        final PollMetrics metrics = Quickplay.INSTANCE.getPollMetrics();
+        if(metrics == null) {
+            return;
+        }
+        Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                "quickplay.commands.quickplay.stats.polls", metrics.polls, Math.max(metrics.saved, 0))
+                .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GRAY))));
+    }
+
+    /**
+     * Get a display name for every mode in the game list, by its command
+     * @return Display names, e.g. "Bed Wars Solo", by command
+     */
+    private static Map<String, String> getModeNames() {
+        final Map<String, String> names = new HashMap<>();
+        final List<Game> gameList = Quickplay.INSTANCE.state.get().gameList;
+        if(gameList != null) {
+            for(Game game : gameList) {
+                if(game.modes == null) {
+                    continue;
+                }
+                for(Mode mode : game.modes) {
+                    if(mode.command != null) {
+                        names.putIfAbsent(mode.command.trim(), game.name + " " + mode.name);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public List<String> getTabCompletions(String[] args) {
+        return new ArrayList<>();
+    }
+}
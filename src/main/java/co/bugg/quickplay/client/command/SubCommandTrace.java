@@ -0,0 +1,66 @@
+package co.bugg.quickplay.client.command;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.util.Message;
+import net.minecraft.client.resources.I18n;
+import net.minecraft.util.ChatComponentTranslation;
+import net.minecraft.util.ChatStyle;
+import net.minecraft.util.EnumChatFormatting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sub command to record and export performance traces
+ */
+public class SubCommandTrace extends ACommand {
+
+    /**
+     * Constructor
+     * @param parent Parent command
+     */
+    public SubCommandTrace(ACommand parent) {
+        super(
+                parent,
+                Collections.singletonList("trace"),
+                I18n.format("quickplay.commands.quickplay.trace.help"),
+                "[start|stop]",
+                false,
+                true,
+                -10000,
+                false,
+                parent == null ? 0 : parent.getDepth() + 1
+        );
+    }
+
+    @Override
+    public void run(String[] args) {
+        if(args.length > 0 && args[0].equalsIgnoreCase("start")) {
+            Quickplay.INSTANCE.traceRecorder.setEnabled(true);
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.commands.quickplay.trace.started")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GREEN))));
+        } else if(args.length > 0 && args[0].equalsIgnoreCase("stop")) {
+            Quickplay.INSTANCE.traceRecorder.setEnabled(false);
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.commands.quickplay.trace.stopped")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.YELLOW))));
+        } else if(Quickplay.INSTANCE.traceRecorder.size() == 0) {
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.commands.quickplay.trace.empty")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.RED))));
+        } else {
+            Quickplay.INSTANCE.exportTrace();
+        }
+    }
+
+    @Override
+    public List<String> getTabCompletions(String[] args) {
+        if(args.length == 1) {
+            return new ArrayList<>(Arrays.asList("start", "stop"));
+        }
+        return new ArrayList<>();
+    }
+}
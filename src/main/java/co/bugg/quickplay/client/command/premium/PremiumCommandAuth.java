@@ -36,7 +36,7 @@ public class PremiumCommandAuth extends ACommand {
                 "quickplay.commands.quickplay.premium.auth.runningRequest").setChatStyle(new ChatStyle()
                 .setColor(EnumChatFormatting.GREEN))));
 
-        Quickplay.INSTANCE.threadPool.submit(() -> {
+        Quickplay.INSTANCE.networkPool.submit(() -> {
             try {
                 if(Quickplay.INSTANCE.verifyPremium()) {
                     Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
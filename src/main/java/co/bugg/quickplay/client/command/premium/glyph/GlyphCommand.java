@@ -37,7 +37,7 @@ public abstract class GlyphCommand extends ACommand {
                 new ChatComponentTranslation("quickplay.commands.quickplay.premium.glyph.runningRequest")
                         .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GREEN))));
 
-        Quickplay.INSTANCE.threadPool.submit(() -> {
+        Quickplay.INSTANCE.networkPool.submit(() -> {
             final WebResponse response = request.execute();
             if(response != null) {
                 // Run any actions
@@ -61,7 +61,7 @@ public abstract class GlyphCommand extends ACommand {
                                 glyphsToRemove.add(glyph);
                             }
                         }
-                        QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
+                        QuickplayEventHandler.mainThreadExecutor.execute(() -> {
                             glyphs.removeAll(glyphsToRemove);
                             glyphs.add(newGlyph);
                         });
@@ -149,11 +149,11 @@ public class DailyRewardGui extends QuickplayGui {
             totalAdTime = 30000;
 
         adTimerBarAnimation = new Animation(totalAdTime);
-        Quickplay.INSTANCE.threadPool.submit(() -> adTimerBarAnimation.start());
+        adTimerBarAnimation.begin();
 
         // Send analytical data
         if(Quickplay.INSTANCE.ga != null) {
-            Quickplay.INSTANCE.threadPool.submit(() -> {
+            Quickplay.INSTANCE.networkPool.submit(() -> {
                 try {
                     Quickplay.INSTANCE.ga.createEvent("Daily Reward", "New Gui")
                             .setEventLabel(new Gson().toJson(appData))
@@ -165,7 +165,7 @@ public class DailyRewardGui extends QuickplayGui {
         }
         // Send Hypixel analytical data
         if(hypixelAnalytics != null) {
-            Quickplay.INSTANCE.threadPool.submit(() -> {
+            Quickplay.INSTANCE.networkPool.submit(() -> {
                 try {
                     // Whether the player has a rank or not
                     hypixelAnalytics.createEvent("Ranked", ((appData != null && appData.skippable) ? "Yes" : "No"))
@@ -204,7 +204,7 @@ public class DailyRewardGui extends QuickplayGui {
                 if (adTextureFrameFuture != null)
                     adTextureFrameFuture.cancel(true);
                 // Start a new thread
-                adTextureFrameFuture = Quickplay.INSTANCE.threadPool.submit(() -> {
+                adTextureFrameFuture = Quickplay.INSTANCE.backgroundPool.submit(() -> {
                     while (Minecraft.getMinecraft().currentScreen == this && currentState == State.ADROLL) {
                         try {
                             Thread.sleep(adFrameLength);
@@ -228,9 +228,7 @@ public class DailyRewardGui extends QuickplayGui {
                 }
             } else if (currentState == State.CLAIMED) {
                 // Start animation
-                Quickplay.INSTANCE.threadPool.submit(() -> {
-                    claimedInitAnimation.start();
-                });
+                claimedInitAnimation.begin();
                 // Play claim sound
                 Minecraft.getMinecraft().getSoundHandler().playSound(PositionedSoundRecord.create(new ResourceLocation(Reference.MOD_ID, "card.pick"), 1.0F));
                 // Add share button
@@ -596,7 +594,7 @@ public class DailyRewardGui extends QuickplayGui {
         if(oldState != currentState) {
             // Send analytical data
             if (Quickplay.INSTANCE.ga != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         Quickplay.INSTANCE.ga.createEvent("Daily Reward", "State Change")
                                 .setEventLabel(currentState.toString())
@@ -641,7 +639,7 @@ public class DailyRewardGui extends QuickplayGui {
      * Start switching ad frame by animation
      */
     public void switchAdFrame() {
-        Quickplay.INSTANCE.threadPool.submit(() -> {
+        Quickplay.INSTANCE.backgroundPool.submit(() -> {
             if(adFadeAnimation != null) {
                 adFadeAnimation.start();
                 // Thread blocked until animation completes
@@ -667,7 +665,7 @@ public class DailyRewardGui extends QuickplayGui {
 
             // Send analytical data
             if(Quickplay.INSTANCE.ga != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         Quickplay.INSTANCE.ga.createEvent("Daily Reward", "Store Opened")
                                 .send();
@@ -697,7 +695,7 @@ public class DailyRewardGui extends QuickplayGui {
 
             // Send analytical data
             if(Quickplay.INSTANCE.ga != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         Quickplay.INSTANCE.ga.createEvent("Daily Reward", "URL Button Pressed")
                                 .setEventLabel(String.valueOf(component.origin))
@@ -731,13 +729,13 @@ public class DailyRewardGui extends QuickplayGui {
             claimedReward = appData.rewards[option];
 
             // Submit claim request
-            Quickplay.INSTANCE.threadPool.submit(() -> {
+            Quickplay.INSTANCE.networkPool.submit(() -> {
                 final HashMap<String, String> params = new HashMap<>();
                 params.put("option", String.valueOf(option));
                 params.put("securityToken", securityToken);
                 params.put("appData", new Gson().toJson(appData));
                 params.put("uuid", Minecraft.getMinecraft().getSession().getPlayerID());
-                params.put("key", Quickplay.INSTANCE.sessionKey);
+                params.put("key", Quickplay.INSTANCE.state.get().sessionKey);
 
                 final Request req = Quickplay.INSTANCE.requestFactory.newRequest(
                         "https://bugg.co/quickplay/mod/premium/reward/claim", params);
@@ -757,7 +755,7 @@ public class DailyRewardGui extends QuickplayGui {
 
             // Send analytical data
             if(Quickplay.INSTANCE.ga != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         Quickplay.INSTANCE.ga.createEvent("Daily Reward", "Reward Claimed")
                                 .setEventLabel(new Gson().toJson(claimedReward))
@@ -771,7 +769,7 @@ public class DailyRewardGui extends QuickplayGui {
 
             // Send Hypixel analytical data
             if(hypixelAnalytics != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         // Whether the player has a rank or not
                         hypixelAnalytics.createEvent("Ad", "claimed")
@@ -5,12 +5,13 @@ import co.bugg.quickplay.QuickplayEventHandler;
 import co.bugg.quickplay.http.Request;
 import co.bugg.quickplay.http.response.ResponseAction;
 import co.bugg.quickplay.http.response.WebResponse;
+import co.bugg.quickplay.util.EventRouter;
+import co.bugg.quickplay.util.MainThreadExecutor;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiScreenBook;
 import net.minecraftforge.client.event.GuiOpenEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -25,13 +26,16 @@ public class DailyRewardParser {
      * simply save the GUI in this field and change the GUI to be displayed from a book to the loading GUI
      */
     DailyRewardGuiLoading overrideBookGui;
+    /**
+     * Subscription to GUI opens while waiting for the reward book
+     */
+    final EventRouter.Subscription guiOpenSubscription;
 
-    @SubscribeEvent
     public void guiOpened(GuiOpenEvent event) {
         if(event.gui instanceof GuiScreenBook)
             event.gui = this.overrideBookGui;
-        if(event.gui == null) // If all GUIs are closed then stop listening
-            Quickplay.INSTANCE.unregisterEventHandler(this);
+        if(event.gui == null && guiOpenSubscription != null) // If all GUIs are closed then stop listening
+            guiOpenSubscription.unsubscribe();
     }
     /**
      * Constructor
@@ -41,17 +45,17 @@ public class DailyRewardParser {
     public DailyRewardParser(String code) throws IOException {
 
         overrideBookGui = new DailyRewardGuiLoading();
-        Quickplay.INSTANCE.registerEventHandler(this);
+        guiOpenSubscription = Quickplay.INSTANCE.eventRouter.subscribe(GuiOpenEvent.class, this::guiOpened);
         // Open GUI screen next tick; Fixes cursor not being released bug
         // https://www.minecraftforge.net/forum/topic/36866-189mouse-not-showing-up-in-gui/
-        QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
+        QuickplayEventHandler.mainThreadExecutor.execute(() -> {
             Minecraft.getMinecraft().displayGuiScreen(overrideBookGui);
-        });
+        }, MainThreadExecutor.Priority.HIGH);
 
         final HashMap<String, String> params = new HashMap<>();
         params.put("code", code);
         params.put("uuid", Minecraft.getMinecraft().getSession().getPlayerID());
-        params.put("key", Quickplay.INSTANCE.sessionKey);
+        params.put("key", Quickplay.INSTANCE.state.get().sessionKey);
         final Request request = Quickplay.INSTANCE.requestFactory.newRequest("https://bugg.co/quickplay/mod/premium/reward", params);
 
         final WebResponse response = request.execute();
@@ -75,7 +79,7 @@ public class DailyRewardParser {
         final String securityToken = response.content.getAsJsonObject().get("securityToken").getAsString();
         final JsonObject i18n = response.content.getAsJsonObject().get("i18n").getAsJsonObject();
 
-        Quickplay.INSTANCE.unregisterEventHandler(this);
+        guiOpenSubscription.unsubscribe();
         Minecraft.getMinecraft().displayGuiScreen(new DailyRewardGui(securityToken, appdata, i18n, null));
     }
 }
@@ -6,6 +6,7 @@ import co.bugg.quickplay.Reference;
 import co.bugg.quickplay.client.gui.animations.Animation;
 import co.bugg.quickplay.client.gui.components.QuickplayGuiComponent;
 import co.bugg.quickplay.client.gui.components.QuickplayGuiContextMenu;
+import co.bugg.quickplay.util.MainThreadExecutor;
 import com.google.common.collect.Lists;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.audio.PositionedSoundRecord;
@@ -132,7 +133,7 @@ public class QuickplayGui extends GuiScreen {
         // Send analytical data to Google
         if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                 Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-            Quickplay.INSTANCE.threadPool.submit(() -> {
+            Quickplay.INSTANCE.networkPool.submit(() -> {
                 try {
                     Quickplay.INSTANCE.ga.createEvent("GUIs", "GUI Closed")
                             .setEventLabel(getClass().getName())
@@ -145,9 +146,9 @@ public class QuickplayGui extends GuiScreen {
 
         if(disableShaderOnGuiClose) {
             // Stop using shaders
-            QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
+            QuickplayEventHandler.mainThreadExecutor.execute(() -> {
                 Minecraft.getMinecraft().entityRenderer.stopUseShader();
-            });
+            }, MainThreadExecutor.Priority.HIGH);
         }
 
         // Show HUD again
@@ -159,7 +160,7 @@ public class QuickplayGui extends GuiScreen {
         // Send analytical data to Google
         if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                 Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-            Quickplay.INSTANCE.threadPool.submit(() -> {
+            Quickplay.INSTANCE.networkPool.submit(() -> {
                 try {
                     Quickplay.INSTANCE.ga.createEvent("GUIs", "GUI Initialized")
                             .setEventLabel(getClass().getName())
@@ -176,13 +177,11 @@ public class QuickplayGui extends GuiScreen {
         scrollPixel = 0;
 
         super.initGui();
-        Quickplay.INSTANCE.threadPool.submit(() -> {
-            if(Quickplay.INSTANCE.settings.fadeInGuis && opacity < 1) {
-                fadeAnimation.start();
-            } else {
-                opacity = 1;
-            }
-        });
+        if(Quickplay.INSTANCE.settings.fadeInGuis && opacity < 1) {
+            fadeAnimation.begin();
+        } else {
+            opacity = 1;
+        }
 
         // Hide HUD (health & scoreboard & such)
         mc.gameSettings.hideGUI = true;
@@ -190,7 +189,7 @@ public class QuickplayGui extends GuiScreen {
         // Load the blur background shader
         if(Quickplay.INSTANCE.settings.blurGuiBackgrounds) {
 
-            QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
+            QuickplayEventHandler.mainThreadExecutor.execute(() -> {
                 // This method isn't public in some versions of Forge seemingly.
                 // Reflection is used just in case
                 Method loadShaderMethod = null;
@@ -216,7 +215,7 @@ public class QuickplayGui extends GuiScreen {
                     }
                 }
 
-            });
+            }, MainThreadExecutor.Priority.HIGH);
         }
 
         setScrollingValues();
@@ -416,7 +415,7 @@ public class QuickplayGui extends GuiScreen {
             // Make it so the shader goes bye bye when the GUI closes
             disableShaderOnGuiClose = true;
             // Make a bunch of dumb noises
-            Quickplay.INSTANCE.threadPool.submit(() -> {
+            Quickplay.INSTANCE.backgroundPool.submit(() -> {
                 while(Minecraft.getMinecraft().currentScreen == this) {
                     mc.getSoundHandler().playSound(PositionedSoundRecord.create(new ResourceLocation("mob.chicken.hurt"), 1.0F));
                     try {
@@ -497,7 +496,7 @@ public class QuickplayGui extends GuiScreen {
     public void mouseScrolled(int distance) {
         if(distance != 0) {
             // Scroll is animated so we run on a thread
-            Quickplay.INSTANCE.threadPool.submit(() -> {
+            Quickplay.INSTANCE.backgroundPool.submit(() -> {
                 // Get the scrolling direction, multiply distance by -1 to reverse it if the user's settings say so
                 final boolean scrollingUp = 0 < distance * (Quickplay.INSTANCE.settings.reverseScrollingDirection ? -1 : 1);
 
@@ -573,7 +572,7 @@ public class QuickplayGui extends GuiScreen {
      */
     public void addComponent(final QuickplayGuiComponent component) {
         // Add components pre-render to avoid concurrent modification exception
-        QuickplayEventHandler.mainThreadScheduledTasks.add(() -> this.componentList.add(component));
+        QuickplayEventHandler.mainThreadExecutor.execute(() -> this.componentList.add(component), MainThreadExecutor.Priority.HIGH);
     }
 
     /**
@@ -584,6 +583,6 @@ public class QuickplayGui extends GuiScreen {
      */
     public void removeComponent(final QuickplayGuiComponent component) {
         // Remove components pre-render to avoid concurrent modification exception
-        QuickplayEventHandler.mainThreadScheduledTasks.add(() -> this.componentList.remove(component));
+        QuickplayEventHandler.mainThreadExecutor.execute(() -> this.componentList.remove(component), MainThreadExecutor.Priority.HIGH);
     }
 }
@@ -70,7 +70,7 @@ public class QuickplayGuiPartyEditor extends QuickplayGui {
         toggledModes = Quickplay.INSTANCE.settings.partyModes;
 
         // Create a list of all applicable modes
-        for(Game game : Quickplay.INSTANCE.gameList) {
+        for(Game game : Quickplay.INSTANCE.state.get().gameList) {
             if(game.unlocalizedName.equals("partyMode")) {
                 continue;
             }
@@ -182,7 +182,7 @@ public class QuickplayGuiPartyEditor extends QuickplayGui {
         } else if(component.displayString.equals(I18n.format("quickplay.gui.party.launch"))) {
             // Launch!
             Minecraft.getMinecraft().displayGuiScreen(null);
-            Quickplay.INSTANCE.threadPool.submit(Quickplay.INSTANCE::launchPartyMode);
+            Quickplay.INSTANCE.backgroundPool.submit(Quickplay.INSTANCE::launchPartyMode);
         }
     }
 
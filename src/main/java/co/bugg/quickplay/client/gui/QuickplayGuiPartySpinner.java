@@ -90,7 +90,7 @@ public class QuickplayGuiPartySpinner extends QuickplayGui {
         final long startedAt = System.currentTimeMillis();
         final Random random = new Random();
 
-        spinningThreadFuture = Quickplay.INSTANCE.threadPool.submit(() -> {
+        spinningThreadFuture = Quickplay.INSTANCE.backgroundPool.submit(() -> {
             try {
                 if(spinnerDelay > 0) {
                     // While less than 100% of the spinnerDelay has passed
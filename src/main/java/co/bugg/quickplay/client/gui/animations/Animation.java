@@ -39,14 +39,24 @@ public class Animation {
     }
 
     /**
-     * Start this animation, starting from 0
-     * Thread-blocking until {@link #updateFrame()} is called and {@link #progress} >= 1 post-update
+     * Start this animation, starting from 0, without waiting for it to finish
+     * Progress is driven by calls to {@link #updateFrame()}
      * @return This
      */
-    public Animation start() {
+    public Animation begin() {
         startedMillis = System.currentTimeMillis();
         progress = 0;
         started = true;
+        return this;
+    }
+
+    /**
+     * Start this animation, starting from 0
+     * Thread-blocking until {@link #updateFrame()} is called and {@link #progress} >= 1 post-update
+     * @return This
+     */
+    public Animation start() {
+        begin();
 
         synchronized (this) {
             while (progress < 1) {
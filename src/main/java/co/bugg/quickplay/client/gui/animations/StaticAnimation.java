@@ -39,7 +39,7 @@ public class StaticAnimation extends Animation {
         if(threadFuture != null) {
             threadFuture.cancel(true);
         }
-        threadFuture = Quickplay.INSTANCE.threadPool.submit(() -> {
+        threadFuture = Quickplay.INSTANCE.backgroundPool.submit(() -> {
             try {
                 Thread.sleep(updateFrequency);
                 while(progress < 1) {
@@ -57,8 +57,6 @@ public abstract class QuickplayGuiContextMenu extends QuickplayGuiComponent impl
         // Width / height calculated later
         super(origin, id, x, y, 0, 0, "", false);
 
-        Quickplay.INSTANCE.registerEventHandler(this);
-
         // Calculate width
         int longestStringLength = 0;
         for(String option : options) {
@@ -11,6 +11,7 @@ import co.bugg.quickplay.client.gui.components.QuickplayGuiString;
 import co.bugg.quickplay.config.AConfiguration;
 import co.bugg.quickplay.config.AssetFactory;
 import co.bugg.quickplay.config.GuiOption;
+import co.bugg.quickplay.util.EventRouter;
 import co.bugg.quickplay.util.Message;
 import net.minecraft.client.gui.GuiPageButtonList;
 import net.minecraft.client.renderer.GlStateManager;
@@ -18,7 +19,6 @@ import net.minecraft.client.resources.I18n;
 import net.minecraft.util.ChatComponentTranslation;
 import net.minecraft.util.ChatStyle;
 import net.minecraft.util.EnumChatFormatting;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 import java.awt.*;
@@ -55,9 +55,14 @@ public class QuickplayGuiEditConfig extends QuickplayGui {
      */
     public QuickplayGuiEditConfig(AConfiguration config) {
         this.config = config;
-        Quickplay.INSTANCE.registerEventHandler(this);
+        tickSubscription = Quickplay.INSTANCE.eventRouter.subscribe(TickEvent.ClientTickEvent.class, this::onTick);
     }
 
+    /**
+     * Subscription to client ticks while this GUI is open
+     */
+    final EventRouter.Subscription tickSubscription;
+
     /**
      * The scale of the header at the top of the screen
      * Set in {@link #initGui()}
@@ -140,7 +145,7 @@ public class QuickplayGuiEditConfig extends QuickplayGui {
     @Override
     public void onGuiClosed() {
         super.onGuiClosed();
-        Quickplay.INSTANCE.unregisterEventHandler(this);
+        tickSubscription.unsubscribe();
     }
 
     @Override
@@ -398,7 +403,7 @@ public class QuickplayGuiEditConfig extends QuickplayGui {
                         // Send analytical data to Google
                         if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                                 Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                            Quickplay.INSTANCE.threadPool.submit(() -> {
+                            Quickplay.INSTANCE.networkPool.submit(() -> {
                                 try {
                                     Quickplay.INSTANCE.ga.createEvent("Config", "Boolean Changed")
                                             .setEventLabel(element.configFieldName + " : " + element.element)
@@ -415,7 +420,7 @@ public class QuickplayGuiEditConfig extends QuickplayGui {
                         // Send analytical data to Google
                         if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                                 Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                            Quickplay.INSTANCE.threadPool.submit(() -> {
+                            Quickplay.INSTANCE.networkPool.submit(() -> {
                                 try {
                                     Quickplay.INSTANCE.ga.createEvent("Config", "Runnable Clicked")
                                             .setEventLabel(element.configFieldName)
@@ -440,7 +445,7 @@ public class QuickplayGuiEditConfig extends QuickplayGui {
                         // Send analytical data to Google
                         if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                                 Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                            Quickplay.INSTANCE.threadPool.submit(() -> {
+                            Quickplay.INSTANCE.networkPool.submit(() -> {
                                 try {
                                     Quickplay.INSTANCE.ga.createEvent("Config", "Slider Changed")
                                             .setEventLabel(element.configFieldName + " : " + element.element)
@@ -496,7 +501,6 @@ public class QuickplayGuiEditConfig extends QuickplayGui {
 
     }
 
-    @SubscribeEvent
     public void onTick(TickEvent.ClientTickEvent event) {
         // Increase the number of ticks the mouse has been standing still if necessary
         if(event.phase == TickEvent.Phase.START) {
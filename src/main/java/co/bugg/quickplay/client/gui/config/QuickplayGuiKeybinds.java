@@ -55,6 +55,10 @@ public class QuickplayGuiKeybinds extends QuickplayGui {
      * The color of keybinds when the keybind is currently selected & being edited
      */
     public final EnumChatFormatting keybindEditingColor = EnumChatFormatting.GOLD;
+    /**
+     * The color of keybind names when the keybind is invalid and can't be triggered
+     */
+    public final EnumChatFormatting invalidKeybindColor = EnumChatFormatting.RED;
     /**
      * The separating characters between a keybind's name and the key it's mapped to
      */
@@ -133,6 +137,17 @@ public class QuickplayGuiKeybinds extends QuickplayGui {
             final List<String> hoverText = new ArrayList<>();
             hoverText.add(I18n.format("quickplay.gui.keybinds.taken"));
             drawHoveringText(hoverText, mouseX, mouseY);
+        } else if(contextMenu == null) {
+            // Explain why invalid keybinds are highlighted
+            for(QuickplayGuiComponent component : componentList) {
+                if(component.origin instanceof QuickplayKeybind && !((QuickplayKeybind) component.origin).isValid() &&
+                        component.mouseHovering(this, mouseX, mouseY)) {
+                    final List<String> hoverText = new ArrayList<>();
+                    hoverText.add(I18n.format("quickplay.gui.keybinds.invalid"));
+                    drawHoveringText(hoverText, mouseX, mouseY);
+                    break;
+                }
+            }
         }
 
         drawScrollbar(width / 2 + buttonWidth / 2 + 3);
@@ -161,7 +176,6 @@ public class QuickplayGuiKeybinds extends QuickplayGui {
                         switch(index) {
                             case 0:
                                 Quickplay.INSTANCE.keybinds.keybinds.remove(keybind);
-                                Quickplay.INSTANCE.unregisterEventHandler(keybind);
                                 try {
                                     Quickplay.INSTANCE.keybinds.save();
                                 } catch (IOException e) {
@@ -200,10 +214,6 @@ public class QuickplayGuiKeybinds extends QuickplayGui {
             formatComponentString(component, true);
         } else if(component.displayString.equals(resetButtonText)) {
             try {
-                // Unsubscribe all keybinds
-                for(QuickplayKeybind keybind : Quickplay.INSTANCE.keybinds.keybinds)
-                    Quickplay.INSTANCE.unregisterEventHandler(keybind);
-
                 // Create a new keybind list
                 Quickplay.INSTANCE.keybinds = new ConfigKeybinds(true);
                 Quickplay.INSTANCE.keybinds.save();
@@ -222,7 +232,7 @@ public class QuickplayGuiKeybinds extends QuickplayGui {
             if(Quickplay.INSTANCE.keybinds.keybinds.stream().anyMatch(keybind1 -> keybind1.key == keyCode && keybind != keybind1)) {
                 // Key is already taken so cancel, draw a popup telling them, and hide it in 3 seconds
                 drawTakenPopup = true;
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.backgroundPool.submit(() -> {
                     try {
                         Thread.sleep(3000);
                     } catch (InterruptedException e) {
@@ -238,7 +248,7 @@ public class QuickplayGuiKeybinds extends QuickplayGui {
                     // Send analytical data to Google
                     if (Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                             Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                        Quickplay.INSTANCE.threadPool.submit(() -> {
+                        Quickplay.INSTANCE.networkPool.submit(() -> {
                             try {
                                 Quickplay.INSTANCE.ga.createEvent("Keybinds", "Keybind Changed")
                                         .setEventLabel(keybind.name + " : " + keybind.key)
@@ -273,12 +283,14 @@ public class QuickplayGuiKeybinds extends QuickplayGui {
     public void formatComponentString(QuickplayGuiComponent component, boolean selected) {
         if(component.origin instanceof QuickplayKeybind) {
             final QuickplayKeybind keybind = (QuickplayKeybind) component.origin;
+            final String name = keybind.isValid() ? keybind.name :
+                    invalidKeybindColor + keybind.name + EnumChatFormatting.RESET;
             if(selected) {
-                component.displayString = keybindPrependedEditingText + keybind.name + keybindNameSeparator +
+                component.displayString = keybindPrependedEditingText + name + keybindNameSeparator +
                         keybindEditingColor + Keyboard.getKeyName(keybind.key) + EnumChatFormatting.RESET +
                         keybindAppendedEditingText;
             } else {
-                component.displayString = keybind.name + keybindNameSeparator + keybindColor +
+                component.displayString = name + keybindNameSeparator + keybindColor +
                         Keyboard.getKeyName(keybind.key) + EnumChatFormatting.RESET;
             }
         } else {
@@ -156,7 +156,7 @@ public class QuickplayGuiUsageStats extends QuickplayGui {
 
             // Report the user's decision. This is one of the few things that is reported regardless of decision
             if(Quickplay.INSTANCE.usageStats.statsToken != null && Quickplay.INSTANCE.ga != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         Quickplay.INSTANCE.ga.createEvent("Privacy", "Privacy Settings Changed")
                                 .setEventLabel("Report usage: " + Quickplay.INSTANCE.usageStats.sendUsageStats)
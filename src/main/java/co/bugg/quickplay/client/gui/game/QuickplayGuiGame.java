@@ -10,17 +10,20 @@ import co.bugg.quickplay.client.gui.components.QuickplayGuiContextMenu;
 import co.bugg.quickplay.client.gui.config.QuickplayGuiKeybinds;
 import co.bugg.quickplay.games.Game;
 import co.bugg.quickplay.games.Mode;
+import co.bugg.quickplay.util.stats.LatencyHistogram;
 import com.google.common.hash.Hashing;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.resources.I18n;
+import net.minecraft.util.EnumChatFormatting;
 import net.minecraft.util.ResourceLocation;
 import org.lwjgl.input.Keyboard;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.stream.Collectors;
@@ -134,7 +137,7 @@ public class QuickplayGuiGame extends QuickplayGui {
     @SuppressWarnings("unused")
     public QuickplayGuiGame(String unlocalizedGameName) {
         if(unlocalizedGameName != null) {
-            List<Game> filteredList = Quickplay.INSTANCE.gameList
+            List<Game> filteredList = Quickplay.INSTANCE.state.get().gameList
                     .stream()
                     .filter(game -> game.unlocalizedName.equals(unlocalizedGameName))
                     .collect(Collectors.toList());
@@ -186,7 +189,7 @@ public class QuickplayGuiGame extends QuickplayGui {
             final Mode next = iter.next();
             this.componentList.add(new QuickplayGuiButton(next, index, columnZeroX + (buttonWidth + buttonMargins) * currentColumn,
                     topOfBackgroundBox + backgroundBoxPadding + (buttonHeight + buttonMargins) * currentRow,
-                    buttonWidth, buttonHeight, next.name, true));
+                    buttonWidth, buttonHeight, getButtonText(next), true));
             // Proceed to next position
             if(currentColumn + 1 >= columnCount) {
                 currentColumn = 0;
@@ -205,6 +208,22 @@ public class QuickplayGuiGame extends QuickplayGui {
         setScrollingValues();
     }
 
+    /**
+     * Get the text for a mode's button, including how long it usually takes to get into a game if enabled
+     * @param mode Mode the button is for
+     * @return Text to display on the button
+     */
+    public String getButtonText(Mode mode) {
+        if(Quickplay.INSTANCE.settings.showQueueTimes) {
+            final LatencyHistogram histogram = Quickplay.INSTANCE.latencyTracker.getHistogram(mode.command);
+            if(histogram != null && histogram.count > 0) {
+                return mode.name + " " + EnumChatFormatting.GRAY + "(~" +
+                        LatencyHistogram.formatSeconds(histogram.percentile(50)) + ")";
+            }
+        }
+        return mode.name;
+    }
+
     @Override
     public void setScrollingValues() {
         super.setScrollingValues();
@@ -229,7 +248,7 @@ public class QuickplayGuiGame extends QuickplayGui {
             // Send analytical data to Google
             if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                     Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         Quickplay.INSTANCE.ga.createEvent("GUIs", "Game Option Pressed")
                                 .setEventLabel(mode.name + " : " + mode.command)
@@ -314,8 +333,12 @@ public class QuickplayGuiGame extends QuickplayGui {
         super.mouseClicked(mouseX, mouseY, mouseButton);
         for(QuickplayGuiComponent component : componentList) {
             if (!(component instanceof QuickplayGuiContextMenu) && component.mouseHovering(this, mouseX, mouseY) && mouseButton == 1) {
-                contextMenu = new QuickplayGuiContextMenu(Arrays.asList(new String[]{I18n.format("quickplay.gui.favorite")}),
-                        component, -1, mouseX, mouseY) {
+                final List<String> options = new ArrayList<>(Collections.singletonList(I18n.format("quickplay.gui.favorite")));
+                if(component.origin instanceof Mode) {
+                    options.add(I18n.format(Quickplay.INSTANCE.autoRequeue.isEnabledFor(((Mode) component.origin).command) ?
+                            "quickplay.gui.autoRequeue.disable" : "quickplay.gui.autoRequeue.enable"));
+                }
+                contextMenu = new QuickplayGuiContextMenu(options, component, -1, mouseX, mouseY) {
                     @Override
                     public void optionSelected(int index) {
                         if (index == 0) {
@@ -330,6 +353,19 @@ public class QuickplayGuiGame extends QuickplayGui {
                                 Quickplay.INSTANCE.sendExceptionRequest(e);
                             }
                             Minecraft.getMinecraft().displayGuiScreen(new QuickplayGuiKeybinds());
+                        } else if (index == 1 && component.origin instanceof Mode) {
+                            // Toggle auto-requeue for this mode
+                            final String command = ((Mode) component.origin).command.trim();
+                            final List<String> modes = Quickplay.INSTANCE.settings.autoRequeueModes;
+                            if (!modes.remove(command)) {
+                                modes.add(command);
+                            }
+                            try {
+                                Quickplay.INSTANCE.settings.save();
+                            } catch (IOException e) {
+                                e.printStackTrace();
+                                Quickplay.INSTANCE.sendExceptionRequest(e);
+                            }
                         }
                         closeContextMenu();
                     }
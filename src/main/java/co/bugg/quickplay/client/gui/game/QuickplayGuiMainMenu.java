@@ -110,6 +110,7 @@ public class QuickplayGuiMainMenu extends QuickplayGui {
 
     @Override
     public void initGui() {
+        Quickplay.INSTANCE.traceRecorder.milestone("first main menu open");
         super.initGui();
 
         // Reset column/row number used for determining button positions
@@ -125,14 +126,14 @@ public class QuickplayGuiMainMenu extends QuickplayGui {
 
         // Strings aren't rendered in compact mode so forget about this
         if(!compact) {
-            if (Quickplay.INSTANCE.gameList.size() > 0) {
+            if (Quickplay.INSTANCE.state.get().gameList.size() > 0) {
                 // Calculate the average width of all strings & what the longest one is
-                for (Game game : Quickplay.INSTANCE.gameList) {
+                for (Game game : Quickplay.INSTANCE.state.get().gameList) {
                     final int stringWidth = fontRendererObj.getStringWidth(game.name);
                     averageStringWidth += stringWidth;
                     if (stringWidth > longestStringWidth) longestStringWidth = stringWidth;
                 }
-                averageStringWidth /= Quickplay.INSTANCE.gameList.size();
+                averageStringWidth /= Quickplay.INSTANCE.state.get().gameList.size();
             }
 
             // String scales up with size of game images
@@ -161,7 +162,7 @@ public class QuickplayGuiMainMenu extends QuickplayGui {
 
         // Add buttons to the component list in the proper grid
         int nextButtonId = 0;
-        for(Game game : Quickplay.INSTANCE.gameList) {
+        for(Game game : Quickplay.INSTANCE.state.get().gameList) {
             // Create invisible button                                                                                                                                                                                              // Width can't be affected by scaling                       // Texture is of the game icon, although it's not rendered (opacity is 0 in drawScreen)
             this.componentList.add(new QuickplayGuiButton(game, nextButtonId, columnZeroX + currentColumn * itemWidth,
                     (int) ((gameImgSize * scaleMultiplier + BoxYPadding) * currentRow + scrollContentMargins / 2),
@@ -196,7 +197,7 @@ public class QuickplayGuiMainMenu extends QuickplayGui {
         drawDefaultBackground();
 
         // if there are no games to display
-        if(Quickplay.INSTANCE.gameList == null || Quickplay.INSTANCE.gameList.size() <= 0) {
+        if(Quickplay.INSTANCE.state.get().gameList.isEmpty()) {
             drawNoGamesMenu();
         } else {
 
@@ -404,7 +405,8 @@ public class QuickplayGuiMainMenu extends QuickplayGui {
                                         gamePriorities.put(game.unlocalizedName, --nextLowestPriority);
                                     }
 
-                                    Quickplay.INSTANCE.gameList = Arrays.asList(Quickplay.organizeGameList(Quickplay.INSTANCE.gameList.toArray(new Game[]{})));
+                                    Quickplay.INSTANCE.state.update(current -> current.withGameList(Arrays.asList(
+                                            Quickplay.organizeGameList(current.gameList.toArray(new Game[]{})))));
                                     initGui();
                                     try {
                                         Quickplay.INSTANCE.settings.save();
@@ -440,7 +442,7 @@ public class QuickplayGuiMainMenu extends QuickplayGui {
             // Send analytical data to Google
             if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
                     Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     try {
                         Quickplay.INSTANCE.ga.createEvent("GUIs", "Main Menu Option Pressed")
                                 .setEventLabel(((Game) component.origin).name)
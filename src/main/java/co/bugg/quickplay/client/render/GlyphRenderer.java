@@ -3,6 +3,7 @@ package co.bugg.quickplay.client.render;
 import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.Reference;
 import co.bugg.quickplay.client.gui.animations.Animation;
+import co.bugg.quickplay.util.ServerId;
 import com.google.common.hash.Hashing;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.inventory.GuiInventory;
@@ -14,17 +15,15 @@ import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.client.event.RenderPlayerEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import org.lwjgl.opengl.GL11;
 
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.regex.Pattern;
 
 /**
- * Renders all Quickplay Glyphs when registered to the event bus
+ * Renders all Quickplay Glyphs when subscribed to {@link Quickplay#eventRouter}
  * @see Quickplay#glyphs
  */
 public class GlyphRenderer {
@@ -37,10 +36,6 @@ public class GlyphRenderer {
      * How far away glyphs should render
      */
     public static final int drawDistance = 64;
-    /**
-     * Regex pattern for determining if the client is currently in a game or not
-     */
-    public static final Pattern gameServerPattern = Pattern.compile("^(?:mini|mega)[0-9]{1,3}[A-Z]$");
 
     /**
      * Animation list for each player with a glyph and their glyph's opacity.
@@ -53,11 +48,10 @@ public class GlyphRenderer {
      */
     private final Map<UUID, Double> prevDistance = new HashMap<>();
 
-    @SubscribeEvent
     public void onPlayerRender(RenderPlayerEvent.Post e) {
         // Don't render at all if F1 is hit and the user has showing in F1 disabled
         if(!Minecraft.getMinecraft().gameSettings.hideGUI || Quickplay.INSTANCE.settings.showGlyphsInF1) {
-            final String currentServer = Quickplay.INSTANCE.instanceWatcher.getCurrentServer();
+            final ServerId currentServer = Quickplay.INSTANCE.instanceWatcher.getCurrentServerId();
             final EntityPlayer self = Minecraft.getMinecraft().thePlayer;
             final EntityPlayer player = e.entityPlayer;
 
@@ -84,7 +78,7 @@ public class GlyphRenderer {
                 return;
             }
 
-            final boolean isInGame = currentServer == null || gameServerPattern.matcher(currentServer).matches();
+            final boolean isInGame = currentServer == null || currentServer.isInGame();
             for (PlayerGlyph glyph : Quickplay.INSTANCE.glyphs) {
                 if (!glyph.uuid.toString().equals(player.getUniqueID().toString())) {
                     continue;
@@ -127,9 +121,8 @@ public class GlyphRenderer {
                 (prevDistance <= horizon && dist > horizon) || (prevDistance > horizon && dist <= horizon)) {
             currentAnim = new Animation(animationMillis);
             this.opacityAnimations.put(uuid, currentAnim);
-            Quickplay.INSTANCE.threadPool.submit(currentAnim::start);
+            currentAnim.begin();
         }
-        // Since the animation is started in a separate thread, it might not have started yet for one or two frames.
         if(currentAnim.started) {
             currentAnim.updateFrame();
             opacity = (float) currentAnim.progress;
@@ -209,7 +202,7 @@ public class GlyphRenderer {
             GlStateManager.disableBlend();
             GlStateManager.popMatrix();
         } else {
-            Quickplay.INSTANCE.threadPool.submit(glyph::download);
+            Quickplay.INSTANCE.networkPool.submit(glyph::download);
         }
     }
 }
@@ -4,6 +4,7 @@ import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.QuickplayEventHandler;
 import co.bugg.quickplay.Reference;
 import co.bugg.quickplay.config.AssetFactory;
+import co.bugg.quickplay.util.MainThreadExecutor;
 import com.google.common.hash.Hashing;
 import net.minecraft.util.ResourceLocation;
 import org.apache.commons.io.IOUtils;
@@ -100,11 +101,11 @@ public class PlayerGlyph {
                     in.close();
 
                     // Reload the resource
-                    QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
+                    QuickplayEventHandler.mainThreadExecutor.execute(() -> {
                         Quickplay.INSTANCE.reloadResource(file, new ResourceLocation(Reference.MOD_ID,
                                 "glyphs/" + file.getName()));
                         downloading = false;
-                    });
+                    }, MainThreadExecutor.Priority.LOW);
                 }
             } catch (IOException e) {
                 e.printStackTrace();
@@ -4,6 +4,7 @@ import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.QuickplayEventHandler;
 import co.bugg.quickplay.Reference;
 import co.bugg.quickplay.games.Game;
+import co.bugg.quickplay.util.MainThreadExecutor;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
@@ -60,6 +61,14 @@ public class AssetFactory {
      * Relative to Minecraft root
      */
     public static final String glyphsDirectory = assetsDirectory + "glyphs/";
+    /**
+     * Directory to all Quickplay diagnostic reports
+     */
+    public static final String diagnosticsDirectory = rootDirectory + "diagnostics/";
+    /**
+     * Directory to the Quickplay instance history journal
+     */
+    public static final String historyDirectory = rootDirectory + "history/";
 
     /**
      * Cache life for glyphs in milliseconds
@@ -120,9 +129,10 @@ public class AssetFactory {
 
             final ResourceLocation resourceLocation = new ResourceLocation(Reference.MOD_ID, file.getName());
 
-            QuickplayEventHandler.mainThreadScheduledTasks.add(() -> {
+            QuickplayEventHandler.mainThreadExecutor.execute(() -> {
                 Quickplay.INSTANCE.reloadResource(file, resourceLocation);
-            });
+                Quickplay.INSTANCE.traceRecorder.milestone("first icon texture ready");
+            }, MainThreadExecutor.Priority.LOW);
 
             resourceLocations.add(resourceLocation);
         }
@@ -279,6 +289,16 @@ public class AssetFactory {
      * @return List of games or null if unavailable
      */
     public Game[] loadCachedGamelist() throws IOException {
+        final Game[] gameList = readCachedGamelist();
+        return gameList == null ? null : Quickplay.organizeGameList(gameList);
+    }
+
+    /**
+     * Read the game list from cache without sorting it, so it doesn't depend on {@link Quickplay#settings}
+     * @return The cached game list, an empty array if it couldn't be parsed, or null if there is no cache
+     * @throws IOException Error reading the file
+     */
+    public Game[] readCachedGamelist() throws IOException {
         final File gameListFile = new File(gamelistCacheFile);
 
         if(!gameListFile.exists() || (!gameListFile.canRead() && !gameListFile.setReadable(true))) {
@@ -287,7 +307,7 @@ public class AssetFactory {
 
         final String contents = new String(Files.readAllBytes(gameListFile.toPath()));
         try {
-            return Quickplay.organizeGameList(new Gson().fromJson(contents, Game[].class));
+            return new Gson().fromJson(contents, Game[].class);
         } catch(Exception e) {
             return new Game[0];
         }
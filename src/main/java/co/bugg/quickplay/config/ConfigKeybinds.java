@@ -1,15 +1,24 @@
 package co.bugg.quickplay.config;
 
+import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.client.QuickplayKeybind;
 import co.bugg.quickplay.client.gui.game.QuickplayGuiMainMenu;
 import net.minecraft.client.resources.I18n;
+import net.minecraftforge.fml.common.gameevent.InputEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 import org.lwjgl.input.Keyboard;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Default configuration for storing Quickplay keybinds
+ *
+ * Also dispatches key presses to keybinds. Keybinds are indexed by their key code, so a key press only
+ * looks at the keybinds bound to that key. Keybinds that require the key to be held are timed in client ticks.
  */
 public class ConfigKeybinds extends AConfiguration {
 
@@ -35,6 +44,164 @@ public class ConfigKeybinds extends AConfiguration {
 
     /**
      * The list of keybinds
+     * {@link #invalidateIndex()} should be called after this list or any keybind's key is changed.
+     * Saving does this automatically.
      */
     public List<QuickplayKeybind> keybinds = new ArrayList<>();
+
+    /**
+     * Keybinds indexed by key code, or null if it needs to be rebuilt
+     * Entries for keys without any keybinds are null
+     */
+    private transient QuickplayKeybind[][] index;
+    /**
+     * Keybinds that have been pressed but require holding and haven't been held long enough yet
+     */
+    private transient List<PendingHold> pendingHolds;
+
+    /**
+     * Called whenever a key is pressed or released
+     * @param event Event data
+     */
+    public void onKeyInput(InputEvent.KeyInputEvent event) {
+        // Keybinds only work On Hypixel and if Quickplay is enabled.
+        if(!Quickplay.INSTANCE.checkEnabledStatus() || !Quickplay.INSTANCE.state.get().onHypixel) {
+            return;
+        }
+
+        final int key = Keyboard.getEventKey();
+        if(key <= Keyboard.KEY_NONE || key >= Keyboard.KEYBOARD_SIZE) {
+            return;
+        }
+
+        final boolean pressed = Keyboard.getEventKeyState();
+        // Releasing (or repressing) a key restarts any hold timers on it
+        if(pendingHolds != null && !pendingHolds.isEmpty()) {
+            pendingHolds.removeIf(hold -> hold.keybind.key == key);
+        }
+        if(!pressed) {
+            return;
+        }
+
+        final QuickplayKeybind[] bound = getIndex()[key];
+        if(bound == null) {
+            return;
+        }
+        for(QuickplayKeybind keybind : bound) {
+            if(keybind.requiresPressTimer) {
+                if(pendingHolds == null) {
+                    pendingHolds = new ArrayList<>();
+                }
+                pendingHolds.add(new PendingHold(keybind, System.nanoTime()));
+            } else {
+                keybind.keyPressed();
+            }
+        }
+    }
+
+    /**
+     * Called every client tick to trigger keybinds that have been held long enough
+     * @param event Event data
+     */
+    public void onTick(TickEvent.ClientTickEvent event) {
+        if(event.phase != TickEvent.Phase.START || pendingHolds == null || pendingHolds.isEmpty()) {
+            return;
+        }
+
+        final long holdNanos = (long) (Quickplay.INSTANCE.settings.keybindPressTime * 1000000000L);
+        final long now = System.nanoTime();
+        final Iterator<PendingHold> iterator = pendingHolds.iterator();
+        while(iterator.hasNext()) {
+            final PendingHold hold = iterator.next();
+            if(!Keyboard.isKeyDown(hold.keybind.key)) {
+                // Let go before the timer was complete
+                iterator.remove();
+            } else if(now - hold.pressedAt >= holdNanos) {
+                iterator.remove();
+                hold.keybind.keyPressed();
+            }
+        }
+    }
+
+    /**
+     * Get the keybinds bound to a key
+     * @param key Key code
+     * @return Keybinds bound to the key, or an empty array
+     */
+    public QuickplayKeybind[] getKeybinds(int key) {
+        if(key <= Keyboard.KEY_NONE || key >= Keyboard.KEYBOARD_SIZE || getIndex()[key] == null) {
+            return new QuickplayKeybind[0];
+        }
+        return getIndex()[key].clone();
+    }
+
+    /**
+     * Mark the key index as stale so it's rebuilt on the next key press
+     */
+    public void invalidateIndex() {
+        index = null;
+        if(pendingHolds != null) {
+            pendingHolds.clear();
+        }
+    }
+
+    /**
+     * Get the key index, building it if necessary
+     * @return {@link #index}
+     */
+    private QuickplayKeybind[][] getIndex() {
+        if(index == null) {
+            final QuickplayKeybind[][] newIndex = new QuickplayKeybind[Keyboard.KEYBOARD_SIZE][];
+            for(QuickplayKeybind keybind : keybinds) {
+                final int key = keybind.key;
+                if(key <= Keyboard.KEY_NONE || key >= Keyboard.KEYBOARD_SIZE) {
+                    continue;
+                }
+                final QuickplayKeybind[] bound = newIndex[key];
+                if(bound == null) {
+                    newIndex[key] = new QuickplayKeybind[]{keybind};
+                } else {
+                    newIndex[key] = Arrays.copyOf(bound, bound.length + 1);
+                    newIndex[key][bound.length] = keybind;
+                }
+            }
+            index = newIndex;
+        }
+        return index;
+    }
+
+    /**
+     * Save this configuration, and rebuild the key index as keybinds have probably changed
+     * @return This
+     * @throws IOException on a writing error
+     */
+    @Override
+    public AConfiguration save() throws IOException {
+        invalidateIndex();
+        return super.save();
+    }
+
+    /**
+     * A keybind that is waiting for its key to be held for long enough
+     */
+    private static class PendingHold {
+        /**
+         * Keybind being held
+         */
+        final QuickplayKeybind keybind;
+        /**
+         * {@link System#nanoTime()} when the key was pressed
+         */
+        final long pressedAt;
+
+        /**
+         * Constructor
+         * @param keybind Keybind being held
+         * @param pressedAt {@link System#nanoTime()} when the key was pressed
+         */
+        PendingHold(QuickplayKeybind keybind, long pressedAt) {
+            this.keybind = keybind;
+            this.pressedAt = pressedAt;
+        }
+    }
 }
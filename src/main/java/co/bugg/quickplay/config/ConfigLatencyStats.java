@@ -0,0 +1,26 @@
+package co.bugg.quickplay.config;
+
+import co.bugg.quickplay.util.stats.LatencyHistogram;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Queue-to-game latencies recorded for each mode, kept across sessions
+ * @see co.bugg.quickplay.util.stats.LatencyTracker
+ */
+public class ConfigLatencyStats extends AConfiguration implements Serializable {
+
+    /**
+     * Constructor
+     */
+    public ConfigLatencyStats() {
+        super("latency.json");
+    }
+
+    /**
+     * Latency histogram for each mode, by the command used to join it
+     */
+    public Map<String, LatencyHistogram> modes = new HashMap<>();
+}
@@ -8,6 +8,7 @@ import co.bugg.quickplay.client.gui.config.QuickplayGuiUsageStats;
 import co.bugg.quickplay.games.PartyMode;
 import net.minecraft.client.Minecraft;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -133,6 +134,16 @@ public class ConfigSettings extends AConfiguration implements Serializable {
     )
     public boolean swapMainGuiColors = false;
 
+    /**
+     * Whether mode buttons should show how long the mode usually takes to get into a game
+     */
+    @GuiOption(
+            name="quickplay.settings.showQueueTimes.name",
+            helpText = "quickplay.settings.showQueueTimes.help",
+            category = "quickplay.settings.category.gui"
+    )
+    public boolean showQueueTimes = false;
+
     /**
      * Whether Quickplay's instance displayer should be displayed
      */
@@ -273,6 +284,40 @@ public class ConfigSettings extends AConfiguration implements Serializable {
     )
     public boolean partyModeGui = true;
 
+    /**
+     * Whether the last mode should be queued for again automatically when a game ends
+     * @see co.bugg.quickplay.util.AutoRequeue
+     */
+    @GuiOption(
+            name = "quickplay.settings.autoRequeue.name",
+            helpText = "quickplay.settings.autoRequeue.help",
+            category = "quickplay.settings.category.autoRequeue"
+    )
+    public boolean autoRequeue = false;
+
+    /**
+     * Number of seconds to wait after a game ends before queueing again
+     */
+    @GuiOption(
+            name = "quickplay.settings.autoRequeueDelay.name",
+            helpText = "quickplay.settings.autoRequeueDelay.help",
+            category = "quickplay.settings.category.autoRequeue",
+            minValue = 0,
+            maxValue = 10,
+            decimalFormat = "0.0"
+    )
+    public double autoRequeueDelay = 0.0;
+
+    /**
+     * Whether pressing a key or clicking before the requeue is sent cancels it
+     */
+    @GuiOption(
+            name = "quickplay.settings.autoRequeueCancelOnInput.name",
+            helpText = "quickplay.settings.autoRequeueCancelOnInput.help",
+            category = "quickplay.settings.category.autoRequeue"
+    )
+    public boolean autoRequeueCancelOnInput = true;
+
     /**
      * Whether a user's glyph should fade as you get closer to them.
      */
@@ -314,6 +359,30 @@ public class ConfigSettings extends AConfiguration implements Serializable {
     )
     public boolean ingameDailyReward = true;
 
+    /**
+     * Whether frames that take too long to render should be reported to the diagnostics folder
+     * @see co.bugg.quickplay.util.diagnostics.RenderWatchdog
+     */
+    @GuiOption(
+            name = "quickplay.settings.stallWatchdog.name",
+            helpText = "quickplay.settings.stallWatchdog.help",
+            category = "quickplay.settings.category.diagnostics"
+    )
+    public boolean stallWatchdog = false;
+
+    /**
+     * Number of milliseconds a frame has to take to be reported by the stall watchdog
+     */
+    @GuiOption(
+            name = "quickplay.settings.stallWatchdogThreshold.name",
+            helpText = "quickplay.settings.stallWatchdogThreshold.help",
+            category = "quickplay.settings.category.diagnostics",
+            minValue = 50,
+            maxValue = 1000,
+            decimalFormat = "0"
+    )
+    public double stallWatchdogThreshold = 100;
+
 
     /**
      * Allows users to change how much padding is on the
@@ -335,4 +404,30 @@ public class ConfigSettings extends AConfiguration implements Serializable {
      * it will verify all modes in this list and make sure they're all valid
      */
     public List<PartyMode> partyModes = new ArrayList<>();
+
+    /**
+     * Commands of the modes auto-requeue is enabled for, toggled by right-clicking modes
+     * @see #autoRequeue
+     */
+    public List<String> autoRequeueModes = new ArrayList<>();
+
+    /**
+     * Apply settings that need more than a field change to take effect, e.g. starting or stopping the stall watchdog
+     */
+    public void apply() {
+        Quickplay.INSTANCE.renderWatchdog.setRunning(stallWatchdog, (long) stallWatchdogThreshold);
+    }
+
+    /**
+     * Save this configuration, applying it if it's the active configuration
+     * @return This
+     * @throws IOException on a writing error
+     */
+    @Override
+    public AConfiguration save() throws IOException {
+        if(Quickplay.INSTANCE.settings == this) {
+            apply();
+        }
+        return super.save();
+    }
 }
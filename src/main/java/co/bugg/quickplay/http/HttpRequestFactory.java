@@ -4,21 +4,22 @@ import co.bugg.quickplay.Quickplay;
 import co.bugg.quickplay.Reference;
 import co.bugg.quickplay.util.ReflectionUtil;
 import co.bugg.quickplay.util.ServerChecker;
+import co.bugg.quickplay.util.diagnostics.ExceptionReporter;
 import com.google.gson.Gson;
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.fml.common.Loader;
 import net.minecraftforge.fml.common.ModContainer;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
-import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -26,13 +27,17 @@ import java.util.HashMap;
  */
 public class HttpRequestFactory {
 
-    public HttpClient httpClient;
+    public CloseableHttpClient httpClient;
+    /**
+     * Whether {@link #close()} has been called
+     */
+    private volatile boolean closed = false;
 
     public HttpRequestFactory() {
         httpClient = newClient();
     }
 
-    public HttpClient newClient() {
+    public CloseableHttpClient newClient() {
         PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
         connectionManager.setMaxTotal(100);
 
@@ -42,6 +47,26 @@ public class HttpRequestFactory {
                 .build();
     }
 
+    /**
+     * Close {@link #httpClient} and its connection pool. Requests made by this factory afterwards fail.
+     */
+    public void close() {
+        closed = true;
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Getter for {@link #closed}
+     * @return {@link #closed}
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
     /**
      * Basic web request to the AnimatedCrosshair web request API
      * Should be executed in its own thread!
@@ -78,7 +103,7 @@ public class HttpRequestFactory {
         return newRequest("https://bugg.co/quickplay/mod/enable", params);
     }
 
-    public Request newExceptionRequest(Exception e) {
+    public Request newExceptionRequest(Throwable e, String fingerprint, int occurrences) {
         HashMap<String, String> params = new HashMap<>();
         addStatisticsParameters(params);
 
@@ -88,7 +113,9 @@ public class HttpRequestFactory {
         }
 
         params.put("error_message", message);
-        params.put("stack_trace", Arrays.toString(e.getStackTrace()));
+        params.put("stack_trace", ExceptionReporter.compactStackTrace(e));
+        params.put("fingerprint", fingerprint);
+        params.put("occurrences", String.valueOf(occurrences));
 
         return newRequest("https://bugg.co/quickplay/mod/exception", params);
     }
@@ -120,7 +147,7 @@ public class HttpRequestFactory {
     public Request newGlyphModificationRequest(HashMap<String, String> params) {
         addStatisticsParameters(params);
         params.put("uuid", Minecraft.getMinecraft().getSession().getPlayerID());
-        params.put("key", String.valueOf(Quickplay.INSTANCE.sessionKey));
+        params.put("key", String.valueOf(Quickplay.INSTANCE.state.get().sessionKey));
 
         return newRequest("https://bugg.co/quickplay/mod/premium/glyph", params);
     }
@@ -142,10 +169,10 @@ public class HttpRequestFactory {
 
         if(Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.sendUsageStats) {
             final Gson gson = new Gson();
-            params.put("enabled", String.valueOf(Quickplay.INSTANCE.enabled));
+            params.put("enabled", String.valueOf(Quickplay.INSTANCE.state.get().enabled));
             params.put("currentIP", ServerChecker.getCurrentIP());
-            params.put("onHypixel", String.valueOf(Quickplay.INSTANCE.onHypixel));
-            params.put("hypixelVerificationMethod", String.valueOf(Quickplay.INSTANCE.verificationMethod));
+            params.put("onHypixel", String.valueOf(Quickplay.INSTANCE.state.get().onHypixel));
+            params.put("hypixelVerificationMethod", String.valueOf(Quickplay.INSTANCE.state.get().verificationMethod));
             params.put("javaVersion", System.getProperty("java.version"));
             params.put("os", System.getProperty("os.name"));
             params.put("osVersion", System.getProperty("os.version"));
@@ -40,6 +40,10 @@ public class Request {
      * @return response from the requested page
      */
     public WebResponse execute() {
+        // The mod has been disabled since this request was created
+        if(factory.isClosed()) {
+            return null;
+        }
 
         try (CloseableHttpResponse httpResponse = (CloseableHttpResponse) factory.httpClient.execute(apacheRequestObj)) {
             int responseCode = httpResponse.getStatusLine().getStatusCode();
@@ -58,6 +62,9 @@ public class Request {
                 return WebResponse.fromJson(writer.toString());
             }
 
+        } catch (IllegalStateException e) {
+            // Connection pool was shut down while the request was running
+            e.printStackTrace();
         } catch (IOException e) {
             e.printStackTrace();
             // Don't send error report if the issue arose from an /exception request. Otherwise it'll probably create an infinite loop.
@@ -7,6 +7,7 @@ import co.bugg.quickplay.games.Game;
 import co.bugg.quickplay.games.PartyMode;
 import co.bugg.quickplay.http.Request;
 import co.bugg.quickplay.util.Message;
+import co.bugg.quickplay.util.concurrent.JobScheduler;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import net.minecraft.client.Minecraft;
@@ -14,7 +15,9 @@ import net.minecraft.client.Minecraft;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -66,7 +69,7 @@ public class ResponseAction {
                 }
                 break;
             case RELOAD_GAMES:
-                Quickplay.INSTANCE.threadPool.submit(() -> {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
                     System.out.println("Reloading games...");
 
                     HashMap<String, String> params = new HashMap<>();
@@ -84,14 +87,14 @@ public class ResponseAction {
 
                         if (response.ok) {
 
-                            Quickplay.INSTANCE.gameList = new ArrayList<>();
+                            final List<Game> games = new ArrayList<>();
                             try {
                                 response.content.getAsJsonObject().get("games").getAsJsonArray().forEach(
-                                        obj -> Quickplay.INSTANCE.gameList.add(new Gson().fromJson(obj, Game.class)));
-
+                                        obj -> games.add(new Gson().fromJson(obj, Game.class)));
+                                Quickplay.INSTANCE.state.update(current -> current.withGameList(games));
 
                                 // Parse game list to verify the client's party mode list
-                                if(Quickplay.INSTANCE.gameList.size() > 0) {
+                                if(games.size() > 0) {
                                     // If the client has any party modes
                                     if (Quickplay.INSTANCE.settings.partyModes != null &&
                                             Quickplay.INSTANCE.settings.partyModes.size() > 0) {
@@ -102,7 +105,7 @@ public class ResponseAction {
                                             // Split the namespace
                                             final String[] splitNamespace = mode.namespace.split("/");
                                             // If no games have the given unlocalized game name
-                                            if(Quickplay.INSTANCE.gameList
+                                            if(games
                                                     .stream()
                                                     .noneMatch(game -> game.unlocalizedName.replace("/", "")
                                                             .equals(splitNamespace[0]))) {
@@ -110,7 +113,7 @@ public class ResponseAction {
                                             } else {
                                                 boolean found = false;
                                                 // For each game matching the first portion of the namespace
-                                                for(Game gameMatchingNamespace : Quickplay.INSTANCE.gameList
+                                                for(Game gameMatchingNamespace : games
                                                         .stream()
                                                         .filter(game -> game.unlocalizedName
                                                                 .replace("/", "")
@@ -142,7 +145,7 @@ public class ResponseAction {
 
 
                                 // Save the retrieved game list to cache
-                                Quickplay.INSTANCE.assetFactory.saveCachedGameList(Quickplay.INSTANCE.gameList.toArray(new Game[0]));
+                                Quickplay.INSTANCE.assetFactory.saveCachedGameList(games.toArray(new Game[0]));
                             } catch (Exception e) {
                                 e.printStackTrace();
                                 Quickplay.INSTANCE.sendExceptionRequest(e);
@@ -150,7 +153,7 @@ public class ResponseAction {
 
                             // Collect all icon URLs into a list and load them (if necessary)
                             Quickplay.INSTANCE.assetFactory.loadIcons(
-                                    Quickplay.INSTANCE.gameList.stream().map(game -> game.imageURL).collect(Collectors.toList()));
+                                    games.stream().map(game -> game.imageURL).collect(Collectors.toList()));
                         }
                     }
                 });
@@ -179,17 +182,13 @@ public class ResponseAction {
             case START_PING:
                 Quickplay.INSTANCE.pingFrequency = value.getAsInt();
 
-                // Stop previous ping thread if one exists
-                if(Quickplay.INSTANCE.pingThread != null) Quickplay.INSTANCE.pingThread.cancel(true);
-                // Start sending ping requests in a new thread
-                Quickplay.INSTANCE.pingThread = Quickplay.INSTANCE.threadPool.submit(() -> {
-                    // TODO URL should be sent from the web server as well
-                    while(Quickplay.INSTANCE.enabled && Quickplay.INSTANCE.pingFrequency > 0) {
-                        try {
-                            Thread.sleep(Quickplay.INSTANCE.pingFrequency * 1000);
-                        } catch (InterruptedException e) {
-                            System.out.println("Quickplay ping thread interrupted!");
-                            break;
+                if(Quickplay.INSTANCE.pingFrequency > 0) {
+                    // Starting a job replaces the previous ping job if one exists
+                    Quickplay.INSTANCE.jobScheduler.newJob(Quickplay.pingJobName, () -> {
+                        // TODO URL should be sent from the web server as well
+                        if(!Quickplay.INSTANCE.state.get().enabled || Quickplay.INSTANCE.pingFrequency <= 0) {
+                            Quickplay.INSTANCE.jobScheduler.cancel(Quickplay.pingJobName);
+                            return;
                         }
 
                         System.out.println("Pinging web server");
@@ -213,8 +212,14 @@ public class ResponseAction {
                         }
                         // Increase ping count
                         Quickplay.INSTANCE.currentPing++;
-                    }
-                });
+                    }).fixedDelay(Quickplay.INSTANCE.pingFrequency, TimeUnit.SECONDS)
+                            .jitter(0.1)
+                            .onDisable(JobScheduler.DisablePolicy.CANCEL)
+                            .executeOn(Quickplay.INSTANCE.networkPool)
+                            .start();
+                } else {
+                    Quickplay.INSTANCE.jobScheduler.cancel(Quickplay.pingJobName);
+                }
                 break;
         }
     }
@@ -0,0 +1,201 @@
+package co.bugg.quickplay.util;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.util.buffer.ChatBuffer;
+import co.bugg.quickplay.util.chat.ChatType;
+import co.bugg.quickplay.util.chat.ClassifiedChat;
+import net.minecraft.util.ChatComponentTranslation;
+import net.minecraft.util.ChatStyle;
+import net.minecraft.util.EnumChatFormatting;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.gameevent.InputEvent;
+import org.lwjgl.input.Keyboard;
+import org.lwjgl.input.Mouse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Queues for the last mode again as soon as a game ends.
+ *
+ * The last <code>/play</code> command sent through the chat buffer is remembered. When the chat pipeline sees
+ * an end-of-game message while the client is on a game server, and auto-requeue is enabled for that mode, the
+ * command is pushed again with {@link ChatBuffer.Priority#URGENT}, straight away or after the configured delay.
+ * Pressing a key or clicking before it's sent cancels it, if enabled. Only one requeue is sent per game.
+ */
+public class AutoRequeue {
+    /**
+     * Prefix of mode commands
+     */
+    public static final String modeCommandPrefix = "/play ";
+
+    /**
+     * Subscriptions while started
+     */
+    private final List<EventRouter.Subscription> subscriptions = new ArrayList<>();
+    /**
+     * Listener for messages sent through the chat buffer
+     */
+    private final Consumer<String> sendListener = this::onMessageSent;
+    /**
+     * Last mode command sent, or null
+     */
+    private volatile String lastModeCommand;
+    /**
+     * Game server a requeue was last sent from, so a game's several end messages only requeue once
+     */
+    private ServerId requeuedFrom;
+    /**
+     * Delay before the requeue is sent, or null if none is waiting
+     */
+    private TickDelay pendingDelay;
+    /**
+     * Command waiting to be sent, either delayed or in the chat buffer, or null
+     */
+    private String pendingCommand;
+
+    /**
+     * Start listening for mode commands, end-of-game messages & input
+     * @return this
+     */
+    public synchronized AutoRequeue start() {
+        if(subscriptions.isEmpty() && Quickplay.INSTANCE.chatBuffer != null) {
+            subscriptions.add(Quickplay.INSTANCE.chatPipeline.subscribe(ChatType.GAME_END, this::onGameEnd));
+            subscriptions.add(Quickplay.INSTANCE.eventRouter.subscribe(InputEvent.KeyInputEvent.class, this::onKeyInput));
+            subscriptions.add(Quickplay.INSTANCE.eventRouter.subscribe(InputEvent.MouseInputEvent.class, this::onMouseInput));
+            subscriptions.add(Quickplay.INSTANCE.eventRouter.subscribe(WorldEvent.Load.class, this::onWorldLoad));
+            Quickplay.INSTANCE.chatBuffer.addSendListener(sendListener);
+            subscriptions.add(() -> Quickplay.INSTANCE.chatBuffer.removeSendListener(sendListener));
+        }
+        return this;
+    }
+
+    /**
+     * Stop listening, cancelling any requeue that hasn't been sent
+     * @return this
+     */
+    public synchronized AutoRequeue stop() {
+        subscriptions.forEach(EventRouter.Subscription::unsubscribe);
+        subscriptions.clear();
+        cancelDelay();
+        pendingCommand = null;
+        requeuedFrom = null;
+        return this;
+    }
+
+    /**
+     * Whether auto-requeue is enabled for a mode
+     * @param command Command used to join the mode
+     * @return Whether the mode is in {@link co.bugg.quickplay.config.ConfigSettings#autoRequeueModes}
+     */
+    public boolean isEnabledFor(String command) {
+        return command != null && Quickplay.INSTANCE.settings.autoRequeueModes.contains(command.trim());
+    }
+
+    /**
+     * Called with every message sent through the chat buffer, on the client thread
+     * @param message Message sent
+     */
+    private void onMessageSent(String message) {
+        if(message.startsWith(modeCommandPrefix)) {
+            lastModeCommand = message.trim();
+        }
+    }
+
+    /**
+     * Called with every end-of-game message
+     * @param chat Classified message
+     */
+    public synchronized void onGameEnd(ClassifiedChat chat) {
+        final String command = lastModeCommand;
+        if(!Quickplay.INSTANCE.settings.autoRequeue || !isEnabledFor(command)) {
+            return;
+        }
+        final ServerId server = Quickplay.INSTANCE.instanceWatcher.getCurrentServerId();
+        if(server == null || !server.isInGame() || server.equals(requeuedFrom) || pendingCommand != null) {
+            return;
+        }
+        requeuedFrom = server;
+        pendingCommand = command;
+
+        final int delayTicks = (int) Math.round(Quickplay.INSTANCE.settings.autoRequeueDelay * 20);
+        if(delayTicks <= 0) {
+            send();
+        } else {
+            pendingDelay = new TickDelay(this::send, delayTicks);
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.autoRequeue.requeueing", Quickplay.INSTANCE.settings.autoRequeueDelay)
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.GREEN))));
+        }
+    }
+
+    /**
+     * Push the pending command to the chat buffer ahead of everything else
+     */
+    private synchronized void send() {
+        pendingDelay = null;
+        if(pendingCommand != null) {
+            Quickplay.INSTANCE.chatBuffer.push(pendingCommand, ChatBuffer.Priority.URGENT);
+        }
+    }
+
+    /**
+     * Called whenever a key is pressed or released
+     * @param event Event data
+     */
+    public void onKeyInput(InputEvent.KeyInputEvent event) {
+        if(Keyboard.getEventKeyState()) {
+            onInput();
+        }
+    }
+
+    /**
+     * Called whenever the mouse moves or a button is pressed or released
+     * @param event Event data
+     */
+    public void onMouseInput(InputEvent.MouseInputEvent event) {
+        if(Mouse.getEventButton() >= 0 && Mouse.getEventButtonState()) {
+            onInput();
+        }
+    }
+
+    /**
+     * Cancel the pending requeue, if enabled and there is one that hasn't been sent
+     */
+    private synchronized void onInput() {
+        if(!Quickplay.INSTANCE.settings.autoRequeueCancelOnInput || pendingCommand == null) {
+            return;
+        }
+        final String command = pendingCommand;
+        final boolean wasDelayed = pendingDelay != null;
+        cancelDelay();
+        pendingCommand = null;
+        final int removed = Quickplay.INSTANCE.chatBuffer.removeIf(waiting ->
+                waiting.priority == ChatBuffer.Priority.URGENT && waiting.message.equals(command));
+        if(wasDelayed || removed > 0) {
+            Quickplay.INSTANCE.messageBuffer.push(new Message(new ChatComponentTranslation(
+                    "quickplay.autoRequeue.cancelled")
+                    .setChatStyle(new ChatStyle().setColor(EnumChatFormatting.YELLOW))));
+        }
+    }
+
+    /**
+     * Called when a world loads: the client has left the game, so a delayed requeue is no longer wanted
+     * @param event Event data
+     */
+    public synchronized void onWorldLoad(WorldEvent.Load event) {
+        cancelDelay();
+        pendingCommand = null;
+    }
+
+    /**
+     * Cancel the delayed requeue, if there is one
+     */
+    private void cancelDelay() {
+        if(pendingDelay != null) {
+            pendingDelay.destroy();
+            pendingDelay = null;
+        }
+    }
+}
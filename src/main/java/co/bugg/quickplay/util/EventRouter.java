@@ -0,0 +1,257 @@
+package co.bugg.quickplay.util;
+
+import co.bugg.quickplay.Quickplay;
+import net.minecraftforge.client.event.ClientChatReceivedEvent;
+import net.minecraftforge.client.event.GuiOpenEvent;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.client.event.RenderPlayerEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.Event;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.InputEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.network.FMLNetworkEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The only object Quickplay registers on the Forge event bus.
+ *
+ * Each event type Quickplay cares about has exactly one {@link SubscribeEvent} method here, which fans the event
+ * out to the listeners subscribed to it through {@link #subscribe(Class, Consumer)}. Listeners are held in
+ * copy-on-write arrays, so dispatching an event doesn't allocate or lock, and subscribing or unsubscribing
+ * doesn't touch Forge's reflective registration.
+ *
+ * Like Forge, once a cancelable event is cancelled the remaining listeners are skipped.
+ */
+public class EventRouter {
+
+    /**
+     * Channels for every supported event type, keyed by event class
+     */
+    private final Map<Class<? extends Event>, Channel<?>> channels;
+
+    /**
+     * Listeners for {@link TickEvent.ClientTickEvent}
+     */
+    private final Channel<TickEvent.ClientTickEvent> clientTick = new Channel<>();
+    /**
+     * Listeners for {@link TickEvent.RenderTickEvent}
+     */
+    private final Channel<TickEvent.RenderTickEvent> renderTick = new Channel<>();
+    /**
+     * Listeners for {@link ClientChatReceivedEvent}
+     */
+    private final Channel<ClientChatReceivedEvent> chatReceived = new Channel<>();
+    /**
+     * Listeners for {@link WorldEvent.Load}
+     */
+    private final Channel<WorldEvent.Load> worldLoad = new Channel<>();
+    /**
+     * Listeners for {@link InputEvent.KeyInputEvent}
+     */
+    private final Channel<InputEvent.KeyInputEvent> keyInput = new Channel<>();
+    /**
+     * Listeners for {@link GuiOpenEvent}
+     */
+    private final Channel<GuiOpenEvent> guiOpen = new Channel<>();
+    /**
+     * Listeners for {@link FMLNetworkEvent.ClientConnectedToServerEvent}
+     */
+    private final Channel<FMLNetworkEvent.ClientConnectedToServerEvent> connected = new Channel<>();
+    /**
+     * Listeners for {@link FMLNetworkEvent.ClientDisconnectionFromServerEvent}
+     */
+    private final Channel<FMLNetworkEvent.ClientDisconnectionFromServerEvent> disconnected = new Channel<>();
+    /**
+     * Listeners for {@link RenderGameOverlayEvent}
+     */
+    private final Channel<RenderGameOverlayEvent> renderOverlay = new Channel<>();
+    /**
+     * Listeners for {@link RenderPlayerEvent.Post}
+     */
+    private final Channel<RenderPlayerEvent.Post> renderPlayerPost = new Channel<>();
+
+    /**
+     * Constructor
+     */
+    public EventRouter() {
+        final Map<Class<? extends Event>, Channel<?>> map = new HashMap<>();
+        map.put(TickEvent.ClientTickEvent.class, clientTick);
+        map.put(TickEvent.RenderTickEvent.class, renderTick);
+        map.put(ClientChatReceivedEvent.class, chatReceived);
+        map.put(WorldEvent.Load.class, worldLoad);
+        map.put(InputEvent.KeyInputEvent.class, keyInput);
+        map.put(GuiOpenEvent.class, guiOpen);
+        map.put(FMLNetworkEvent.ClientConnectedToServerEvent.class, connected);
+        map.put(FMLNetworkEvent.ClientDisconnectionFromServerEvent.class, disconnected);
+        map.put(RenderGameOverlayEvent.class, renderOverlay);
+        map.put(RenderPlayerEvent.Post.class, renderPlayerPost);
+        channels = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Subscribe a listener to an event type
+     * @param type Class of the event to listen for. Must be one of the types this router handles.
+     * @param listener Listener to call whenever the event is fired
+     * @param <T> Type of the event
+     * @return Handle used to unsubscribe the listener
+     * @throws IllegalArgumentException The event type isn't routed by this router
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Event> Subscription subscribe(Class<T> type, Consumer<? super T> listener) {
+        final Channel<T> channel = (Channel<T>) channels.get(type);
+        if(channel == null) {
+            throw new IllegalArgumentException("Event type " + type.getName() + " is not routed");
+        }
+        if(listener == null) {
+            throw new NullPointerException("listener cannot be null");
+        }
+        return channel.add(listener);
+    }
+
+    /**
+     * Get the number of listeners subscribed to an event type
+     * @param type Class of the event
+     * @return Number of listeners, or 0 if the event type isn't routed
+     */
+    public int listenerCount(Class<? extends Event> type) {
+        final Channel<?> channel = channels.get(type);
+        return channel == null ? 0 : channel.listeners.length;
+    }
+
+    @SubscribeEvent
+    public void onClientTick(TickEvent.ClientTickEvent event) {
+        clientTick.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onRenderTick(TickEvent.RenderTickEvent event) {
+        renderTick.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onChatReceived(ClientChatReceivedEvent event) {
+        chatReceived.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        worldLoad.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onKeyInput(InputEvent.KeyInputEvent event) {
+        keyInput.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onGuiOpen(GuiOpenEvent event) {
+        guiOpen.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onConnected(FMLNetworkEvent.ClientConnectedToServerEvent event) {
+        connected.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onDisconnected(FMLNetworkEvent.ClientDisconnectionFromServerEvent event) {
+        disconnected.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onRenderOverlay(RenderGameOverlayEvent event) {
+        renderOverlay.dispatch(event);
+    }
+
+    @SubscribeEvent
+    public void onRenderPlayerPost(RenderPlayerEvent.Post event) {
+        renderPlayerPost.dispatch(event);
+    }
+
+    /**
+     * Handle returned by {@link #subscribe(Class, Consumer)}
+     */
+    public interface Subscription {
+        /**
+         * Stop the listener from receiving any more events.
+         * Safe to call more than once and from within the listener itself.
+         */
+        void unsubscribe();
+    }
+
+    /**
+     * All listeners for a single event type
+     * @param <T> Type of the event
+     */
+    private static class Channel<T extends Event> {
+        /**
+         * Empty listener array, shared so that empty channels don't allocate
+         */
+        private static final Consumer[] empty = new Consumer[0];
+
+        /**
+         * Current listeners. This array is never modified, only replaced.
+         */
+        private volatile Consumer[] listeners = empty;
+
+        /**
+         * Add a listener to this channel
+         * @param listener Listener to add
+         * @return Handle used to remove the listener
+         */
+        synchronized Subscription add(Consumer<? super T> listener) {
+            final Consumer[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+            copy[copy.length - 1] = listener;
+            listeners = copy;
+            return () -> remove(listener);
+        }
+
+        /**
+         * Remove a listener from this channel
+         * @param listener Listener to remove
+         */
+        synchronized void remove(Consumer<? super T> listener) {
+            final Consumer[] current = listeners;
+            for(int i = 0; i < current.length; i++) {
+                if(current[i] == listener) {
+                    if(current.length == 1) {
+                        listeners = empty;
+                    } else {
+                        final Consumer[] copy = new Consumer[current.length - 1];
+                        System.arraycopy(current, 0, copy, 0, i);
+                        System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+                        listeners = copy;
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Call every listener with an event
+         * @param event Event to dispatch
+         */
+        @SuppressWarnings("unchecked")
+        void dispatch(T event) {
+            final Consumer[] current = listeners;
+            final boolean cancelable = event.isCancelable();
+            for(final Consumer listener : current) {
+                if(cancelable && event.isCanceled()) {
+                    return;
+                }
+                try {
+                    listener.accept(event);
+                } catch(Exception e) {
+                    e.printStackTrace();
+                    Quickplay.INSTANCE.sendExceptionRequest(e);
+                }
+            }
+        }
+    }
+}
@@ -1,26 +1,66 @@
 package co.bugg.quickplay.util;
 
 import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.util.buffer.ChatBuffer;
+import co.bugg.quickplay.util.history.HistoryEntry;
+import co.bugg.quickplay.util.history.InstanceJournal;
+import co.bugg.quickplay.util.history.RingBuffer;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.entity.EntityPlayerSP;
 import net.minecraftforge.event.world.WorldEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
+import org.lwjgl.opengl.Display;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * When online Hypixel, enabled instances of
  * this class will watch for what instance the
- * client is on by occasionally executing
- * /whereami
+ * client is on, passively where possible and
+ * otherwise by occasionally executing /whereami
+ *
+ * Polling is adaptive: it's quick after a world load or a <code>/play</code> command, the interval doubles every
+ * time the instance turns out unchanged up to {@link #maxIntervalMultiplier} times {@link #whereamiFrequency},
+ * and it's paused while the game window isn't focused or the player is AFK.
  */
 public class InstanceWatcher {
     /**
-     * List of all instances in this game session
+     * Shortest interval between polls in ticks, used right after the instance may have changed
+     */
+    public static final int minIntervalTicks = 60;
+    /**
+     * Longest interval between polls, as a multiple of {@link #whereamiFrequency}
+     */
+    public static final int maxIntervalMultiplier = 16;
+    /**
+     * Number of ticks without the player moving or looking around after which they're considered AFK
+     */
+    public static final int afkTicks = 20 * 60 * 3;
+    /**
+     * Number of instances kept in memory in {@link #instanceHistory}
+     */
+    public static final int historyCapacity = 256;
+    /**
+     * Most recent instances in this game session
      * Index 0 is the latest
      */
-    public List<String> instanceHistory = new ArrayList<>();
+    public final RingBuffer<HistoryEntry> instanceHistory = new RingBuffer<>(historyCapacity);
+    /**
+     * Listeners called with every instance change, on the client thread
+     */
+    private final List<Consumer<HistoryEntry>> instanceListeners = new CopyOnWriteArrayList<>();
+    /**
+     * Latest instance, or null if it isn't known yet
+     */
+    private volatile ServerId currentServerId;
+    /**
+     * Journal every instance is appended to, kept across restarts
+     */
+    public final InstanceJournal journal = new InstanceJournal();
     /**
      * Whether the instance is running & registered
      * with the event handler
@@ -30,26 +70,130 @@ public class InstanceWatcher {
      * How often in seconds /whereami should be executed
      */
     public int whereamiFrequency;
+    /**
+     * Subscriptions to the event router while started
+     */
+    private final List<EventRouter.Subscription> subscriptions = new ArrayList<>();
+    /**
+     * Detector finding the instance without sending commands, falling back to /whereami when it can't
+     */
+    private final PassiveInstanceDetector detector = new PassiveInstanceDetector(this::onInstance, this::runWhereami);
+    /**
+     * Listener for messages sent through the chat buffer, watching for <code>/play</code>
+     */
+    private final Consumer<String> sendListener = this::onMessageSent;
+    /**
+     * Current interval between polls in ticks
+     */
+    private int intervalTicks = minIntervalTicks;
+    /**
+     * Set from any thread when a <code>/play</code> command is sent, and handled on the next tick
+     */
+    private volatile boolean expectChange = false;
+    /**
+     * Number of ticks the player hasn't moved or looked around for
+     */
+    private int idleTicks = 0;
+    /**
+     * Player position and rotation on the last tick, for AFK detection
+     */
+    private double lastX, lastY, lastZ, lastYaw, lastPitch;
+    /**
+     * Number of ticks the watcher has been started for, used to work out how often a fixed schedule would have polled
+     */
+    private long startedTicks = 0;
+    /**
+     * Number of polls which actually sent a /whereami, rather than being answered from its cache or a request
+     * already in flight
+     */
+    private long pollCount = 0;
 
     public InstanceWatcher(int frequency) {
         whereamiFrequency = frequency;
     }
 
+    /**
+     * Number of active ticks since the last poll
+     */
     public int tick;
 
-    @SubscribeEvent
     public void onTick(TickEvent.ClientTickEvent event) {
-        if(event.phase == TickEvent.Phase.START && tick++ > whereamiFrequency * 20) {
+        if(event.phase != TickEvent.Phase.START) {
+            return;
+        }
+        startedTicks++;
+
+        if(expectChange) {
+            expectChange = false;
+            speedUp();
+        }
+        if(isIdle()) {
+            return;
+        }
+
+        if(++tick >= intervalTicks) {
             tick = 0;
-            runWhereami();
+            // Changing instance always loads a new world, so a passively found instance stays right
+            if(detector.hasServer()) {
+                backOff();
+            } else {
+                runWhereami();
+            }
         }
     }
 
-    @SubscribeEvent
     public void onWorldChange(WorldEvent.Load event) {
-        // Run twice, just in case first one doesn't trigger
-        new TickDelay(this::runWhereami, 15);
-        new TickDelay(this::runWhereami, 60);
+        // The cached response is for the previous world. The detector looks for the new instance
+        // and only runs /whereami if it can't find it.
+        Quickplay.INSTANCE.whereami.invalidate();
+        speedUp();
+    }
+
+    /**
+     * Called with every message sent through the chat buffer, possibly on another thread
+     * @param message Message sent
+     */
+    private void onMessageSent(String message) {
+        if(message.startsWith("/play ")) {
+            expectChange = true;
+        }
+    }
+
+    /**
+     * Poll soon, as the instance may have just changed
+     */
+    private void speedUp() {
+        intervalTicks = minIntervalTicks;
+        tick = 0;
+    }
+
+    /**
+     * Poll less often, as the instance hasn't changed
+     */
+    private void backOff() {
+        intervalTicks = Math.min(intervalTicks * 2, Math.max(whereamiFrequency * 20 * maxIntervalMultiplier, minIntervalTicks));
+    }
+
+    /**
+     * Whether polling should be paused because the game window isn't focused or the player is AFK
+     * @return Whether polling is paused
+     */
+    private boolean isIdle() {
+        final EntityPlayerSP player = Minecraft.getMinecraft().thePlayer;
+        if(player != null) {
+            if(player.posX != lastX || player.posY != lastY || player.posZ != lastZ ||
+                    player.rotationYaw != lastYaw || player.rotationPitch != lastPitch) {
+                idleTicks = 0;
+                lastX = player.posX;
+                lastY = player.posY;
+                lastZ = player.posZ;
+                lastYaw = player.rotationYaw;
+                lastPitch = player.rotationPitch;
+            } else {
+                idleTicks++;
+            }
+        }
+        return !Display.isActive() || idleTicks > afkTicks;
     }
 
     /**
@@ -57,7 +201,13 @@ public class InstanceWatcher {
      * @return this
      */
     public InstanceWatcher start() {
-        Quickplay.INSTANCE.registerEventHandler(this);
+        if(!started) {
+            subscriptions.add(Quickplay.INSTANCE.eventRouter.subscribe(TickEvent.ClientTickEvent.class, this::onTick));
+            subscriptions.add(Quickplay.INSTANCE.eventRouter.subscribe(WorldEvent.Load.class, this::onWorldChange));
+            detector.start();
+            Quickplay.INSTANCE.chatBuffer.addSendListener(sendListener);
+        }
+        speedUp();
         started = true;
         runWhereami();
         return this;
@@ -68,7 +218,11 @@ public class InstanceWatcher {
      * @return this
      */
     public InstanceWatcher stop() {
-        Quickplay.INSTANCE.unregisterEventHandler(this);
+        subscriptions.forEach(EventRouter.Subscription::unsubscribe);
+        subscriptions.clear();
+        detector.stop();
+        Quickplay.INSTANCE.chatBuffer.removeSendListener(sendListener);
+        Quickplay.INSTANCE.whereami.reset();
         started = false;
         return this;
     }
@@ -78,53 +232,128 @@ public class InstanceWatcher {
      * @return this
      */
     public InstanceWatcher runWhereami() {
-        if(Quickplay.INSTANCE.onHypixel && Quickplay.INSTANCE.enabled) {
-            new WhereamiWrapper((server) -> {
-
-                // Automatic lobby 1 swapper
-                if (Quickplay.INSTANCE.settings.lobbyOneSwap) {
-                    // Swap if this is true by the end of this if statement
-                    boolean swapToLobbyOne = true;
-                    // Don't swap if we aren't in a lobby or we don't know where we are
-                    if (server == null || !server.contains("lobby")) {
-                        swapToLobbyOne = false;
-                    }
-                    // If we have been in another server before this one
-                    else if (instanceHistory.size() > 0) {
-                        // Get what server/lobby type this is
-                        final String serverType = server.replaceAll("\\d", "");
-                        // Get what server/lobby type the previous server is
-                        final String previousServerType = instanceHistory.get(0).replaceAll("\\d", "");
-                        // Swap if they aren't the same
-                        swapToLobbyOne = !serverType.equals(previousServerType);
-                    }
-                    // Swap if: you're in a lobby & you just joined the server to a lobby or you just left an instance that was not the same type of lobby as this
-                    if (swapToLobbyOne) {
-                        Quickplay.INSTANCE.chatBuffer.push("/swaplobby 1");
-                    }
+        if(Quickplay.INSTANCE.state.get().onHypixel && Quickplay.INSTANCE.state.get().enabled) {
+            final WhereamiWrapper whereami = Quickplay.INSTANCE.whereami;
+            final long sentBefore = whereami.getSentCount();
+            whereami.request().thenAccept(this::onInstance);
+            if(whereami.getSentCount() > sentBefore) {
+                pollCount++;
+            }
+        }
+        return this;
+    }
 
+    /**
+     * Called with the result of a <code>/whereami</code>
+     * @param server The current instance, or null if it couldn't be found out
+     */
+    private void onInstance(String server) {
+        final ServerId serverId = ServerId.of(server);
+        final ServerId previousServerId = currentServerId;
+        if(serverId != null) {
+            if(serverId.equals(previousServerId)) {
+                backOff();
+            } else {
+                speedUp();
+            }
+        }
+
+        // Automatic lobby 1 swapper
+        if (Quickplay.INSTANCE.settings.lobbyOneSwap) {
+            // Swap if this is true by the end of this if statement
+            boolean swapToLobbyOne = true;
+            // Don't swap if we aren't in a lobby or we don't know where we are
+            if (serverId == null || !serverId.isLobby()) {
+                swapToLobbyOne = false;
+            }
+            // If we have been in another server before this one, swap if it wasn't the same type of lobby
+            else if (previousServerId != null) {
+                swapToLobbyOne = !serverId.getType().equals(previousServerId.getType());
+            }
+            // Swap if: you're in a lobby & you just joined the server to a lobby or you just left an instance that was not the same type of lobby as this
+            if (swapToLobbyOne) {
+                Quickplay.INSTANCE.chatBuffer.push("/swaplobby 1", ChatBuffer.Priority.BACKGROUND);
+            }
+
+        }
+
+        if (serverId != null && !serverId.equals(previousServerId)) {
+            currentServerId = serverId;
+            final HistoryEntry entry = new HistoryEntry(System.currentTimeMillis(), server);
+            instanceHistory.add(entry);
+            journal.append(entry);
+            for(Consumer<HistoryEntry> listener : instanceListeners) {
+                try {
+                    listener.accept(entry);
+                } catch(Exception e) {
+                    e.printStackTrace();
+                    Quickplay.INSTANCE.sendExceptionRequest(e);
                 }
+            }
 
-                if (server != null && (instanceHistory.size() <= 0 || !instanceHistory.get(0).equals(server))) {
-                    instanceHistory.add(0, server);
-
-                    // Send analytical data to Google
-                    if (Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
-                            Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
-                        Quickplay.INSTANCE.threadPool.submit(() -> {
-                            try {
-                                Quickplay.INSTANCE.ga.createEvent("Instance", "Instance Changed")
-                                        .setEventLabel(server)
-                                        .send();
-                            } catch (IOException e) {
-                                e.printStackTrace();
-                            }
-                        });
+            // Send analytical data to Google
+            if (Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.statsToken != null &&
+                    Quickplay.INSTANCE.usageStats.sendUsageStats && Quickplay.INSTANCE.ga != null) {
+                Quickplay.INSTANCE.networkPool.submit(() -> {
+                    try {
+                        Quickplay.INSTANCE.ga.createEvent("Instance", "Instance Changed")
+                                .setEventLabel(server)
+                                .send();
+                    } catch (IOException e) {
+                        e.printStackTrace();
                     }
-                }
-            });
+                });
+            }
         }
-        return this;
+    }
+
+    /**
+     * Add a listener called with every instance change, on the client thread
+     * @param listener Listener to add
+     */
+    public void addInstanceListener(Consumer<HistoryEntry> listener) {
+        instanceListeners.add(listener);
+    }
+
+    /**
+     * Remove a listener added with {@link #addInstanceListener(Consumer)}
+     * @param listener Listener to remove
+     */
+    public void removeInstanceListener(Consumer<HistoryEntry> listener) {
+        instanceListeners.remove(listener);
+    }
+
+    /**
+     * Getter for {@link #pollCount}
+     * @return {@link #pollCount}
+     */
+    public long getPollCount() {
+        return pollCount;
+    }
+
+    /**
+     * Get the number of polls saved compared with polling every {@link #whereamiFrequency} seconds
+     * @return Polls a fixed schedule would have run, minus polls actually run
+     */
+    public long getPollsSaved() {
+        return startedTicks / (Math.max(whereamiFrequency, 1) * 20L) - pollCount;
+    }
+
+    /**
+     * Get a snapshot of this watcher's polling metrics
+     * @return Metrics
+     */
+    public PollMetrics getMetrics() {
+        return new PollMetrics(pollCount, getPollsSaved(), Quickplay.INSTANCE.whereami.getSentCount(),
+                Quickplay.INSTANCE.whereami.getSharedCount());
+    }
+
+    /**
+     * Getter for {@link #intervalTicks}
+     * @return {@link #intervalTicks}
+     */
+    public int getIntervalTicks() {
+        return intervalTicks;
     }
 
     /**
@@ -132,7 +361,16 @@ public class InstanceWatcher {
      * @return The instance
      */
     public String getCurrentServer() {
-        return instanceHistory.size() > 0 ? instanceHistory.get(0) : null;
+        final ServerId serverId = currentServerId;
+        return serverId != null ? serverId.name : null;
+    }
+
+    /**
+     * Get the latest instance, parsed when it changed
+     * @return {@link #currentServerId}
+     */
+    public ServerId getCurrentServerId() {
+        return currentServerId;
     }
 
 }
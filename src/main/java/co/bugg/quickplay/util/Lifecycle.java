@@ -0,0 +1,119 @@
+package co.bugg.quickplay.util;
+
+import co.bugg.quickplay.Quickplay;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Ordered list of components which own resources for as long as the mod is enabled.
+ *
+ * Each component declares a start hook and a stop hook. {@link #start()} runs start hooks in registration order,
+ * and {@link #stop()} runs the stop hooks of every started component in reverse order, so components can rely on
+ * the ones registered before them. A failing hook is reported without stopping the others from running.
+ */
+public class Lifecycle {
+
+    /**
+     * All registered components, in start order
+     */
+    private final List<Component> components = new ArrayList<>();
+    /**
+     * Components that have been started and not yet stopped, most recently started first
+     */
+    private final Deque<Component> started = new ArrayDeque<>();
+
+    /**
+     * Register a component. Components are started in the order they're registered in.
+     * @param name Name of the component, for debugging
+     * @param start Start hook, or null if the component only needs stopping
+     * @param stop Stop hook, or null if the component only needs starting
+     * @return this
+     */
+    public synchronized Lifecycle register(String name, Runnable start, Runnable stop) {
+        components.add(new Component(name, start, stop));
+        return this;
+    }
+
+    /**
+     * Start all components that aren't already started
+     */
+    public synchronized void start() {
+        for(Component component : components) {
+            if(started.contains(component)) {
+                continue;
+            }
+            if(component.start != null) {
+                try {
+                    component.start.run();
+                } catch(Exception e) {
+                    System.out.println("Failed to start " + component.name);
+                    e.printStackTrace();
+                    Quickplay.INSTANCE.sendExceptionRequest(e);
+                    continue;
+                }
+            }
+            started.push(component);
+        }
+    }
+
+    /**
+     * Stop all started components, in the reverse order they were started in
+     */
+    public synchronized void stop() {
+        while(!started.isEmpty()) {
+            final Component component = started.pop();
+            if(component.stop != null) {
+                try {
+                    component.stop.run();
+                } catch(Exception e) {
+                    System.out.println("Failed to stop " + component.name);
+                    e.printStackTrace();
+                    Quickplay.INSTANCE.sendExceptionRequest(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the names of all started components
+     * @return Names, most recently started first
+     */
+    public synchronized List<String> getStartedComponents() {
+        final List<String> names = new ArrayList<>();
+        started.forEach(component -> names.add(component.name));
+        return names;
+    }
+
+    /**
+     * A component with start and stop hooks
+     */
+    private static class Component {
+        /**
+         * Name of the component
+         */
+        final String name;
+        /**
+         * Start hook, or null
+         */
+        final Runnable start;
+        /**
+         * Stop hook, or null
+         */
+        final Runnable stop;
+
+        /**
+         * Constructor
+         * @param name Name of the component
+         * @param start Start hook, or null
+         * @param stop Stop hook, or null
+         */
+        Component(String name, Runnable start, Runnable stop) {
+            this.name = name;
+            this.start = start;
+            this.stop = stop;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package co.bugg.quickplay.util;
+
+import co.bugg.quickplay.Quickplay;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor for tasks that must run on Minecraft's main (render) thread, usually because they need the OpenGL context.
+ *
+ * Any thread may submit tasks. Tasks are held in lock-free queues, one per {@link Priority}, and are drained by
+ * {@link #drain()} once per frame. Draining stops once the frame budget has been spent, and whatever is left over
+ * is carried to the next frame, so a burst of work (e.g. reloading dozens of textures) is spread out instead of
+ * stalling a single frame.
+ */
+public class MainThreadExecutor implements Executor {
+
+    /**
+     * Default amount of time in milliseconds that may be spent running tasks each frame
+     */
+    public static final double defaultFrameBudgetMillis = 2.0;
+
+    /**
+     * Task queues, indexed by {@link Priority#ordinal()}
+     */
+    private final ConcurrentLinkedQueue<Runnable>[] queues;
+    /**
+     * Maximum amount of time in nanoseconds that may be spent running tasks each frame
+     */
+    private volatile long frameBudgetNanos;
+
+    /**
+     * Number of tasks currently waiting to be ran
+     */
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    /**
+     * Highest value {@link #queueDepth} has reached
+     */
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    /**
+     * Total number of tasks ran
+     */
+    private final AtomicLong executedCount = new AtomicLong();
+    /**
+     * Number of frames that ran out of budget and carried work over to the next frame
+     */
+    private final AtomicLong carriedOverFrames = new AtomicLong();
+    /**
+     * Time in nanoseconds the last {@link #drain()} took
+     */
+    private volatile long lastDrainNanos;
+    /**
+     * Longest time in nanoseconds any {@link #drain()} has taken
+     */
+    private volatile long maxDrainNanos;
+
+    /**
+     * Constructor
+     */
+    public MainThreadExecutor() {
+        this(defaultFrameBudgetMillis);
+    }
+
+    /**
+     * Constructor
+     * @param frameBudgetMillis Maximum amount of time in milliseconds that may be spent running tasks each frame
+     */
+    @SuppressWarnings("unchecked")
+    public MainThreadExecutor(double frameBudgetMillis) {
+        setFrameBudget(frameBudgetMillis);
+        queues = new ConcurrentLinkedQueue[Priority.values().length];
+        for(int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Schedule a task with {@link Priority#NORMAL} priority
+     * @param task Task to run on the main thread
+     */
+    @Override
+    public void execute(Runnable task) {
+        execute(task, Priority.NORMAL);
+    }
+
+    /**
+     * Schedule a task to be ran on the main thread
+     * @param task Task to run on the main thread
+     * @param priority Priority of the task. Higher priority tasks run first each frame.
+     */
+    public void execute(Runnable task, Priority priority) {
+        if(task == null) {
+            throw new NullPointerException("task cannot be null");
+        }
+        queues[priority.ordinal()].offer(task);
+
+        final int depth = queueDepth.incrementAndGet();
+        int max;
+        while(depth > (max = maxQueueDepth.get()) && !maxQueueDepth.compareAndSet(max, depth)) {
+            // Retry until the max is updated or another thread set a higher one
+        }
+    }
+
+    /**
+     * Run queued tasks until the frame budget is spent or there are no tasks left.
+     * At least one task is ran every call so the queue always makes progress.
+     * Must only be called from the main thread.
+     */
+    public void drain() {
+        if(queueDepth.get() <= 0) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final long deadline = start + frameBudgetNanos;
+        boolean ranAny = false;
+
+        for(final ConcurrentLinkedQueue<Runnable> queue : queues) {
+            Runnable task;
+            while((!ranAny || System.nanoTime() < deadline) && (task = queue.poll()) != null) {
+                queueDepth.decrementAndGet();
+                ranAny = true;
+                runSafely(task);
+            }
+        }
+
+        if(queueDepth.get() > 0) {
+            carriedOverFrames.incrementAndGet();
+        }
+
+        lastDrainNanos = System.nanoTime() - start;
+        if(lastDrainNanos > maxDrainNanos) {
+            maxDrainNanos = lastDrainNanos;
+        }
+    }
+
+    /**
+     * Run a task, making sure that one broken task can't stop the rest of the queue from draining
+     * @param task Task to run
+     */
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch(Exception e) {
+            e.printStackTrace();
+            Quickplay.INSTANCE.sendExceptionRequest(e);
+        } finally {
+            executedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Set the frame budget
+     * @param frameBudgetMillis Maximum amount of time in milliseconds that may be spent running tasks each frame
+     */
+    public void setFrameBudget(double frameBudgetMillis) {
+        this.frameBudgetNanos = (long) (frameBudgetMillis * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Get the number of tasks currently waiting to be ran
+     * @return {@link #queueDepth}
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Getter for {@link #maxQueueDepth}
+     * @return {@link #maxQueueDepth}
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Getter for {@link #executedCount}
+     * @return {@link #executedCount}
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * Getter for {@link #carriedOverFrames}
+     * @return {@link #carriedOverFrames}
+     */
+    public long getCarriedOverFrames() {
+        return carriedOverFrames.get();
+    }
+
+    /**
+     * Getter for {@link #lastDrainNanos}
+     * @return {@link #lastDrainNanos}
+     */
+    public long getLastDrainNanos() {
+        return lastDrainNanos;
+    }
+
+    /**
+     * Getter for {@link #maxDrainNanos}
+     * @return {@link #maxDrainNanos}
+     */
+    public long getMaxDrainNanos() {
+        return maxDrainNanos;
+    }
+
+    /**
+     * Priority classes for main thread tasks. Tasks of a higher priority are always ran before lower ones.
+     */
+    public enum Priority {
+        /**
+         * Tasks the user is directly waiting on, e.g. opening a GUI
+         */
+        HIGH,
+        /**
+         * General state changes that need to happen on the main thread
+         */
+        NORMAL,
+        /**
+         * Bulk work that can wait a few frames, e.g. texture uploads
+         */
+        LOW
+    }
+}
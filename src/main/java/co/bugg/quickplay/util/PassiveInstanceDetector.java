@@ -0,0 +1,235 @@
+package co.bugg.quickplay.util;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.util.chat.ChatType;
+import co.bugg.quickplay.util.chat.ClassifiedChat;
+import net.minecraft.client.Minecraft;
+import net.minecraft.scoreboard.Score;
+import net.minecraft.scoreboard.ScoreObjective;
+import net.minecraft.scoreboard.ScorePlayerTeam;
+import net.minecraft.scoreboard.Scoreboard;
+import net.minecraft.util.EnumChatFormatting;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Works out which instance the client is on without sending any commands.
+ *
+ * Hypixel sends "Sending you to &lt;server&gt;!" before moving the client to a game server, and prints the server
+ * next to the date at the top of the sidebar scoreboard. After every world load the detector uses the server
+ * from the last "Sending you to" message straight away, if it came in within {@link #expectedServerTtlMillis},
+ * and reads the sidebar every tick until it finds a server. A sidebar server that differs from the expected one
+ * replaces it, as the transfer may have failed or gone elsewhere. If neither gives a single unambiguous server
+ * within {@link #scanTicks} ticks, the fallback is called so the caller can use <code>/whereami</code> instead.
+ */
+public class PassiveInstanceDetector {
+    /**
+     * Number of ticks after a world load to look for the server on the sidebar
+     */
+    public static final int scanTicks = 20;
+    /**
+     * Number of milliseconds a "Sending you to" message is trusted for, as the world load it announces follows
+     * within a few seconds if the transfer works at all
+     */
+    public static final long expectedServerTtlMillis = 5000;
+    /**
+     * Pattern for the sidebar line with the date and server, e.g. "09/14/20 m104R" or "09/14/20 mini104R".
+     * Group 1 is the server type and group 2 the rest of the server name.
+     */
+    public static final Pattern sidebarPattern = Pattern.compile("^\\d{2}/\\d{2}/\\d{2,4}\\s+(mini|mega|m|M)(\\d{1,3}[A-Z])$");
+
+    /**
+     * Called with the server when it's found
+     */
+    private final Consumer<String> listener;
+    /**
+     * Called when the server couldn't be found passively after a world load
+     */
+    private final Runnable fallback;
+    /**
+     * Subscriptions while started
+     */
+    private final List<EventRouter.Subscription> subscriptions = new ArrayList<>();
+    /**
+     * Server named by the last "Sending you to" message, used on the next world load
+     */
+    private String expectedServer;
+    /**
+     * {@link System#nanoTime()} when {@link #expectedServer} was received
+     */
+    private long expectedServerAtNanos;
+    /**
+     * Ticks left to scan the sidebar for, 0 when not scanning
+     */
+    private int scanTicksLeft = 0;
+    /**
+     * Server found for the current world, or null
+     */
+    private String currentServer;
+    /**
+     * World {@link #currentServer} was found in
+     */
+    private World currentWorld;
+
+    /**
+     * Constructor
+     * @param listener Called with the server when it's found
+     * @param fallback Called when the server couldn't be found passively after a world load
+     */
+    public PassiveInstanceDetector(Consumer<String> listener, Runnable fallback) {
+        this.listener = listener;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Start listening for world loads, ticks and server messages
+     * @return this
+     */
+    public PassiveInstanceDetector start() {
+        if(subscriptions.isEmpty()) {
+            subscriptions.add(Quickplay.INSTANCE.eventRouter.subscribe(WorldEvent.Load.class, this::onWorldLoad));
+            subscriptions.add(Quickplay.INSTANCE.eventRouter.subscribe(TickEvent.ClientTickEvent.class, this::onTick));
+            subscriptions.add(Quickplay.INSTANCE.chatPipeline.subscribe(ChatType.SENDING_TO, this::onSendingTo));
+        }
+        return this;
+    }
+
+    /**
+     * Stop listening and forget everything found so far
+     * @return this
+     */
+    public PassiveInstanceDetector stop() {
+        subscriptions.forEach(EventRouter.Subscription::unsubscribe);
+        subscriptions.clear();
+        expectedServer = null;
+        currentServer = null;
+        currentWorld = null;
+        scanTicksLeft = 0;
+        return this;
+    }
+
+    /**
+     * Whether the server has been found for the world the client is in
+     * @return Whether a server was found since the last world load
+     */
+    public boolean hasServer() {
+        return currentServer != null && currentWorld == Minecraft.getMinecraft().theWorld;
+    }
+
+    /**
+     * Get the server found for the world the client is in
+     * @return The server, or null if it hasn't been found
+     */
+    public String getServer() {
+        return hasServer() ? currentServer : null;
+    }
+
+    /**
+     * Called when a world loads, i.e. whenever the client changes server
+     * @param event Event data
+     */
+    public void onWorldLoad(WorldEvent.Load event) {
+        currentServer = null;
+        currentWorld = null;
+        final String server = expectedServer;
+        expectedServer = null;
+        if(server != null && System.nanoTime() - expectedServerAtNanos <
+                TimeUnit.MILLISECONDS.toNanos(expectedServerTtlMillis)) {
+            found(server, event.world);
+        }
+        // Scan even if the server's expected, to cross-check it against the sidebar
+        scanTicksLeft = scanTicks;
+    }
+
+    /**
+     * Called every tick to scan the sidebar after a world load
+     * @param event Event data
+     */
+    public void onTick(TickEvent.ClientTickEvent event) {
+        if(event.phase != TickEvent.Phase.END || scanTicksLeft <= 0) {
+            return;
+        }
+        final World world = Minecraft.getMinecraft().theWorld;
+        if(world == null) {
+            return;
+        }
+
+        final String server = readSidebar(world.getScoreboard());
+        if(server != null) {
+            scanTicksLeft = 0;
+            if(!server.equals(getServer())) {
+                found(server, world);
+            }
+        } else if(--scanTicksLeft == 0 && !hasServer()) {
+            fallback.run();
+        }
+    }
+
+    /**
+     * Called with every "Sending you to" message
+     * @param chat Classified message, group 1 being the server
+     */
+    public void onSendingTo(ClassifiedChat chat) {
+        final String server = chat.group(1);
+        if(ServerId.of(server).kind != ServerId.Kind.UNKNOWN) {
+            expectedServer = server;
+            expectedServerAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Record a server for a world and pass it to the listener
+     * @param server Server found
+     * @param world World the server was found in
+     */
+    private void found(String server, World world) {
+        currentServer = server;
+        currentWorld = world;
+        listener.accept(server);
+    }
+
+    /**
+     * Find the server on the sidebar scoreboard
+     * @param scoreboard Scoreboard to read
+     * @return The server, or null if there's no sidebar, no server on it, or more than one
+     */
+    public static String readSidebar(Scoreboard scoreboard) {
+        if(scoreboard == null) {
+            return null;
+        }
+        final ScoreObjective sidebar = scoreboard.getObjectiveInDisplaySlot(1);
+        if(sidebar == null) {
+            return null;
+        }
+
+        String server = null;
+        for(Score score : scoreboard.getSortedScores(sidebar)) {
+            final String name = score.getPlayerName();
+            if(name == null || name.startsWith("#")) {
+                continue;
+            }
+            final ScorePlayerTeam team = scoreboard.getPlayersTeam(name);
+            final String line = EnumChatFormatting.getTextWithoutFormattingCodes(ScorePlayerTeam.formatPlayerName(team, name)).trim();
+
+            final Matcher matcher = sidebarPattern.matcher(line);
+            if(matcher.matches()) {
+                final String type = matcher.group(1);
+                final String found = (type.equals("M") || type.equals("mega") ? "mega" : "mini") + matcher.group(2);
+                if(server != null && !server.equals(found)) {
+                    // Ambiguous, leave it to /whereami
+                    return null;
+                }
+                server = found;
+            }
+        }
+        return server;
+    }
+}
@@ -0,0 +1,42 @@
+package co.bugg.quickplay.util;
+
+/**
+ * Snapshot of how often {@link InstanceWatcher} has had to run <code>/whereami</code>
+ */
+public class PollMetrics {
+    /**
+     * Number of polls which sent a <code>/whereami</code>
+     */
+    public final long polls;
+    /**
+     * Number of polls saved compared with polling on a fixed schedule
+     */
+    public final long saved;
+    /**
+     * Total number of <code>/whereami</code> commands sent, by the watcher or anything else
+     */
+    public final long sent;
+    /**
+     * Total number of requests answered from the cache or a request already in flight
+     */
+    public final long shared;
+
+    /**
+     * Constructor
+     * @param polls Number of polls which sent a <code>/whereami</code>
+     * @param saved Number of polls saved
+     * @param sent Total number of commands sent
+     * @param shared Total number of requests answered without sending a command
+     */
+    public PollMetrics(long polls, long saved, long sent, long shared) {
+        this.polls = polls;
+        this.saved = saved;
+        this.sent = sent;
+        this.shared = shared;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("whereami: polls=%d saved=%d sent=%d shared=%d", polls, saved, sent, shared);
+    }
+}
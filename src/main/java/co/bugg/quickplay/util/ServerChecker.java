@@ -7,7 +7,6 @@ import net.minecraft.client.multiplayer.ServerData;
 import net.minecraft.util.IChatComponent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.Loader;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
 
@@ -32,6 +31,10 @@ public class ServerChecker {
      * IP the client is connected to
      */
     public String ip = "unknown";
+    /**
+     * Subscription to world loads, if this checker is waiting for one
+     */
+    private EventRouter.Subscription worldLoadSubscription;
 
     /**
      * Constructor
@@ -47,13 +50,12 @@ public class ServerChecker {
 
             // If the current IP matches the regex above
             if (matcher.find()) {
-                Quickplay.INSTANCE.onHypixel = true;
                 this.ip = ip;
                 runCallback(true, this.ip, VerificationMethod.IP);
             } else {
                 // Not on a recognized IP, let's check server metadata, which
                 // occurs on world load
-                Quickplay.INSTANCE.registerEventHandler(this);
+                worldLoadSubscription = Quickplay.INSTANCE.eventRouter.subscribe(WorldEvent.Load.class, this::onJoinWorld);
             }
         } else {
             runCallback(false, this.ip = "singleplayer", null);
@@ -65,10 +67,9 @@ public class ServerChecker {
      * @param event Event data
      * @see WorldEvent.Load
      */
-    @SubscribeEvent
     public void onJoinWorld(WorldEvent.Load event) {
         // Only one world load is necessary
-        Quickplay.INSTANCE.unregisterEventHandler(this);
+        unsubscribe();
         // Wait one second for everything to load properly
         new TickDelay(() -> {
             // Check the server's metadata
@@ -199,7 +200,17 @@ public class ServerChecker {
      */
     public void runCallback(boolean onHypixel, String ip, VerificationMethod method) {
         callback.run(onHypixel, ip, method);
-        Quickplay.INSTANCE.unregisterEventHandler(this);
+        unsubscribe();
+    }
+
+    /**
+     * Stop listening for world loads, if this checker was listening
+     */
+    private void unsubscribe() {
+        if(worldLoadSubscription != null) {
+            worldLoadSubscription.unsubscribe();
+            worldLoadSubscription = null;
+        }
     }
 
     /**
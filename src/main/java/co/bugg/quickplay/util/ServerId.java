@@ -0,0 +1,205 @@
+package co.bugg.quickplay.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed Hypixel server name, e.g. <code>lobby5</code>, <code>bedwarslobby3</code>, <code>mini104R</code> or
+ * <code>limbo</code>.
+ *
+ * Names are parsed once with {@link #of(String)} and interned, so the same name always gives the same instance
+ * and consumers, even per-frame ones, just read precomputed fields.
+ */
+public class ServerId {
+    /**
+     * Pattern for server names. Group 1 is limbo, groups 2 and 3 are a lobby's family and number,
+     * and groups 4 to 6 are a game server's kind, number and suffix.
+     */
+    public static final Pattern serverPattern =
+            Pattern.compile("^(?:(limbo)|([A-Za-z]*)lobby(\\d{1,3})|(mini|mega)(\\d{1,3})([A-Z]))$");
+    /**
+     * Maximum number of interned server IDs, after which the table is cleared
+     */
+    public static final int maxInterned = 1024;
+
+    /**
+     * Interned server IDs by name
+     */
+    private static final Map<String, ServerId> interned = new ConcurrentHashMap<>();
+
+    /**
+     * Kind of server
+     */
+    public final Kind kind;
+    /**
+     * Full server name
+     */
+    public final String name;
+    /**
+     * Family of a lobby, e.g. <code>bedwars</code> for <code>bedwarslobby3</code> or an empty string for the main
+     * lobby. Null for anything other than a lobby.
+     */
+    public final String family;
+    /**
+     * Number of the lobby or game server, or -1 if it doesn't have one
+     */
+    public final int number;
+    /**
+     * Suffix of a game server, e.g. <code>R</code> for <code>mini104R</code>, or null if it doesn't have one
+     */
+    public final String suffix;
+    /**
+     * Whether this is a game server, i.e. a mini or mega server
+     */
+    private final boolean inGame;
+
+    /**
+     * Constructor
+     * @param kind Kind of server
+     * @param name Full server name
+     * @param family Family of a lobby, or null
+     * @param number Number of the server, or -1
+     * @param suffix Suffix of a game server, or null
+     */
+    private ServerId(Kind kind, String name, String family, int number, String suffix) {
+        this.kind = kind;
+        this.name = name;
+        this.family = family;
+        this.number = number;
+        this.suffix = suffix;
+        this.inGame = kind == Kind.MINI || kind == Kind.MEGA;
+    }
+
+    /**
+     * Get the interned server ID for a name, parsing it if it hasn't been seen before
+     * @param name Server name
+     * @return The server ID, or null if the name is null
+     */
+    public static ServerId of(String name) {
+        if(name == null) {
+            return null;
+        }
+        final ServerId cached = interned.get(name);
+        if(cached != null) {
+            return cached;
+        }
+        if(interned.size() >= maxInterned) {
+            interned.clear();
+        }
+        final ServerId parsed = parse(name);
+        final ServerId previous = interned.putIfAbsent(name, parsed);
+        return previous != null ? previous : parsed;
+    }
+
+    /**
+     * Parse a server name without interning it, for names that are only looked at once
+     * @param name Server name
+     * @return The server ID, of kind {@link Kind#UNKNOWN} if the name isn't recognised
+     */
+    public static ServerId parse(String name) {
+        final Matcher matcher = serverPattern.matcher(name);
+        if(!matcher.matches()) {
+            return new ServerId(Kind.UNKNOWN, name, null, -1, null);
+        }
+        if(matcher.group(1) != null) {
+            return new ServerId(Kind.LIMBO, name, null, -1, null);
+        }
+        if(matcher.group(3) != null) {
+            return new ServerId(Kind.LOBBY, name, matcher.group(2).toLowerCase(), Integer.parseInt(matcher.group(3)), null);
+        }
+        return new ServerId(matcher.group(4).equals("mini") ? Kind.MINI : Kind.MEGA, name, null,
+                Integer.parseInt(matcher.group(5)), matcher.group(6));
+    }
+
+    /**
+     * Whether this is a game server, i.e. a mini or mega server
+     * @return {@link #inGame}
+     */
+    public boolean isInGame() {
+        return inGame;
+    }
+
+    /**
+     * Whether this is a lobby of any family
+     * @return Whether this is a lobby
+     */
+    public boolean isLobby() {
+        return kind == Kind.LOBBY;
+    }
+
+    /**
+     * Whether this is one of the main lobbies, e.g. <code>lobby5</code>
+     * @return Whether this is a main lobby
+     */
+    public boolean isMainLobby() {
+        return kind == Kind.LOBBY && family.isEmpty();
+    }
+
+    /**
+     * Whether this is limbo
+     * @return Whether this is limbo
+     */
+    public boolean isLimbo() {
+        return kind == Kind.LIMBO;
+    }
+
+    /**
+     * Get the type of this server, i.e. its name without the number: <code>bedwarslobby</code> for lobbies,
+     * <code>mini</code>, <code>mega</code> or <code>limbo</code> otherwise, and the lower case name for unknown
+     * servers
+     * @return The server type
+     */
+    public String getType() {
+        switch(kind) {
+            case LOBBY:
+                return family + "lobby";
+            case UNKNOWN:
+                return name.toLowerCase();
+            default:
+                return kind.name().toLowerCase();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ServerId && name.equals(((ServerId) o).name));
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Kinds of server
+     */
+    public enum Kind {
+        /**
+         * Lobby, e.g. <code>lobby5</code> or <code>bedwarslobby3</code>
+         */
+        LOBBY,
+        /**
+         * Small game server, e.g. <code>mini104R</code>
+         */
+        MINI,
+        /**
+         * Large game server, e.g. <code>mega12B</code>
+         */
+        MEGA,
+        /**
+         * Limbo
+         */
+        LIMBO,
+        /**
+         * A name that isn't recognised
+         */
+        UNKNOWN
+    }
+}
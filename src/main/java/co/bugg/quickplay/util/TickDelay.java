@@ -1,11 +1,10 @@
 package co.bugg.quickplay.util;
 
 import co.bugg.quickplay.Quickplay;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
-import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 /**
  * Class to delay code by a certain number ofgame ticks
+ * Scheduled on {@link Quickplay#tickScheduler}
  * @author bugfroggy
  */
 public class TickDelay {
@@ -19,7 +18,7 @@ public class TickDelay {
         this.fn = fn;
         this.delay = ticks;
 
-        Quickplay.INSTANCE.registerEventHandler(this);
+        this.timeout = Quickplay.INSTANCE.tickScheduler.schedule(this::run, ticks);
     }
 
     /**
@@ -35,21 +34,13 @@ public class TickDelay {
      */
     public Runnable fn;
     /**
-     * Number of ticks to delay by
+     * Number of ticks this code was delayed by
      */
-    public int delay;
-
-    @SubscribeEvent
-    public void onTick(TickEvent.ClientTickEvent event) {
-        if(event.phase == TickEvent.Phase.START) {
-            // Delay expired
-            if(delay < 1) {
-                run();
-                destroy();
-            }
-            delay--;
-        }
-    }
+    public final int delay;
+    /**
+     * Handle to the scheduled task, used for cancelling
+     */
+    private final TickScheduler.Timeout timeout;
 
     /**
      * Run the delayed code
@@ -59,9 +50,17 @@ public class TickDelay {
     }
 
     /**
-     * Destroy this object by unregistering it from the event bus
+     * Destroy this object by cancelling it, so the delayed code is never ran
      */
     public void destroy() {
-        Quickplay.INSTANCE.unregisterEventHandler(this);
+        timeout.cancel();
+    }
+
+    /**
+     * Getter for {@link #timeout}
+     * @return {@link #timeout}
+     */
+    public TickScheduler.Timeout getTimeout() {
+        return timeout;
     }
 }
@@ -0,0 +1,224 @@
+package co.bugg.quickplay.util;
+
+import co.bugg.quickplay.Quickplay;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel that runs code after a certain number of client ticks.
+ *
+ * Tasks are hashed into one of {@link #wheelSize} slots by the tick they expire on. Every tick only the current
+ * slot is visited, so scheduling and cancelling are O(1) and the cost of a tick doesn't depend on how many
+ * tasks are waiting. Tasks delayed by more than one revolution simply stay in their slot until their tick comes.
+ *
+ * Tasks may be scheduled from any thread. They are handed to the wheel through a lock-free queue and always
+ * run on the main thread.
+ */
+public class TickScheduler {
+
+    /**
+     * Number of slots in the wheel. Must be a power of two.
+     */
+    public static final int wheelSize = 512;
+
+    /**
+     * Slots of the wheel. Each slot is the head of a doubly linked list of timeouts.
+     */
+    private final Timeout[] wheel = new Timeout[wheelSize];
+    /**
+     * Mask used to hash a tick into its slot
+     */
+    private final int mask = wheelSize - 1;
+    /**
+     * Timeouts that have been scheduled but not yet placed onto the wheel
+     */
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of ticks that have been processed so far
+     */
+    private long tick = 0;
+    /**
+     * Number of timeouts currently scheduled or on the wheel
+     */
+    private int size = 0;
+
+    /**
+     * Schedule a task to be ran after the provided number of ticks
+     * @param task Code to run
+     * @param ticks How many ticks to delay it. 0 or less runs it on the next tick.
+     * @return Handle which can be used to cancel the task
+     */
+    public Timeout schedule(Runnable task, int ticks) {
+        if(task == null) {
+            throw new NullPointerException("task cannot be null");
+        }
+        final Timeout timeout = new Timeout(task, Math.max(ticks, 0));
+        pending.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Called every client tick to advance the wheel by one slot
+     * @param event Event data
+     */
+    public void onTick(TickEvent.ClientTickEvent event) {
+        if(event.phase == TickEvent.Phase.START) {
+            tick++;
+            transferPending();
+            expireSlot((int) (tick & mask));
+        }
+    }
+
+    /**
+     * Move all pending timeouts onto the wheel, relative to the current tick
+     */
+    private void transferPending() {
+        Timeout timeout;
+        while((timeout = pending.poll()) != null) {
+            if(timeout.cancelled) {
+                continue;
+            }
+            timeout.deadline = tick + timeout.delay;
+            final int slot = (int) (timeout.deadline & mask);
+
+            timeout.next = wheel[slot];
+            if(wheel[slot] != null) {
+                wheel[slot].prev = timeout;
+            }
+            wheel[slot] = timeout;
+            size++;
+        }
+    }
+
+    /**
+     * Run all timeouts in a slot that expire on this tick, and drop any that have been cancelled
+     * @param slot Slot to expire
+     */
+    private void expireSlot(int slot) {
+        Timeout timeout = wheel[slot];
+        while(timeout != null) {
+            final Timeout next = timeout.next;
+            if(timeout.cancelled) {
+                unlink(slot, timeout);
+            } else if(timeout.deadline <= tick) {
+                unlink(slot, timeout);
+                timeout.expired = true;
+                try {
+                    timeout.task.run();
+                } catch(Exception e) {
+                    e.printStackTrace();
+                    Quickplay.INSTANCE.sendExceptionRequest(e);
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Remove a timeout from its slot
+     * @param slot Slot the timeout is in
+     * @param timeout Timeout to remove
+     */
+    private void unlink(int slot, Timeout timeout) {
+        if(timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[slot] = timeout.next;
+        }
+        if(timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.next = timeout.prev = null;
+        size--;
+    }
+
+    /**
+     * Get the number of ticks processed so far
+     * @return {@link #tick}
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Get the number of timeouts waiting on the wheel. Timeouts scheduled since the last tick are not included.
+     * @return {@link #size}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Handle for a task scheduled on the {@link TickScheduler}
+     */
+    public static class Timeout {
+        /**
+         * Code to run
+         */
+        private final Runnable task;
+        /**
+         * How many ticks the task was delayed by
+         */
+        private final int delay;
+        /**
+         * Tick this timeout expires on. Set once it's placed onto the wheel.
+         */
+        private long deadline;
+        /**
+         * Whether this timeout has been cancelled
+         */
+        private volatile boolean cancelled = false;
+        /**
+         * Whether this timeout's task has ran
+         */
+        private volatile boolean expired = false;
+        /**
+         * Next timeout in the same slot
+         */
+        private Timeout next;
+        /**
+         * Previous timeout in the same slot
+         */
+        private Timeout prev;
+
+        /**
+         * Constructor
+         * @param task Code to run
+         * @param delay How many ticks to delay it
+         */
+        private Timeout(Runnable task, int delay) {
+            this.task = task;
+            this.delay = delay;
+        }
+
+        /**
+         * Cancel this timeout so its task never runs. Safe to call from any thread.
+         * The timeout is removed from the wheel the next time its slot is visited.
+         * @return Whether the timeout was cancelled, false if it has already ran
+         */
+        public boolean cancel() {
+            if(expired) {
+                return false;
+            }
+            cancelled = true;
+            return true;
+        }
+
+        /**
+         * Getter for {@link #cancelled}
+         * @return {@link #cancelled}
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Getter for {@link #expired}
+         * @return {@link #expired}
+         */
+        public boolean isExpired() {
+            return expired;
+        }
+    }
+}
@@ -1,107 +1,198 @@
 package co.bugg.quickplay.util;
 
 import co.bugg.quickplay.Quickplay;
-import net.minecraftforge.client.event.ClientChatReceivedEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import co.bugg.quickplay.QuickplayEventHandler;
+import co.bugg.quickplay.util.buffer.ChatBuffer;
+import co.bugg.quickplay.util.chat.ChatType;
+import co.bugg.quickplay.util.chat.ClassifiedChat;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Wrapper for the <code>/whereami</code> command on Hypixel and determining the client's location
+ *
+ * Only one <code>/whereami</code> is in flight at a time: callers asking while one is waiting for its response
+ * share its future, and a response is reused for {@link #cacheTtlMillis} afterwards, so a burst of callers costs
+ * one command and one chat listener.
  */
 public class WhereamiWrapper {
     /**
-     * Whether this wrapper should listen for & action on chat messages
+     * Number of ticks after which a response is no longer cancelled, so the user sees it
      */
-    boolean listening;
+    public static final int cancelTicks = 120;
     /**
-     * Whether this wrapper should cancel whereami messages it finds
+     * Number of ticks after which a request gives up and completes with null
      */
-    boolean cancel;
+    public static final int timeoutTicks = 1200;
     /**
-     * Callback when this wrapper finds a /whereami message
+     * Number of milliseconds a response is reused for
      */
-    final WhereamiListenerCallback callback;
+    public static final long cacheTtlMillis = 5000;
 
     /**
-     * Constructor
+     * Future for the request currently waiting for a response, or null
+     */
+    private CompletableFuture<String> inFlight;
+    /**
+     * Whether the response to the request in flight should be cancelled
+     */
+    private boolean cancel;
+    /**
+     * Subscription to <code>/whereami</code> responses while a request is in flight
+     */
+    private EventRouter.Subscription chatSubscription;
+    /**
+     * Delays for the request in flight: no longer cancelling the response, and timing out
+     */
+    private TickDelay cancelDelay, timeoutDelay;
+    /**
+     * Most recent response, or null
+     */
+    private String cachedInstance;
+    /**
+     * {@link System#nanoTime()} when {@link #cachedInstance} was received
+     */
+    private long cachedAtNanos;
+    /**
+     * Number of <code>/whereami</code> commands sent
+     */
+    private final AtomicLong sentCount = new AtomicLong();
+    /**
+     * Number of requests answered by a cached response or a request already in flight, without sending a command
+     */
+    private final AtomicLong sharedCount = new AtomicLong();
+
+    /**
+     * Find out which instance the client is on
      *
-     * @param callback Callback when this wrapper finds a /whereami message
+     * @return Future completed with the current instance, or with null if it couldn't be found out within
+     * {@link #timeoutTicks} or the client isn't on Hypixel. Completed on the client thread.
      */
-    public WhereamiWrapper(WhereamiListenerCallback callback) {
+    public synchronized CompletableFuture<String> request() {
+        if(!Quickplay.INSTANCE.state.get().enabled || !Quickplay.INSTANCE.state.get().onHypixel) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if(cachedInstance != null && System.nanoTime() - cachedAtNanos < TimeUnit.MILLISECONDS.toNanos(cacheTtlMillis)) {
+            sharedCount.incrementAndGet();
+            return CompletableFuture.completedFuture(cachedInstance);
+        }
+        if(inFlight != null) {
+            sharedCount.incrementAndGet();
+            return inFlight;
+        }
 
-        Quickplay.INSTANCE.registerEventHandler(this);
-        this.callback = callback;
-        this.listening = true;
-        this.cancel = true;
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        inFlight = future;
+        cancel = true;
+        chatSubscription = Quickplay.INSTANCE.chatPipeline.subscribe(ChatType.WHEREAMI, this::onWhereami);
 
         // Send the /whereami command
-        Quickplay.INSTANCE.chatBuffer.push("/whereami");
+        Quickplay.INSTANCE.chatBuffer.push("/whereami", ChatBuffer.Priority.BACKGROUND);
+        sentCount.incrementAndGet();
         // If a /whereami isn't received within 120 ticks (6 seconds), don't cancel the message
-        new TickDelay(this::stopCancelling, 120);
+        cancelDelay = new TickDelay(this::stopCancelling, cancelTicks);
         // If a /whereami isn't received within 1200 ticks (60 seconds), stop listening
-        new TickDelay(() -> stopListening(null), 1200);
+        timeoutDelay = new TickDelay(() -> finish(null), timeoutTicks);
+
+        return future;
     }
 
     /**
-     * Don't cancel the chat message if it comes
-     * in, but still listen & call the callback
+     * Getter for {@link #sentCount}
+     * @return {@link #sentCount}
      */
-    public void stopCancelling() {
-        this.cancel = false;
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * Getter for {@link #sharedCount}
+     * @return {@link #sharedCount}
+     */
+    public long getSharedCount() {
+        return sharedCount.get();
     }
 
     /**
-     * Stop listening for a chat message
-     * and call the callback
-     * @param instance Current instance to pass to callback
+     * Forget the cached response, e.g. after changing worlds
      */
-    public void stopListening(String instance) {
-        if(listening) {
-            this.listening = false;
-            Quickplay.INSTANCE.unregisterEventHandler(this);
+    public synchronized void invalidate() {
+        cachedInstance = null;
+    }
 
-            callback.call(instance);
+    /**
+     * Forget the cached response and complete any request in flight with null. May be called from any thread,
+     * the request is still completed on the client thread.
+     */
+    public synchronized void reset() {
+        invalidate();
+        final CompletableFuture<String> future = detach();
+        if(future != null) {
+            QuickplayEventHandler.mainThreadExecutor.execute(() -> future.complete(null));
         }
     }
 
-    @SubscribeEvent
-    public void onChat(ClientChatReceivedEvent event) {
-        final String message = event.message.getUnformattedText();
-        // Regex for the /whereami response
-        // §bYou are currently connected to server §r§6lobby5§r
-        final Pattern pattern = Pattern.compile("^You are currently (?:(?:in |connected to server )" +
-                "(limbo|(?:(?:[A-Za-z]+)?lobby(?:\\d{1,3})|(?:mega|mini)\\d{1,3}[A-Z])))$");
-        final Matcher matcher = pattern.matcher(message);
-
-        if(
-                Quickplay.INSTANCE.enabled &&
-                Quickplay.INSTANCE.onHypixel &&
-                !event.isCanceled() &&
-                matcher.find() &&
-                listening
-        ) {
-
-            if(this.cancel) {
-                event.setCanceled(true);
-            }
+    /**
+     * Don't cancel the chat message if it comes
+     * in, but still listen & complete the request
+     */
+    private synchronized void stopCancelling() {
+        this.cancel = false;
+    }
 
-            // Get the regex group containing the current instance
-            final String instance = matcher.group(1);
-            stopListening(instance);
+    /**
+     * Stop listening for a chat message and complete the request in flight
+     * @param instance Current instance, or null
+     */
+    private synchronized void finish(String instance) {
+        final CompletableFuture<String> future = detach();
+        if(future == null) {
+            return;
         }
 
+        if(instance != null) {
+            cachedInstance = instance;
+            cachedAtNanos = System.nanoTime();
+        }
+        future.complete(instance);
+    }
+
+    /**
+     * Stop listening for a chat message and forget the request in flight without completing it
+     * @return Future for the request that was in flight, or null
+     */
+    private synchronized CompletableFuture<String> detach() {
+        if(inFlight == null) {
+            return null;
+        }
+        final CompletableFuture<String> future = inFlight;
+        inFlight = null;
+        chatSubscription.unsubscribe();
+        chatSubscription = null;
+        cancelDelay.destroy();
+        timeoutDelay.destroy();
+        return future;
     }
 
     /**
-     * Interface for inline callbacks
-     * Called when a response to /whereami is received,
-     * or after 60 seconds of no response with "null" passed
+     * Called with every <code>/whereami</code> response while a request is in flight
+     * @param chat Classified message, group 1 being the current instance
      */
-    @FunctionalInterface
-    public interface WhereamiListenerCallback {
+    public void onWhereami(ClassifiedChat chat) {
+        if(Quickplay.INSTANCE.state.get().enabled && Quickplay.INSTANCE.state.get().onHypixel) {
+            synchronized(this) {
+                if(inFlight == null) {
+                    return;
+                }
+                if(this.cancel) {
+                    chat.event.setCanceled(true);
+                }
+            }
 
-        void call(String instance);
+            // Get the regex group containing the current instance
+            finish(chat.group(1));
+        }
     }
 }
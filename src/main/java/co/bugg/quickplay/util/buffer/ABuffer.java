@@ -3,71 +3,285 @@ package co.bugg.quickplay.util.buffer;
 import co.bugg.quickplay.Quickplay;
 
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Abstract buffer element used for... anything buffer-related.
  * In Quickplay this is used for preparing chat messages.
+ *
+ * Items can be pushed from any thread. While the buffer is started, pushing an item schedules a drain on
+ * {@link Quickplay#jobScheduler} straight away, so nothing waits on a polling interval and no thread is held
+ * while the buffer is empty.
+ *
+ * Buffers may have several lanes. Items in a lower lane are always processed before items in a higher lane,
+ * and items in the same lane are processed in the order they were pushed.
+ * @param <T> Type of item in the buffer
  */
-public abstract class ABuffer implements Runnable {
+public abstract class ABuffer<T> {
     /**
-     * Buffer of all the objects
+     * Buffer of all the items, one deque per lane, oldest first
      */
-    private ArrayList<Object> buffer;
+    private final List<Deque<Entry<T>>> lanes = new ArrayList<>();
     /**
-     * The time in milliseconds between {@link #run()} calls
+     * Sequence used to give every buffer's job a different name
      */
-    private int sleepTime;
+    private static final AtomicLong jobIds = new AtomicLong();
+    /**
+     * Name of the job running this buffer
+     */
+    private final String jobName = "buffer:" + getClass().getSimpleName() + "#" + jobIds.incrementAndGet();
+    /**
+     * Number of items in {@link #lanes}, as {@link ConcurrentLinkedDeque#size()} isn't constant time
+     */
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * Whether a drain is scheduled or running
+     */
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    /**
+     * Lane of the item the scheduled drain is waiting to retry, or -1 if it isn't waiting on one
+     */
+    private final AtomicInteger blockedLane = new AtomicInteger(-1);
+    /**
+     * The time in milliseconds to wait before trying again when an item can't be processed yet
+     */
+    private final int retryTime;
+    /**
+     * Minimum time in milliseconds between processing two items, 0 for none
+     */
+    private volatile long spacing = 0;
+    /**
+     * {@link System#nanoTime()} when the last item was processed
+     */
+    private volatile long lastProcessedNanos = 0;
     /**
      * Whether the buffer is currently running
      */
-    private boolean started;
+    private volatile boolean started;
+
+    /**
+     * Total number of items processed
+     */
+    private final AtomicLong processedCount = new AtomicLong();
+    /**
+     * Total nanoseconds processed items spent waiting in the buffer
+     */
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    /**
+     * Longest time in nanoseconds an item spent waiting in the buffer
+     */
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    /**
+     * Largest number of items that have been in the buffer at once
+     */
+    private final AtomicInteger maxSize = new AtomicInteger();
+    /**
+     * Maximum number of items in the buffer, 0 for no limit
+     */
+    private volatile int capacity = 0;
+    /**
+     * Total number of items dropped because the buffer was full
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param retryTime Time in milliseconds to wait before trying again when an item can't be processed yet.
+     *                  See {@link #retryTime}
+     */
+    public ABuffer(int retryTime) {
+        this(retryTime, 1);
+    }
 
     /**
      * Constructor
-     * @param sleepTime Time in milliseconds between {@link #run()} calls. See {@link #sleepTime}
+     * @param retryTime Time in milliseconds to wait before trying again when an item can't be processed yet.
+     *                  See {@link #retryTime}
+     * @param laneCount Number of lanes. See {@link #getLane(Object)}
+     */
+    public ABuffer(int retryTime, int laneCount) {
+        this.retryTime = retryTime;
+        for(int i = 0; i < laneCount; i++) {
+            lanes.add(new ConcurrentLinkedDeque<>());
+        }
+    }
+
+    /**
+     * Get the lane an item is pushed to. Lane 0 is processed first.
+     * @param item Item being pushed
+     * @return Index of the lane, 0 by default
      */
-    public ABuffer(int sleepTime) {
-        this.sleepTime = sleepTime;
-        this.buffer = new ArrayList<>();
+    protected int getLane(T item) {
+        return 0;
     }
 
+    /**
+     * Get the time to wait before trying again after {@link #process(Object)} returns false
+     * @return Time in milliseconds, {@link #retryTime} by default
+     */
+    protected long getRetryTime() {
+        return retryTime;
+    }
+
+    /**
+     * Whether this buffer is drained on {@link Quickplay#jobScheduler} as items are pushed. Buffers which return
+     * false are drained by calling {@link #drainNow(int)} themselves, e.g. every client tick.
+     * @return true by default
+     */
+    protected boolean drainsOnScheduler() {
+        return true;
+    }
+
+    /**
+     * Process an item from the buffer. Called on the scheduler thread, or the thread calling {@link #drainNow(int)}.
+     * @param item Item to process
+     * @return Whether the item was processed. If false, the item stays at the front of the buffer
+     * and processing is tried again after {@link #getRetryTime()}.
+     */
+    protected abstract boolean process(T item);
+
     /**
      * Peek at the next buffer item without taking it out of the buffer
-     * @return The next buffer item
+     * @return The next buffer item, or null if the buffer is empty
      */
-    public Object peek() {
-        return size() > 0 ? buffer.get(0) : null;
+    public T peek() {
+        for(Deque<Entry<T>> lane : lanes) {
+            final Entry<T> entry = lane.peekFirst();
+            if(entry != null) {
+                return entry.item;
+            }
+        }
+        return null;
     }
 
     /**
      * Pull the next buffer item out of the buffer
-     * @return The next buffer item
+     * @return The next buffer item, or null if the buffer is empty
      */
-    public Object pull() {
-        Object returnValue = peek();
-        if(returnValue != null) {
-            buffer.remove(0);
+    public T pull() {
+        final Entry<T> entry = pollEntry();
+        return entry == null ? null : entry.item;
+    }
+
+    /**
+     * Take the next entry out of the buffer
+     * @return The next entry, or null if the buffer is empty
+     */
+    private Entry<T> pollEntry() {
+        for(Deque<Entry<T>> lane : lanes) {
+            final Entry<T> entry = lane.pollFirst();
+            if(entry != null) {
+                size.decrementAndGet();
+                return entry;
+            }
         }
+        return null;
+    }
 
-        return returnValue;
+    /**
+     * Whether any item in the buffer matches a condition
+     * @param predicate Condition to check
+     * @return Whether a matching item is in the buffer
+     */
+    public boolean contains(Predicate<? super T> predicate) {
+        for(Deque<Entry<T>> lane : lanes) {
+            for(Entry<T> entry : lane) {
+                if(predicate.test(entry.item)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove every item in the buffer matching a condition
+     * @param predicate Condition to check
+     * @return Number of items removed
+     */
+    public int removeIf(Predicate<? super T> predicate) {
+        int removed = 0;
+        for(Deque<Entry<T>> lane : lanes) {
+            for(Iterator<Entry<T>> iter = lane.iterator(); iter.hasNext();) {
+                if(predicate.test(iter.next().item)) {
+                    iter.remove();
+                    size.decrementAndGet();
+                    removed++;
+                }
+            }
+        }
+        return removed;
     }
 
     /**
-     * Push a value to the buffer
+     * Whether the buffer has no items
+     * @return Whether the buffer is empty
+     */
+    private boolean isEmpty() {
+        for(Deque<Entry<T>> lane : lanes) {
+            if(!lane.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Push a value to the buffer. If the buffer is full, the oldest item in the last non-empty lane is dropped.
      * @param pushedValue Value to add to the buffer
      * @return this
      */
-    public ABuffer push(Object pushedValue) {
-        buffer.add(pushedValue);
+    public ABuffer<T> push(T pushedValue) {
+        final int limit = capacity;
+        while(limit > 0 && size.get() >= limit && dropOldest()) {
+            droppedCount.incrementAndGet();
+        }
+        final int lane = getLane(pushedValue);
+        lanes.get(lane).addLast(new Entry<>(pushedValue));
+        final int newSize = size.incrementAndGet();
+        maxSize.accumulateAndGet(newSize, Math::max);
+        if(started && drainsOnScheduler()) {
+            final int blocked = blockedLane.get();
+            if(blocked > lane && blockedLane.compareAndSet(blocked, -1)) {
+                // The drain is waiting out a retry for a lower priority item, which shouldn't hold this one up
+                rescheduleDrain(0);
+            } else {
+                scheduleDrain(0);
+            }
+        }
         return this;
     }
 
+    /**
+     * Remove the oldest item in the last non-empty lane
+     * @return Whether an item was removed
+     */
+    private boolean dropOldest() {
+        for(int i = lanes.size() - 1; i >= 0; i--) {
+            if(lanes.get(i).pollFirst() != null) {
+                size.decrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Empty the buffer of all values
      * @return this
      */
-    public ABuffer clear() {
-        buffer.clear();
+    public ABuffer<T> clear() {
+        while(pull() != null) {
+            // Pulled one at a time so that size stays accurate
+        }
         return this;
     }
 
@@ -76,7 +290,43 @@ public abstract class ABuffer implements Runnable {
      * @return Number of objects in the buffer
      */
     public int size() {
-        return buffer.size();
+        return Math.max(size.get(), 0);
+    }
+
+    /**
+     * Setter for {@link #spacing}
+     * @param spacing Minimum time in milliseconds between processing two items, 0 for none
+     * @return this
+     */
+    public ABuffer<T> setSpacing(long spacing) {
+        this.spacing = spacing;
+        return this;
+    }
+
+    /**
+     * Getter for {@link #spacing}
+     * @return {@link #spacing}
+     */
+    public long getSpacing() {
+        return spacing;
+    }
+
+    /**
+     * Setter for {@link #capacity}
+     * @param capacity Maximum number of items in the buffer, 0 for no limit
+     * @return this
+     */
+    public ABuffer<T> setCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Getter for {@link #capacity}
+     * @return {@link #capacity}
+     */
+    public int getCapacity() {
+        return capacity;
     }
 
     /**
@@ -88,34 +338,172 @@ public abstract class ABuffer implements Runnable {
     }
 
     /**
-     * Start looping {@link #run()}
-     * @return this
+     * Get a snapshot of this buffer's metrics
+     * @return Metrics
      */
-    public ABuffer start() {
-        this.started = true;
-        Quickplay.INSTANCE.threadPool.submit(() -> {
-            while(!Thread.currentThread().isInterrupted() && started) {
-                try {
-                    run();
-                    Thread.sleep(sleepTime);
-                } catch (InterruptedException e) {
-                    stop();
-                    Thread.currentThread().interrupt();
-                    Quickplay.INSTANCE.sendExceptionRequest(e);
-                }
-            }
-        });
+    public BufferMetrics getMetrics() {
+        final long processed = processedCount.get();
+        return new BufferMetrics(getClass().getSimpleName(), size(), maxSize.get(), processed,
+                droppedCount.get(),
+                processed == 0 ? 0 : totalWaitNanos.get() / (double) processed / 1000000d,
+                maxWaitNanos.get() / 1000000d);
+    }
+
+    /**
+     * Name of the {@link Quickplay#jobScheduler} job running this buffer
+     * @return Job name, unique to this buffer
+     */
+    protected String getJobName() {
+        return jobName;
+    }
 
+    /**
+     * Start processing items as soon as they're pushed
+     * @return this
+     */
+    public ABuffer<T> start() {
+        started = true;
+        if(drainsOnScheduler()) {
+            scheduleDrain(0);
+        }
         return this;
     }
 
     /**
-     * Stop looping {@link #run()}
+     * Stop processing items. Items stay in the buffer until it's started again or cleared.
      * @return this
      */
-    public ABuffer stop() {
+    public ABuffer<T> stop() {
         started = false;
-
+        Quickplay.INSTANCE.jobScheduler.cancel(getJobName());
+        blockedLane.set(-1);
+        drainScheduled.set(false);
         return this;
     }
+
+    /**
+     * Schedule a drain, unless one is already scheduled or running
+     * @param delayMillis Delay in milliseconds before draining
+     */
+    private void scheduleDrain(long delayMillis) {
+        if(drainScheduled.compareAndSet(false, true)) {
+            rescheduleDrain(delayMillis);
+        }
+    }
+
+    /**
+     * Schedule a drain while owning {@link #drainScheduled}, replacing any drain already scheduled
+     * @param delayMillis Delay in milliseconds before draining
+     */
+    private void rescheduleDrain(long delayMillis) {
+        Quickplay.INSTANCE.jobScheduler.newJob(getJobName(), this::drain)
+                .once(delayMillis, TimeUnit.MILLISECONDS)
+                .start();
+    }
+
+    /**
+     * Process items until the buffer is empty, an item can't be processed yet, or {@link #spacing} has to be waited for
+     */
+    private void drain() {
+        blockedLane.set(-1);
+        while(started) {
+            final long spacingNanos = TimeUnit.MILLISECONDS.toNanos(spacing);
+            if(spacingNanos > 0 && lastProcessedNanos != 0) {
+                final long remainingNanos = lastProcessedNanos + spacingNanos - System.nanoTime();
+                if(remainingNanos > 0 && !isEmpty()) {
+                    rescheduleDrain(TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1);
+                    return;
+                }
+            }
+
+            final Entry<T> entry = pollEntry();
+            if(entry == null) {
+                break;
+            }
+            if(!processEntry(entry)) {
+                rescheduleDrain(getRetryTime());
+                // Only after rescheduling, so the retry can't replace a drain a higher priority push asked for
+                blockedLane.set(getLane(entry.item));
+                return;
+            }
+        }
+
+        drainScheduled.set(false);
+        // An item may have been pushed after the loop ended but before the flag was cleared
+        if(started && !isEmpty()) {
+            scheduleDrain(0);
+        }
+    }
+
+    /**
+     * Process up to <code>maxItems</code> items on the calling thread, stopping early if the buffer empties or an
+     * item can't be processed yet. {@link #spacing} isn't applied.
+     * @param maxItems Maximum number of items to process
+     * @return Number of items processed
+     */
+    protected int drainNow(int maxItems) {
+        int processed = 0;
+        while(started && processed < maxItems) {
+            final Entry<T> entry = pollEntry();
+            if(entry == null || !processEntry(entry)) {
+                break;
+            }
+            processed++;
+        }
+        return processed;
+    }
+
+    /**
+     * Process an entry taken out of the buffer, putting it back at the front of its lane if it can't be processed yet
+     * @param entry Entry to process
+     * @return Whether the entry was processed (or dropped because processing it failed)
+     */
+    private boolean processEntry(Entry<T> entry) {
+        boolean processed;
+        try {
+            processed = process(entry.item);
+        } catch(Exception e) {
+            // Dropped, so that a bad item can't block the buffer forever
+            processed = true;
+            e.printStackTrace();
+            Quickplay.INSTANCE.sendExceptionRequest(e);
+        }
+
+        if(!processed) {
+            lanes.get(getLane(entry.item)).addFirst(entry);
+            size.incrementAndGet();
+            return false;
+        }
+
+        final long now = System.nanoTime();
+        lastProcessedNanos = now;
+        final long waited = now - entry.pushedNanos;
+        processedCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        return true;
+    }
+
+    /**
+     * An item in the buffer
+     * @param <T> Type of the item
+     */
+    private static class Entry<T> {
+        /**
+         * The item
+         */
+        final T item;
+        /**
+         * {@link System#nanoTime()} when the item was pushed
+         */
+        final long pushedNanos = System.nanoTime();
+
+        /**
+         * Constructor
+         * @param item The item
+         */
+        Entry(T item) {
+            this.item = item;
+        }
+    }
 }
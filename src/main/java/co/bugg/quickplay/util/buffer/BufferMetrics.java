@@ -0,0 +1,62 @@
+package co.bugg.quickplay.util.buffer;
+
+/**
+ * Snapshot of an {@link ABuffer}'s metrics at a point in time
+ */
+public class BufferMetrics {
+    /**
+     * Name of the buffer
+     */
+    public final String name;
+    /**
+     * Number of items waiting in the buffer
+     */
+    public final int queued;
+    /**
+     * Largest number of items that have been waiting in the buffer at once
+     */
+    public final int maxQueued;
+    /**
+     * Total number of items processed
+     */
+    public final long processed;
+    /**
+     * Total number of items dropped because the buffer was full
+     */
+    public final long dropped;
+    /**
+     * Average time in milliseconds processed items spent waiting in the buffer
+     */
+    public final double averageWaitMillis;
+    /**
+     * Longest time in milliseconds an item spent waiting in the buffer
+     */
+    public final double maxWaitMillis;
+
+    /**
+     * Constructor
+     * @param name Name of the buffer
+     * @param queued Number of items waiting in the buffer
+     * @param maxQueued Largest number of items that have been waiting at once
+     * @param processed Total number of items processed
+     * @param dropped Total number of items dropped
+     * @param averageWaitMillis Average wait in milliseconds
+     * @param maxWaitMillis Longest wait in milliseconds
+     */
+    public BufferMetrics(String name, int queued, int maxQueued, long processed, long dropped,
+                         double averageWaitMillis, double maxWaitMillis) {
+        this.name = name;
+        this.queued = queued;
+        this.maxQueued = maxQueued;
+        this.processed = processed;
+        this.dropped = dropped;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: queued=%d maxQueued=%d processed=%d dropped=%d avgWait=%.1fms maxWait=%.1fms",
+                name, queued, maxQueued, processed, dropped, averageWaitMillis, maxWaitMillis);
+    }
+}
@@ -2,63 +2,265 @@ package co.bugg.quickplay.util.buffer;
 
 
 import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.QuickplayEventHandler;
+import co.bugg.quickplay.util.EventRouter;
+import co.bugg.quickplay.util.MainThreadExecutor;
+import co.bugg.quickplay.util.concurrent.TokenBucket;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.entity.EntityPlayerSP;
 import net.minecraftforge.client.ClientCommandHandler;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.network.FMLNetworkEvent;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
 /**
  * Buffer for chat messages sent AS the client.
  * Will send all messages as the client as soon
  * as possible. Buffer is cleared when the player
  * disconnects from a server.
+ *
+ * Messages are rate limited by a {@link TokenBucket} matching the server's spam filter, which adds 20 to a counter
+ * per message, takes 1 off per tick and kicks at 200: so bursts of under 10 messages are fine, but the sustained
+ * rate has to stay under one a second. Messages the user asked for are sent before {@link Priority#BACKGROUND}
+ * ones, background messages always leave a few tokens for the user, and a message that's already waiting
+ * isn't queued a second time.
  */
-public class ChatBuffer extends ABuffer {
+public class ChatBuffer extends ABuffer<ChatBuffer.Command> {
+
+    /**
+     * Number of messages which can be sent in a burst
+     */
+    public static final int burstSize = 8;
+    /**
+     * Milliseconds it takes for one more message to be allowed, slightly slower than the server's spam counter decays
+     */
+    public static final long refillMillis = 1050;
+    /**
+     * Number of tokens background messages leave for messages the user asked for
+     */
+    public static final int backgroundReserve = 3;
+
+    /**
+     * Rate limiter for sent messages
+     */
+    private final TokenBucket rateLimiter = new TokenBucket(burstSize, refillMillis, TimeUnit.MILLISECONDS);
+    /**
+     * Time in milliseconds to wait before trying again, set whenever a message can't be sent
+     */
+    private volatile long retryAfter;
+    /**
+     * Number of messages not queued because an identical message was already waiting
+     */
+    private final AtomicLong coalescedCount = new AtomicLong();
+    /**
+     * Listeners called with every message sent, on the client thread
+     */
+    private final List<Consumer<String>> sendListeners = new CopyOnWriteArrayList<>();
+    /**
+     * Subscription to disconnect events while started
+     */
+    private EventRouter.Subscription disconnectSubscription;
 
     /**
      * Constructor
      *
-     * @param sleepTime Time in milliseconds between {@link #run()} calls. See {@link ABuffer#sleepTime}
+     * @param retryTime Time in milliseconds to wait when a message can't be sent yet. See {@link ABuffer#retryTime}
      */
-    public ChatBuffer(int sleepTime) {
-        super(sleepTime);
+    public ChatBuffer(int retryTime) {
+        super(retryTime, Priority.values().length);
+        retryAfter = retryTime;
+    }
+
+    /**
+     * Push a message the user asked for to the buffer
+     * @param message Message to send
+     * @return this
+     */
+    public ABuffer<Command> push(String message) {
+        return push(message, Priority.USER);
+    }
+
+    /**
+     * Push a message to the buffer
+     * @param message Message to send
+     * @param priority Priority of the message
+     * @return this
+     */
+    public ABuffer<Command> push(String message, Priority priority) {
+        return push(new Command(message, priority));
+    }
+
+    /**
+     * Push a command to the buffer, unless an identical command is already waiting with the same or a
+     * higher priority. Identical commands waiting with a lower priority are replaced.
+     * @param command Command to send
+     * @return this
+     */
+    @Override
+    public synchronized ABuffer<Command> push(Command command) {
+        if(contains(waiting -> waiting.message.equals(command.message) &&
+                waiting.priority.ordinal() <= command.priority.ordinal())) {
+            coalescedCount.incrementAndGet();
+            return this;
+        }
+        coalescedCount.addAndGet(removeIf(waiting -> waiting.message.equals(command.message)));
+        return super.push(command);
+    }
+
+    @Override
+    protected int getLane(Command command) {
+        return command.priority.ordinal();
+    }
+
+    @Override
+    protected long getRetryTime() {
+        return retryAfter;
     }
 
     /**
-     * Start sending messages in the
-     * buffer, whenever possible
+     * Hand a message to the client thread to send, if the player exists and the rate limit allows
+     * @param command Command to send
+     * @return Whether the message was handled
      */
-    public void run() {
+    @Override
+    protected boolean process(Command command) {
         final EntityPlayerSP player = Minecraft.getMinecraft().thePlayer;
+        if(player == null) {
+            retryAfter = super.getRetryTime();
+            return false;
+        }
+
+        final int reserve = command.priority == Priority.BACKGROUND ? backgroundReserve : 0;
+        if(!rateLimiter.tryAcquire(reserve)) {
+            retryAfter = Math.max(rateLimiter.millisUntilAvailable(reserve), 1);
+            return false;
+        }
 
-        // Only send a message if the player exists & there is a message to send
-        if(size() > 0 && player != null) {
-            final String message = (String) pull();
+        // Client commands and the player's network handler aren't thread-safe, so send on the client thread,
+        // in the order messages leave the buffer
+        QuickplayEventHandler.mainThreadExecutor.execute(() -> send(command.message), MainThreadExecutor.Priority.HIGH);
+        return true;
+    }
 
-            // Handle as a command
-            if(message.startsWith("/") && ClientCommandHandler.instance.executeCommand(player, message) == 0) {
-                player.sendChatMessage(message);
+    /**
+     * Send a message as the client and notify the send listeners. Must be called on the client thread.
+     * @param message Message to send
+     */
+    private void send(String message) {
+        final EntityPlayerSP player = Minecraft.getMinecraft().thePlayer;
+        if(player == null) {
+            // Disconnected since the message left the buffer
+            return;
+        }
+
+        // Handle as a command
+        if(message.startsWith("/") && ClientCommandHandler.instance.executeCommand(player, message) == 0) {
+            player.sendChatMessage(message);
+        }
+        for(Consumer<String> listener : sendListeners) {
+            try {
+                listener.accept(message);
+            } catch(Exception e) {
+                e.printStackTrace();
+                Quickplay.INSTANCE.sendExceptionRequest(e);
             }
         }
     }
 
+    /**
+     * Add a listener called with every message sent, on the client thread
+     * @param listener Listener to add
+     */
+    public void addSendListener(Consumer<String> listener) {
+        sendListeners.add(listener);
+    }
+
+    /**
+     * Remove a listener added with {@link #addSendListener(Consumer)}
+     * @param listener Listener to remove
+     */
+    public void removeSendListener(Consumer<String> listener) {
+        sendListeners.remove(listener);
+    }
+
+    /**
+     * Getter for {@link #coalescedCount}
+     * @return {@link #coalescedCount}
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
     @Override
-    public ABuffer start() {
-        Quickplay.INSTANCE.registerEventHandler(this);
+    public ABuffer<Command> start() {
+        if(disconnectSubscription == null) {
+            disconnectSubscription = Quickplay.INSTANCE.eventRouter
+                    .subscribe(FMLNetworkEvent.ClientDisconnectionFromServerEvent.class, this::onDisconnect);
+        }
         return super.start();
     }
 
     @Override
-    public ABuffer stop() {
-        Quickplay.INSTANCE.unregisterEventHandler(this);
+    public ABuffer<Command> stop() {
+        if(disconnectSubscription != null) {
+            disconnectSubscription.unsubscribe();
+            disconnectSubscription = null;
+        }
         return super.stop();
     }
 
-    @SubscribeEvent
     public void onDisconnect(FMLNetworkEvent.ClientDisconnectionFromServerEvent event) {
         clear();
     }
 
+    /**
+     * Priority of a message, in the order messages are sent in
+     */
+    public enum Priority {
+        /**
+         * Time-critical, sent before anything else, e.g. automatically queueing again when a game ends
+         */
+        URGENT,
+        /**
+         * Sent because of something the user did, e.g. clicking a game mode or pressing a keybind
+         */
+        USER,
+        /**
+         * Sent automatically, e.g. <code>/whereami</code> polls
+         */
+        BACKGROUND
+    }
+
+    /**
+     * A message waiting to be sent
+     */
+    public static class Command {
+        /**
+         * Message to send
+         */
+        public final String message;
+        /**
+         * Priority of the message
+         */
+        public final Priority priority;
 
+        /**
+         * Constructor
+         * @param message Message to send
+         * @param priority Priority of the message
+         */
+        public Command(String message, Priority priority) {
+            this.message = message;
+            this.priority = priority;
+        }
+
+        @Override
+        public String toString() {
+            return priority + " " + message;
+        }
+    }
 }
@@ -2,41 +2,125 @@ package co.bugg.quickplay.util.buffer;
 
 
 import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.util.EventRouter;
 import co.bugg.quickplay.util.Message;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.entity.EntityPlayerSP;
-import net.minecraft.util.*;
-
-import java.util.ArrayList;
+import net.minecraft.util.IChatComponent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 /**
  * Buffer for chat messages sent to the
  * client. Will send any messages in the
  * buffer to the player as soon as possible.
+ *
+ * The buffer is drained on the client thread at the end of every client tick, so the chat GUI is only ever touched
+ * from the thread that owns it and messages show up within a tick of being pushed. Up to {@link #maxPerTick}
+ * messages are sent each tick, and adjacent messages are merged into one chat component so long outputs
+ * (e.g. help pages) arrive all at once. The buffer holds at most {@link #getCapacity()} messages, dropping the oldest
+ * if it's flooded.
  */
-public class MessageBuffer extends ABuffer {
+public class MessageBuffer extends ABuffer<Message> {
+
+    /**
+     * Maximum number of messages sent per tick
+     */
+    public static final int maxPerTick = 32;
+    /**
+     * Maximum number of messages merged into one chat component
+     */
+    public static final int maxMerged = 16;
+
+    /**
+     * Subscription to client ticks while started
+     */
+    private EventRouter.Subscription tickSubscription;
+    /**
+     * Messages merged so far this tick, or null. Only accessed on the client thread.
+     */
+    private IChatComponent batch;
+    /**
+     * Number of messages in {@link #batch}
+     */
+    private int batchSize = 0;
 
     /**
      * Constructor
      *
-     * @param sleepTime Time in milliseconds between {@link #run()} calls. See {@link #sleepTime}
+     * @param capacity Maximum number of messages waiting in the buffer. See {@link ABuffer#setCapacity(int)}
      */
-    public MessageBuffer(int sleepTime) {
-        super(sleepTime);
+    public MessageBuffer(int capacity) {
+        super(0);
+        setCapacity(capacity);
+    }
+
+    @Override
+    protected boolean drainsOnScheduler() {
+        return false;
     }
 
     /**
-     * Start sending messages in the
-     * buffer, whenever possible
+     * Called at the end of every client tick to send waiting messages
+     * @param event Event data
      */
-    public void run() {
-        EntityPlayerSP player = Minecraft.getMinecraft().thePlayer;
+    public void onTick(TickEvent.ClientTickEvent event) {
+        if(event.phase != TickEvent.Phase.END || size() <= 0) {
+            return;
+        }
+        drainNow(maxPerTick);
+        flushBatch();
+    }
+
+    /**
+     * Add a message to this tick's batch, if the player exists
+     * @param message Message to send
+     * @return Whether the message was taken
+     */
+    @Override
+    protected boolean process(Message message) {
+        if(Minecraft.getMinecraft().thePlayer == null) {
+            return false;
+        }
 
-        // Only send a message if the player exists & there is a message to send
-        if(size() > 0 && player != null) {
-            player.addChatMessage(((Message) pull()).getMessage());
+        if(batchSize >= maxMerged) {
+            flushBatch();
+        }
+        if(batch == null) {
+            // getMessage() creates a new, unstyled root component, so siblings can safely be added to it
+            batch = message.getMessage();
+        } else {
+            batch.appendText("\n").appendSibling(message.getMessage());
         }
+        batchSize++;
+        return true;
     }
 
+    /**
+     * Send this tick's batch to the player
+     */
+    private void flushBatch() {
+        final EntityPlayerSP player = Minecraft.getMinecraft().thePlayer;
+        if(batch != null && player != null) {
+            player.addChatMessage(batch);
+        }
+        batch = null;
+        batchSize = 0;
+    }
 
+    @Override
+    public ABuffer<Message> start() {
+        if(tickSubscription == null) {
+            tickSubscription = Quickplay.INSTANCE.eventRouter.subscribe(TickEvent.ClientTickEvent.class, this::onTick);
+        }
+        return super.start();
+    }
+
+    @Override
+    public ABuffer<Message> stop() {
+        if(tickSubscription != null) {
+            tickSubscription.unsubscribe();
+            tickSubscription = null;
+        }
+        return super.stop();
+    }
 }
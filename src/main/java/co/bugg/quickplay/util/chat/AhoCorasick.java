@@ -0,0 +1,116 @@
+package co.bugg.quickplay.util.chat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton finding which of a fixed set of literals occur in a piece of text in a single pass,
+ * however many literals there are. Each literal belongs to a group numbered 0-63, and matching returns a bit mask
+ * of the groups found.
+ *
+ * Immutable once built, so it can be shared between threads.
+ */
+public class AhoCorasick {
+
+    /**
+     * Transitions out of every node, by character
+     */
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    /**
+     * Failure link of every node: the node for the longest proper suffix of its path that is also a path
+     */
+    private final int[] failure;
+    /**
+     * Bit mask of the groups whose literals end at every node, including through failure links
+     */
+    private final long[] output;
+
+    /**
+     * Constructor
+     * @param literals Literals to search for, keyed by literal, with the group each belongs to as the value
+     * @throws IllegalArgumentException A group is outside 0-63 or a literal is empty
+     */
+    public AhoCorasick(Map<String, Integer> literals) {
+        transitions.add(new HashMap<>());
+        final List<Long> outputs = new ArrayList<>();
+        outputs.add(0L);
+
+        // Build the trie
+        for(Map.Entry<String, Integer> literal : literals.entrySet()) {
+            final int group = literal.getValue();
+            if(group < 0 || group >= 64 || literal.getKey().isEmpty()) {
+                throw new IllegalArgumentException("Invalid literal \"" + literal.getKey() + "\" in group " + group);
+            }
+            int node = 0;
+            for(char c : literal.getKey().toCharArray()) {
+                Integer next = transitions.get(node).get(c);
+                if(next == null) {
+                    next = transitions.size();
+                    transitions.add(new HashMap<>());
+                    outputs.add(0L);
+                    transitions.get(node).put(c, next);
+                }
+                node = next;
+            }
+            outputs.set(node, outputs.get(node) | (1L << group));
+        }
+
+        failure = new int[transitions.size()];
+        output = new long[transitions.size()];
+        for(int i = 0; i < output.length; i++) {
+            output[i] = outputs.get(i);
+        }
+
+        // Breadth first, so every node's failure link is known before its children's
+        final Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+        while(!queue.isEmpty()) {
+            final int node = queue.poll();
+            for(Map.Entry<Character, Integer> edge : transitions.get(node).entrySet()) {
+                final int child = edge.getValue();
+                queue.add(child);
+                if(node != 0) {
+                    failure[child] = step(failure[node], edge.getKey());
+                }
+                output[child] |= output[failure[child]];
+            }
+        }
+    }
+
+    /**
+     * Follow a character from a node, falling back along failure links when there's no transition
+     * @param node Node to start at
+     * @param c Character to follow
+     * @return Node reached
+     */
+    private int step(int node, char c) {
+        while(true) {
+            final Integer next = transitions.get(node).get(c);
+            if(next != null) {
+                return next;
+            }
+            if(node == 0) {
+                return 0;
+            }
+            node = failure[node];
+        }
+    }
+
+    /**
+     * Find which groups have a literal occurring in a piece of text
+     * @param text Text to search
+     * @return Bit mask of the groups found, with bit <code>n</code> set for group <code>n</code>
+     */
+    public long match(CharSequence text) {
+        long found = 0;
+        int node = 0;
+        for(int i = 0; i < text.length(); i++) {
+            node = step(node, text.charAt(i));
+            found |= output[node];
+        }
+        return found;
+    }
+}
@@ -0,0 +1,191 @@
+package co.bugg.quickplay.util.chat;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.util.EventRouter;
+import net.minecraftforge.client.event.ClientChatReceivedEvent;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+
+/**
+ * Single listener for incoming chat which classifies messages and dispatches them to handlers by {@link ChatType}.
+ *
+ * Each message's unformatted text is built once. A single {@link AhoCorasick} pass over it finds which types'
+ * literals it contains, and only those types' precompiled patterns are run, and only if a handler is subscribed
+ * to the type. Most chat contains none of the literals, so it costs one scan and no regex.
+ */
+public class ChatPipeline {
+
+    /**
+     * Prefilter over every type's literals, grouped by type ordinal
+     */
+    private static final AhoCorasick prefilter = buildPrefilter();
+
+    /**
+     * Handlers subscribed to each type
+     */
+    private final Map<ChatType, List<Consumer<ClassifiedChat>>> handlers = new EnumMap<>(ChatType.class);
+    /**
+     * Bit mask of the types that have at least one handler, by ordinal
+     */
+    private volatile long subscribedTypes = 0;
+
+    /**
+     * Number of messages seen
+     */
+    private final AtomicLong messageCount = new AtomicLong();
+    /**
+     * Number of messages the prefilter let through to a pattern
+     */
+    private final AtomicLong prefilterHitCount = new AtomicLong();
+    /**
+     * Number of messages classified
+     */
+    private final AtomicLong classifiedCount = new AtomicLong();
+
+    /**
+     * Constructor
+     */
+    public ChatPipeline() {
+        for(ChatType type : ChatType.values()) {
+            handlers.put(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Build the prefilter from every type's literals
+     * @return The prefilter
+     */
+    private static AhoCorasick buildPrefilter() {
+        final Map<String, Integer> literals = new HashMap<>();
+        for(ChatType type : ChatType.values()) {
+            for(String literal : type.literals) {
+                literals.put(literal, type.ordinal());
+            }
+        }
+        return new AhoCorasick(literals);
+    }
+
+    /**
+     * Subscribe a handler to a type of chat message
+     * @param type Type of message to handle
+     * @param handler Handler called with every message of that type, on the client thread
+     * @return Handle used to unsubscribe the handler
+     */
+    public synchronized EventRouter.Subscription subscribe(ChatType type, Consumer<ClassifiedChat> handler) {
+        handlers.get(type).add(handler);
+        updateSubscribedTypes();
+        return () -> unsubscribe(type, handler);
+    }
+
+    /**
+     * Remove a handler subscribed with {@link #subscribe(ChatType, Consumer)}
+     * @param type Type the handler was subscribed to
+     * @param handler Handler to remove
+     */
+    private synchronized void unsubscribe(ChatType type, Consumer<ClassifiedChat> handler) {
+        handlers.get(type).remove(handler);
+        updateSubscribedTypes();
+    }
+
+    /**
+     * Get the number of handlers subscribed to a type of chat message
+     * @param type Type of message
+     * @return Number of handlers
+     */
+    public int handlerCount(ChatType type) {
+        return handlers.get(type).size();
+    }
+
+    /**
+     * Recalculate {@link #subscribedTypes}
+     */
+    private void updateSubscribedTypes() {
+        long mask = 0;
+        for(Map.Entry<ChatType, List<Consumer<ClassifiedChat>>> entry : handlers.entrySet()) {
+            if(!entry.getValue().isEmpty()) {
+                mask |= 1L << entry.getKey().ordinal();
+            }
+        }
+        subscribedTypes = mask;
+    }
+
+    /**
+     * Called for every incoming chat message
+     * @param event Event data
+     */
+    public void onChat(ClientChatReceivedEvent event) {
+        messageCount.incrementAndGet();
+        final long subscribed = subscribedTypes;
+        if(subscribed == 0 || event.message == null) {
+            return;
+        }
+
+        final String text = event.message.getUnformattedText();
+        long candidates = prefilter.match(text) & subscribed;
+        if(candidates == 0) {
+            return;
+        }
+        prefilterHitCount.incrementAndGet();
+
+        final ChatType[] types = ChatType.values();
+        while(candidates != 0 && !event.isCanceled()) {
+            final ChatType type = types[Long.numberOfTrailingZeros(candidates)];
+            candidates &= candidates - 1;
+
+            final Matcher matcher = type.pattern.matcher(text);
+            if(matcher.find()) {
+                classifiedCount.incrementAndGet();
+                dispatch(new ClassifiedChat(event, text, type, matcher.toMatchResult()));
+            }
+        }
+    }
+
+    /**
+     * Call every handler subscribed to a message's type, stopping if the event is cancelled
+     * @param chat Classified message
+     */
+    private void dispatch(ClassifiedChat chat) {
+        for(Consumer<ClassifiedChat> handler : handlers.get(chat.type)) {
+            if(chat.event.isCanceled()) {
+                return;
+            }
+            try {
+                handler.accept(chat);
+            } catch(Exception e) {
+                e.printStackTrace();
+                Quickplay.INSTANCE.sendExceptionRequest(e);
+            }
+        }
+    }
+
+    /**
+     * Getter for {@link #messageCount}
+     * @return {@link #messageCount}
+     */
+    public long getMessageCount() {
+        return messageCount.get();
+    }
+
+    /**
+     * Getter for {@link #prefilterHitCount}
+     * @return {@link #prefilterHitCount}
+     */
+    public long getPrefilterHitCount() {
+        return prefilterHitCount.get();
+    }
+
+    /**
+     * Getter for {@link #classifiedCount}
+     * @return {@link #classifiedCount}
+     */
+    public long getClassifiedCount() {
+        return classifiedCount.get();
+    }
+}
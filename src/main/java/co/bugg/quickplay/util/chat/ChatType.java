@@ -0,0 +1,60 @@
+package co.bugg.quickplay.util.chat;
+
+import java.util.regex.Pattern;
+
+/**
+ * Kinds of chat message Quickplay reacts to. Each has literals, at least one of which must occur in a message
+ * for it to possibly be of this kind, and a precompiled pattern which is only run on messages containing one.
+ */
+public enum ChatType {
+    /**
+     * Daily reward link, in any of the languages Hypixel sends it in.
+     * Group 1 is the reward's security token.
+     */
+    DAILY_REWARD(Pattern.compile("^\\n(?:Click the link to visit our website and claim your reward|" +
+            "Klicke den Link, um unsere Webseite zu besuchen und deine Belohnung abzuholen|" +
+            "Cliquez sur le lien pour visiter notre site et réclamer votre récompense|" +
+            "Klik de link om onze website te bezoeken, en je beloning te verkrijgen|" +
+            "Haz click en el link para visitar nuestra web y recoger tu recompensa|" +
+            "点击链接访问我们的网站并领取奖励|" +
+            "Нажмите на ссылку, чтобы перейти на наш сайт и забрать свою награду|" +
+            "저희의 웹사이트에 방문하고 보상을 수령하려면 링크를 클릭하세요)" +
+            ": (?:https?://rewards\\.hypixel\\.net/claim-reward/([a-zA-Z0-9]{0,12}))\\n$"),
+            "rewards.hypixel.net/claim-reward/"),
+    /**
+     * Response to <code>/whereami</code>, e.g. "You are currently connected to server lobby5".
+     * Group 1 is the server.
+     */
+    WHEREAMI(Pattern.compile("^You are currently (?:(?:in |connected to server )" +
+            "(limbo|(?:(?:[A-Za-z]+)?lobby(?:\\d{1,3})|(?:mega|mini)\\d{1,3}[A-Z])))$"),
+            "You are currently "),
+    /**
+     * Sent by Hypixel just before moving the client to another server, e.g. "Sending you to mini104R!".
+     * Group 1 is the server.
+     */
+    SENDING_TO(Pattern.compile("^Sending you to ([A-Za-z0-9]+)!?$"), "Sending you to "),
+    /**
+     * Sent by Hypixel when a game ends, either the reward summary or the prompt to play again
+     */
+    GAME_END(Pattern.compile("^\\s*(?:Reward Summary|Want to play again\\? Click here!|Click here to play again!?)\\s*$",
+            Pattern.MULTILINE), "Reward Summary", "play again");
+
+    /**
+     * Pattern a message of this type matches
+     */
+    public final Pattern pattern;
+    /**
+     * Literals, one of which every message of this type contains
+     */
+    public final String[] literals;
+
+    /**
+     * Constructor
+     * @param pattern Pattern a message of this type matches
+     * @param literals Literals, one of which every message of this type contains
+     */
+    ChatType(Pattern pattern, String... literals) {
+        this.pattern = pattern;
+        this.literals = literals;
+    }
+}
@@ -0,0 +1,50 @@
+package co.bugg.quickplay.util.chat;
+
+import net.minecraftforge.client.event.ClientChatReceivedEvent;
+
+import java.util.regex.MatchResult;
+
+/**
+ * A chat message which has been recognised as a {@link ChatType}
+ */
+public class ClassifiedChat {
+    /**
+     * The chat event, which handlers may cancel
+     */
+    public final ClientChatReceivedEvent event;
+    /**
+     * Unformatted text of the message
+     */
+    public final String text;
+    /**
+     * Type of the message
+     */
+    public final ChatType type;
+    /**
+     * Result of matching {@link ChatType#pattern} against {@link #text}
+     */
+    public final MatchResult match;
+
+    /**
+     * Constructor
+     * @param event The chat event
+     * @param text Unformatted text of the message
+     * @param type Type of the message
+     * @param match Result of matching the type's pattern
+     */
+    public ClassifiedChat(ClientChatReceivedEvent event, String text, ChatType type, MatchResult match) {
+        this.event = event;
+        this.text = text;
+        this.type = type;
+        this.match = match;
+    }
+
+    /**
+     * Get a group captured by the type's pattern
+     * @param group Index of the group
+     * @return Captured text, or null if the group didn't participate in the match
+     */
+    public String group(int group) {
+        return match.group(group);
+    }
+}
@@ -0,0 +1,74 @@
+package co.bugg.quickplay.util.concurrent;
+
+/**
+ * Snapshot of an {@link InstrumentedExecutor}'s metrics at a point in time
+ */
+public class ExecutorMetrics {
+    /**
+     * Name of the executor
+     */
+    public final String name;
+    /**
+     * Number of live threads
+     */
+    public final int poolSize;
+    /**
+     * Number of threads currently running a task
+     */
+    public final int active;
+    /**
+     * Number of tasks waiting in the queue
+     */
+    public final int queued;
+    /**
+     * Total number of tasks completed
+     */
+    public final long completed;
+    /**
+     * Total number of tasks rejected because the executor was saturated
+     */
+    public final long rejected;
+    /**
+     * Total number of tasks skipped because an identical keyed task was already queued
+     */
+    public final long coalesced;
+    /**
+     * Median time in milliseconds from submission to completion, over recent tasks
+     */
+    public final double p50LatencyMillis;
+    /**
+     * 99th percentile time in milliseconds from submission to completion, over recent tasks
+     */
+    public final double p99LatencyMillis;
+
+    /**
+     * Constructor
+     * @param name Name of the executor
+     * @param poolSize Number of live threads
+     * @param active Number of threads currently running a task
+     * @param queued Number of tasks waiting in the queue
+     * @param completed Total number of tasks completed
+     * @param rejected Total number of tasks rejected
+     * @param coalesced Total number of tasks coalesced
+     * @param p50LatencyMillis Median latency in milliseconds
+     * @param p99LatencyMillis 99th percentile latency in milliseconds
+     */
+    public ExecutorMetrics(String name, int poolSize, int active, int queued, long completed, long rejected,
+                           long coalesced, double p50LatencyMillis, double p99LatencyMillis) {
+        this.name = name;
+        this.poolSize = poolSize;
+        this.active = active;
+        this.queued = queued;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.coalesced = coalesced;
+        this.p50LatencyMillis = p50LatencyMillis;
+        this.p99LatencyMillis = p99LatencyMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: threads=%d active=%d queued=%d completed=%d rejected=%d coalesced=%d p50=%.1fms p99=%.1fms",
+                name, poolSize, active, queued, completed, rejected, coalesced, p50LatencyMillis, p99LatencyMillis);
+    }
+}
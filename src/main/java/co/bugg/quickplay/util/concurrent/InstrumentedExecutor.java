@@ -0,0 +1,368 @@
+package co.bugg.quickplay.util.concurrent;
+
+import co.bugg.quickplay.Quickplay;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, named thread pool which keeps track of its own metrics.
+ *
+ * Threads are created on demand up to a fixed limit and time out when idle, so an unused pool costs no threads.
+ * Once every thread is busy tasks are queued, and once the queue is full the pool's {@link SaturationPolicy}
+ * decides what happens to new tasks. Exceptions thrown by tasks (including ones submitted through
+ * {@link #submit(Runnable)}) are passed to {@link #exceptionHandler} instead of disappearing.
+ */
+public class InstrumentedExecutor extends ThreadPoolExecutor {
+
+    /**
+     * How long in seconds an idle thread is kept alive for
+     */
+    public static final long keepAliveSeconds = 30;
+    /**
+     * Number of recent task latencies kept for calculating percentiles
+     */
+    public static final int latencySamples = 1024;
+
+    /**
+     * Name of this pool, also used to name its threads
+     */
+    public final String name;
+    /**
+     * What happens to new tasks when this pool is saturated
+     */
+    public final SaturationPolicy policy;
+    /**
+     * Called with any exception thrown by a task
+     * By default, exceptions are printed and reported to the Quickplay backend
+     */
+    public volatile Consumer<Throwable> exceptionHandler = InstrumentedExecutor::reportException;
+
+    /**
+     * Number of tasks rejected due to saturation
+     */
+    private final AtomicLong rejectedCount = new AtomicLong();
+    /**
+     * Number of keyed tasks skipped because one with the same key was already queued
+     */
+    private final AtomicLong coalescedCount = new AtomicLong();
+    /**
+     * Keys of coalesced tasks that are queued but haven't started yet
+     */
+    private final Map<String, Boolean> pendingKeys = new ConcurrentHashMap<>();
+    /**
+     * Ring buffer of recent task latencies in nanoseconds
+     */
+    private final long[] latencies = new long[latencySamples];
+    /**
+     * Total number of latencies ever recorded, used as the ring buffer's write index
+     */
+    private long latencyCount = 0;
+
+    /**
+     * Constructor
+     * @param name Name of this pool, used to name its threads
+     * @param threads Maximum number of threads
+     * @param queueCapacity Maximum number of tasks that can be waiting for a thread
+     * @param policy What happens to new tasks when all threads are busy and the queue is full
+     */
+    public InstrumentedExecutor(String name, int threads, int queueCapacity, SaturationPolicy policy) {
+        super(threads, threads, keepAliveSeconds, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new NamedThreadFactory(name));
+        this.name = name;
+        this.policy = policy;
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler(this::saturated);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedTask(command, null, null));
+    }
+
+    /**
+     * Execute a task, and be told if this pool drops it because it's saturated, so the caller can make up for
+     * the lost run instead of waiting on it forever
+     * @param command Task to run
+     * @param onDrop Called instead of the task if it's dropped, on the thread that caused the drop
+     */
+    public void execute(Runnable command, Runnable onDrop) {
+        super.execute(new TimedTask(command, null, onDrop));
+    }
+
+    /**
+     * Get a view of this pool which runs tasks on the submitting thread rather than dropping them when saturated.
+     * For work something waits on, e.g. a {@link CompletableFuture} stage, which would never complete if dropped.
+     * @return Executor which never drops tasks
+     */
+    public Executor neverDropping() {
+        return command -> execute(command, command);
+    }
+
+    /**
+     * Execute a task unless a task with the same key is already waiting in the queue.
+     * Useful for refreshes, where running the same work twice in a row gains nothing.
+     * @param key Key identifying the work
+     * @param command Task to run
+     */
+    public void executeCoalesced(String key, Runnable command) {
+        if(pendingKeys.putIfAbsent(key, Boolean.TRUE) != null) {
+            coalescedCount.incrementAndGet();
+            return;
+        }
+        super.execute(new TimedTask(command, key, null));
+    }
+
+    /**
+     * Called when a task can't be queued because this pool is saturated
+     * @param task Task that was rejected
+     * @param executor This executor
+     */
+    private void saturated(Runnable task, ThreadPoolExecutor executor) {
+        if(executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor " + name + " has been shut down");
+        }
+        rejectedCount.incrementAndGet();
+
+        switch(policy) {
+            case CALLER_RUNS:
+                runOnCaller(task);
+                break;
+            case COALESCE:
+                final Runnable oldest = getQueue().poll();
+                if(oldest instanceof TimedTask) {
+                    ((TimedTask) oldest).drop();
+                }
+                // Straight into the queue, as executing again could be rejected again and recurse
+                if(!getQueue().offer(task) && task instanceof TimedTask) {
+                    ((TimedTask) task).drop();
+                }
+                break;
+            case DROP:
+            default:
+                if(task instanceof TimedTask) {
+                    ((TimedTask) task).drop();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Run a rejected task on the submitting thread, recording its latency and handling its exceptions like a task
+     * run by the pool, so they don't propagate into the submitter, e.g. the client thread
+     * @param task Task to run
+     */
+    private void runOnCaller(Runnable task) {
+        Throwable thrown = null;
+        try {
+            task.run();
+        } catch(Throwable t) {
+            thrown = t;
+        }
+        finished(task, thrown);
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable throwable) {
+        super.afterExecute(runnable, throwable);
+        finished(runnable, throwable);
+    }
+
+    /**
+     * Record a finished task's latency and pass any exception it threw to {@link #exceptionHandler}
+     * @param runnable Task that finished
+     * @param throwable Exception the task threw, or null
+     */
+    private void finished(Runnable runnable, Throwable throwable) {
+        Runnable task = runnable;
+        if(runnable instanceof TimedTask) {
+            recordLatency(System.nanoTime() - ((TimedTask) runnable).submittedAt);
+            task = ((TimedTask) runnable).delegate;
+        }
+
+        // Exceptions in tasks submitted through submit() are captured by their Future
+        if(throwable == null && task instanceof Future<?> && ((Future<?>) task).isDone()) {
+            try {
+                ((Future<?>) task).get();
+            } catch(CancellationException ignored) {
+                // Cancelled on purpose
+            } catch(ExecutionException e) {
+                throwable = e.getCause();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if(throwable != null && exceptionHandler != null) {
+            try {
+                exceptionHandler.accept(throwable);
+            } catch(Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Record how long a task took from submission to completion
+     * @param nanos Latency in nanoseconds
+     */
+    private synchronized void recordLatency(long nanos) {
+        latencies[(int) (latencyCount++ % latencySamples)] = nanos;
+    }
+
+    /**
+     * Get a latency percentile over recent tasks
+     * @param percentile Percentile between 0 and 1, e.g. 0.99
+     * @return Latency in milliseconds, or 0 if no tasks have completed
+     */
+    public double getLatencyPercentile(double percentile) {
+        final long[] samples;
+        synchronized(this) {
+            samples = Arrays.copyOf(latencies, (int) Math.min(latencyCount, latencySamples));
+        }
+        if(samples.length == 0) {
+            return 0;
+        }
+        Arrays.sort(samples);
+        final int index = (int) Math.min(samples.length - 1, Math.ceil(percentile * samples.length) - 1);
+        return samples[Math.max(index, 0)] / 1000000.0;
+    }
+
+    /**
+     * Getter for {@link #rejectedCount}
+     * @return {@link #rejectedCount}
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Getter for {@link #coalescedCount}
+     * @return {@link #coalescedCount}
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Take a snapshot of this pool's current metrics
+     * @return Metrics snapshot
+     */
+    public ExecutorMetrics getMetrics() {
+        return new ExecutorMetrics(name, getPoolSize(), getActiveCount(), getQueue().size(), getCompletedTaskCount(),
+                getRejectedCount(), getCoalescedCount(), getLatencyPercentile(0.5), getLatencyPercentile(0.99));
+    }
+
+    /**
+     * Default {@link #exceptionHandler}, printing the exception and reporting it to the Quickplay backend
+     * @param throwable Exception thrown by a task
+     */
+    private static void reportException(Throwable throwable) {
+        throwable.printStackTrace();
+        if(throwable instanceof Exception) {
+            Quickplay.INSTANCE.sendExceptionRequest((Exception) throwable);
+        }
+    }
+
+    /**
+     * Wrapper around a task that remembers when it was submitted
+     */
+    private class TimedTask implements Runnable {
+        /**
+         * Task to run
+         */
+        final Runnable delegate;
+        /**
+         * Coalescing key, or null if this task isn't coalesced
+         */
+        final String key;
+        /**
+         * Called instead of the task if it's dropped, or null
+         */
+        final Runnable onDrop;
+        /**
+         * {@link System#nanoTime()} when this task was submitted
+         */
+        final long submittedAt = System.nanoTime();
+
+        /**
+         * Constructor
+         * @param delegate Task to run
+         * @param key Coalescing key, or null
+         * @param onDrop Called instead of the task if it's dropped, or null
+         */
+        TimedTask(Runnable delegate, String key, Runnable onDrop) {
+            this.delegate = delegate;
+            this.key = key;
+            this.onDrop = onDrop;
+        }
+
+        @Override
+        public void run() {
+            // Once started, new tasks with the same key have to run again
+            discard();
+            delegate.run();
+        }
+
+        /**
+         * Release this task's coalescing key
+         */
+        void discard() {
+            if(key != null) {
+                pendingKeys.remove(key);
+            }
+        }
+
+        /**
+         * Drop this task without running it. The drop callback is called if there is one, otherwise the task's
+         * Future is cancelled if it has one, so nothing waits on it forever.
+         */
+        void drop() {
+            discard();
+            if(onDrop != null) {
+                try {
+                    onDrop.run();
+                } catch(Throwable t) {
+                    if(exceptionHandler != null) {
+                        exceptionHandler.accept(t);
+                    }
+                }
+            } else if(delegate instanceof Future<?>) {
+                ((Future<?>) delegate).cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Thread factory naming threads after their pool
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        /**
+         * Name of the pool
+         */
+        private final String poolName;
+        /**
+         * Number of threads created so far
+         */
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        /**
+         * Constructor
+         * @param poolName Name of the pool
+         */
+        NamedThreadFactory(String poolName) {
+            this.poolName = poolName;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "Quickplay-" + poolName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package co.bugg.quickplay.util.concurrent;
+
+import co.bugg.quickplay.Quickplay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of named periodic and delayed jobs, all timed by a single scheduler thread.
+ *
+ * Jobs don't hold a thread while they wait, so any number of jobs costs one thread at most, and none at all
+ * once every job has finished or been cancelled. Job bodies run on the scheduler thread unless they're given
+ * an executor with {@link Job#executeOn(Executor)}, which anything slow (e.g. web requests) should be.
+ *
+ * Scheduling a job with the same name as an existing job replaces the existing job.
+ */
+public class JobScheduler {
+
+    /**
+     * How long in seconds the scheduler thread is kept alive for after it's run out of jobs
+     */
+    public static final long keepAliveSeconds = 10;
+
+    /**
+     * Executor timing all jobs
+     */
+    private final ScheduledThreadPoolExecutor timer;
+    /**
+     * All jobs that are scheduled or paused, by name
+     */
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     */
+    public JobScheduler() {
+        timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "Quickplay-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setKeepAliveTime(keepAliveSeconds, TimeUnit.SECONDS);
+        timer.allowCoreThreadTimeOut(true);
+        timer.setRemoveOnCancelPolicy(true);
+        timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Create a new job. The job isn't scheduled until {@link Job#start()} is called.
+     * By default jobs run once with no delay, on the scheduler thread, and keep running while the mod is disabled.
+     * @param name Name of the job. Starting the job replaces any existing job with this name.
+     * @param task Task to run
+     * @return The new job
+     */
+    public Job newJob(String name, Runnable task) {
+        return new Job(name, task);
+    }
+
+    /**
+     * Get a job by its name
+     * @param name Name of the job
+     * @return The job, or null if there's no scheduled or paused job with that name
+     */
+    public Job getJob(String name) {
+        return jobs.get(name);
+    }
+
+    /**
+     * Cancel a job by its name, if it exists
+     * @param name Name of the job
+     * @return Whether a job was cancelled
+     */
+    public boolean cancel(String name) {
+        final Job job = jobs.get(name);
+        if(job != null) {
+            job.cancel();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get all scheduled and paused jobs
+     * @return Copy of the list of jobs
+     */
+    public List<Job> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Called when the mod is disabled, pausing or cancelling jobs according to their {@link DisablePolicy}
+     */
+    public void onDisable() {
+        for(Job job : getJobs()) {
+            switch(job.disablePolicy) {
+                case PAUSE:
+                    job.pause();
+                    break;
+                case CANCEL:
+                    job.cancel();
+                    break;
+                case KEEP_RUNNING:
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Called when the mod is enabled, resuming any jobs paused by {@link #onDisable()}
+     */
+    public void onEnable() {
+        for(Job job : getJobs()) {
+            if(job.disablePolicy == DisablePolicy.PAUSE) {
+                job.resume();
+            }
+        }
+    }
+
+    /**
+     * Cancel all jobs and stop the scheduler thread. No new jobs can be scheduled afterwards.
+     */
+    public void shutdown() {
+        for(Job job : getJobs()) {
+            job.cancel();
+        }
+        timer.shutdownNow();
+    }
+
+    /**
+     * Whether a job runs once, or repeats at a fixed rate or with a fixed delay in between runs
+     */
+    public enum Mode {
+        /**
+         * Run once after the initial delay
+         */
+        ONCE,
+        /**
+         * Start a run every period, regardless of how long runs take
+         */
+        FIXED_RATE,
+        /**
+         * Wait for the period in between the end of one run and the start of the next
+         */
+        FIXED_DELAY
+    }
+
+    /**
+     * What happens to a job when the mod is disabled
+     */
+    public enum DisablePolicy {
+        /**
+         * Keep running as normal
+         */
+        KEEP_RUNNING,
+        /**
+         * Stop running until the mod is enabled again
+         */
+        PAUSE,
+        /**
+         * Cancel the job
+         */
+        CANCEL
+    }
+
+    /**
+     * A named job. Configured with its setters, and then scheduled with {@link #start()}.
+     */
+    public class Job {
+        /**
+         * Name of this job
+         */
+        public final String name;
+        /**
+         * Task this job runs
+         */
+        private final Runnable task;
+        /**
+         * Whether this job runs once, at a fixed rate or with a fixed delay
+         */
+        private Mode mode = Mode.ONCE;
+        /**
+         * Nanoseconds before the first run
+         */
+        private long initialDelayNanos = 0;
+        /**
+         * Nanoseconds in between runs
+         */
+        private long periodNanos = 0;
+        /**
+         * Fraction by which each delay is randomly lengthened or shortened, between 0 and 1.
+         * Spreads out jobs which would otherwise all run at the same moment, e.g. on many clients at once.
+         */
+        private double jitter = 0;
+        /**
+         * What happens to this job when the mod is disabled
+         */
+        private DisablePolicy disablePolicy = DisablePolicy.KEEP_RUNNING;
+        /**
+         * Executor the task runs on, or null to run it on the scheduler thread
+         */
+        private Executor executor = null;
+
+        /**
+         * Future for the next run, or null if no run is scheduled
+         */
+        private ScheduledFuture<?> next;
+        /**
+         * {@link System#nanoTime()} that the next fixed rate run is planned for, before jitter
+         */
+        private long plannedNanos;
+        /**
+         * Whether this job has been started
+         */
+        private volatile boolean started = false;
+        /**
+         * Whether this job is paused
+         */
+        private volatile boolean paused = false;
+        /**
+         * Whether this job has been cancelled or has finished
+         */
+        private volatile boolean done = false;
+        /**
+         * Whether a run of a once or fixed delay job is in progress, in which case that run schedules whatever
+         * comes next rather than {@link #resume()}. Guarded by this job's lock.
+         */
+        private boolean running = false;
+        /**
+         * Number of times this job's task has run
+         */
+        private final AtomicLong runCount = new AtomicLong();
+        /**
+         * How long in nanoseconds the last run took
+         */
+        private volatile long lastRunNanos = 0;
+
+        /**
+         * Constructor
+         * @param name Name of this job
+         * @param task Task this job runs
+         */
+        private Job(String name, Runnable task) {
+            this.name = name;
+            this.task = task;
+        }
+
+        /**
+         * Run this job once after a delay
+         * @param delay Delay before running
+         * @param unit Unit of delay
+         * @return this
+         */
+        public Job once(long delay, TimeUnit unit) {
+            this.mode = Mode.ONCE;
+            this.initialDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        /**
+         * Start a run of this job every period, with the first run one period from now
+         * @param period Time in between the start of each run
+         * @param unit Unit of period
+         * @return this
+         */
+        public Job fixedRate(long period, TimeUnit unit) {
+            this.mode = Mode.FIXED_RATE;
+            this.periodNanos = unit.toNanos(period);
+            this.initialDelayNanos = this.periodNanos;
+            return this;
+        }
+
+        /**
+         * Run this job repeatedly, waiting for a period in between the end of each run and the start of the next.
+         * The first run is one period from now.
+         * @param period Time in between runs
+         * @param unit Unit of period
+         * @return this
+         */
+        public Job fixedDelay(long period, TimeUnit unit) {
+            this.mode = Mode.FIXED_DELAY;
+            this.periodNanos = unit.toNanos(period);
+            this.initialDelayNanos = this.periodNanos;
+            return this;
+        }
+
+        /**
+         * Set the delay before the first run. Must be called after setting the mode.
+         * @param delay Delay before the first run
+         * @param unit Unit of delay
+         * @return this
+         */
+        public Job initialDelay(long delay, TimeUnit unit) {
+            this.initialDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        /**
+         * Setter for {@link #jitter}
+         * @param jitter Fraction between 0 and 1
+         * @return this
+         */
+        public Job jitter(double jitter) {
+            this.jitter = Math.max(0, Math.min(1, jitter));
+            return this;
+        }
+
+        /**
+         * Setter for {@link #disablePolicy}
+         * @param disablePolicy What happens to this job when the mod is disabled
+         * @return this
+         */
+        public Job onDisable(DisablePolicy disablePolicy) {
+            this.disablePolicy = disablePolicy;
+            return this;
+        }
+
+        /**
+         * Setter for {@link #executor}
+         * @param executor Executor to run the task on, or null to run it on the scheduler thread
+         * @return this
+         */
+        public Job executeOn(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Schedule this job, replacing any existing job with the same name
+         * @return this
+         */
+        public Job start() {
+            if(started) {
+                throw new IllegalStateException("Job " + name + " has already been started");
+            }
+            started = true;
+
+            final Job previous = jobs.put(name, this);
+            if(previous != null && previous != this) {
+                previous.cancel();
+            }
+
+            synchronized(this) {
+                plannedNanos = System.nanoTime() + initialDelayNanos;
+                scheduleNext(initialDelayNanos);
+            }
+            return this;
+        }
+
+        /**
+         * Stop this job from running until {@link #resume()} is called
+         */
+        public synchronized void pause() {
+            if(done || paused) {
+                return;
+            }
+            paused = true;
+            if(next != null) {
+                next.cancel(false);
+                next = null;
+            }
+        }
+
+        /**
+         * Resume this job after it's been paused. The next run is one period from now,
+         * or the initial delay from now if the job hasn't run yet. If a run is still in progress,
+         * it schedules the next run once it finishes instead.
+         */
+        public synchronized void resume() {
+            if(done || !paused) {
+                return;
+            }
+            paused = false;
+            if(running) {
+                return;
+            }
+            final long delay = runCount.get() == 0 || mode == Mode.ONCE ? initialDelayNanos : periodNanos;
+            plannedNanos = System.nanoTime() + delay;
+            scheduleNext(delay);
+        }
+
+        /**
+         * Cancel this job. Runs that are already in progress are allowed to finish.
+         */
+        public void cancel() {
+            synchronized(this) {
+                done = true;
+                if(next != null) {
+                    next.cancel(false);
+                    next = null;
+                }
+            }
+            jobs.remove(name, this);
+        }
+
+        /**
+         * Schedule the next run of this job
+         * @param delayNanos Delay before the next run, before jitter
+         */
+        private synchronized void scheduleNext(long delayNanos) {
+            if(done || paused) {
+                return;
+            }
+            long delay = delayNanos;
+            if(jitter > 0 && delay > 0) {
+                delay += (long) (delay * jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+            }
+            try {
+                next = timer.schedule(this::fire, Math.max(0, delay), TimeUnit.NANOSECONDS);
+            } catch(RejectedExecutionException e) {
+                // The scheduler has been shut down
+                done = true;
+                jobs.remove(name, this);
+            }
+        }
+
+        /**
+         * Called on the scheduler thread when this job is due
+         */
+        private void fire() {
+            synchronized(this) {
+                if(done || paused) {
+                    return;
+                }
+                next = null;
+                // Fixed rate runs are planned relative to the last plan rather than when the run actually happens,
+                // so that the rate doesn't drift
+                if(mode == Mode.FIXED_RATE) {
+                    plannedNanos += periodNanos;
+                    scheduleNext(plannedNanos - System.nanoTime());
+                } else {
+                    running = true;
+                }
+            }
+
+            if(executor == null) {
+                runTask();
+            } else {
+                try {
+                    if(executor instanceof InstrumentedExecutor) {
+                        // Saturated pools can drop the run without throwing, which still has to count as a run
+                        ((InstrumentedExecutor) executor).execute(this::runTask, this::afterRun);
+                    } else {
+                        executor.execute(this::runTask);
+                    }
+                } catch(RejectedExecutionException e) {
+                    // The executor is saturated or shut down; skip this run
+                    afterRun();
+                }
+            }
+        }
+
+        /**
+         * Run this job's task and then schedule the next run if necessary
+         */
+        private void runTask() {
+            final long startedAt = System.nanoTime();
+            try {
+                task.run();
+            } catch(Exception e) {
+                e.printStackTrace();
+                Quickplay.INSTANCE.sendExceptionRequest(e);
+            } finally {
+                lastRunNanos = System.nanoTime() - startedAt;
+                runCount.incrementAndGet();
+                afterRun();
+            }
+        }
+
+        /**
+         * Called after each run (or skipped run) to schedule the next run or finish this job
+         */
+        private void afterRun() {
+            if(mode == Mode.ONCE) {
+                synchronized(this) {
+                    running = false;
+                    done = true;
+                }
+                jobs.remove(name, this);
+            } else if(mode == Mode.FIXED_DELAY) {
+                synchronized(this) {
+                    running = false;
+                    // Does nothing if paused, resume() schedules the next run instead
+                    scheduleNext(periodNanos);
+                }
+            }
+        }
+
+        /**
+         * Whether this job has been cancelled or has finished
+         * @return {@link #done}
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Getter for {@link #paused}
+         * @return {@link #paused}
+         */
+        public boolean isPaused() {
+            return paused;
+        }
+
+        /**
+         * Getter for {@link #runCount}
+         * @return {@link #runCount}
+         */
+        public long getRunCount() {
+            return runCount.get();
+        }
+
+        /**
+         * Getter for {@link #lastRunNanos}
+         * @return {@link #lastRunNanos}
+         */
+        public long getLastRunNanos() {
+            return lastRunNanos;
+        }
+
+        /**
+         * Getter for {@link #mode}
+         * @return {@link #mode}
+         */
+        public Mode getMode() {
+            return mode;
+        }
+
+        /**
+         * Getter for {@link #disablePolicy}
+         * @return {@link #disablePolicy}
+         */
+        public DisablePolicy getDisablePolicy() {
+            return disablePolicy;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: mode=%s runs=%d last=%.1fms%s", name, mode, getRunCount(),
+                    lastRunNanos / 1000000.0, paused ? " (paused)" : done ? " (done)" : "");
+        }
+    }
+}
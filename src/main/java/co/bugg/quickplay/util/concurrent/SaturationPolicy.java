@@ -0,0 +1,22 @@
+package co.bugg.quickplay.util.concurrent;
+
+/**
+ * What an {@link InstrumentedExecutor} does with a new task when all of its threads are busy and its queue is full
+ */
+public enum SaturationPolicy {
+    /**
+     * Discard the new task. Used for work that's fine to lose, e.g. analytics.
+     */
+    DROP,
+    /**
+     * Discard the oldest queued task to make room for the new one, so the newest work always wins.
+     * Combined with {@link InstrumentedExecutor#executeCoalesced(String, Runnable)} for work that only
+     * the latest request matters for.
+     */
+    COALESCE,
+    /**
+     * Run the new task on the thread that submitted it. Used for work that must not be lost, at the cost of
+     * slowing down the submitter.
+     */
+    CALLER_RUNS
+}
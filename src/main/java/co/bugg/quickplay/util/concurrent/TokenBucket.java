@@ -0,0 +1,89 @@
+package co.bugg.quickplay.util.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter. The bucket holds up to {@link #capacity} tokens and gains one every
+ * {@link #refillNanos}; each action takes a token, so bursts of up to {@link #capacity} actions are allowed
+ * while the sustained rate can't exceed one per refill period.
+ */
+public class TokenBucket {
+
+    /**
+     * Maximum number of tokens the bucket can hold
+     */
+    private final int capacity;
+    /**
+     * Nanoseconds it takes to gain one token
+     */
+    private final long refillNanos;
+    /**
+     * Number of tokens currently in the bucket, as of {@link #lastRefillNanos}
+     */
+    private double tokens;
+    /**
+     * {@link System#nanoTime()} when {@link #tokens} was last brought up to date
+     */
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * Constructor. The bucket starts full.
+     * @param capacity Maximum number of tokens the bucket can hold
+     * @param refillPeriod Time it takes to gain one token
+     * @param unit Unit of refillPeriod
+     */
+    public TokenBucket(int capacity, long refillPeriod, TimeUnit unit) {
+        if(capacity <= 0 || refillPeriod <= 0) {
+            throw new IllegalArgumentException("Capacity and refill period must be positive");
+        }
+        this.capacity = capacity;
+        this.refillNanos = unit.toNanos(refillPeriod);
+        this.tokens = capacity;
+    }
+
+    /**
+     * Take a token, if more than <code>reserve</code> tokens are available
+     * @param reserve Number of tokens which must be left for other callers, e.g. to keep some for more important actions
+     * @return Whether a token was taken
+     */
+    public synchronized boolean tryAcquire(int reserve) {
+        refill();
+        if(tokens >= reserve + 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the time until {@link #tryAcquire(int)} would succeed
+     * @param reserve Number of tokens which must be left, as passed to {@link #tryAcquire(int)}
+     * @return Milliseconds until a token is available, 0 if one is available now
+     */
+    public synchronized long millisUntilAvailable(int reserve) {
+        refill();
+        final double missing = reserve + 1 - tokens;
+        if(missing <= 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis((long) Math.ceil(missing * refillNanos)) + 1;
+    }
+
+    /**
+     * Get the number of whole tokens currently available
+     * @return Number of tokens
+     */
+    public synchronized int available() {
+        refill();
+        return (int) tokens;
+    }
+
+    /**
+     * Add the tokens gained since the last refill
+     */
+    private void refill() {
+        final long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / (double) refillNanos);
+        lastRefillNanos = now;
+    }
+}
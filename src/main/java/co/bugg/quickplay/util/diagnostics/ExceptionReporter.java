@@ -0,0 +1,299 @@
+package co.bugg.quickplay.util.diagnostics;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.http.response.ResponseAction;
+import co.bugg.quickplay.http.response.WebResponse;
+import co.bugg.quickplay.util.concurrent.JobScheduler;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reports exceptions to the Quickplay backend and Google Analytics without blocking the thread they happened on.
+ *
+ * Exceptions are grouped by a fingerprint made of their class and topmost stack frames. The first occurrence of a
+ * fingerprint is uploaded straight away on {@link Quickplay#networkPool}; repeats are only counted, and the count
+ * is uploaded once per {@link #windowSeconds}. Uploads are limited to {@link #maxUploadsPerWindow} per window, so
+ * an exception thrown every frame costs a map lookup rather than an upload storm.
+ */
+public class ExceptionReporter {
+
+    /**
+     * Name of the job flushing repeated exceptions
+     */
+    public static final String jobName = "exception-reporter";
+    /**
+     * Length of the aggregation window in seconds
+     */
+    public static final long windowSeconds = 60;
+    /**
+     * Maximum number of uploads per window
+     */
+    public static final int maxUploadsPerWindow = 10;
+    /**
+     * Maximum number of distinct fingerprints tracked. Exceptions with new fingerprints are dropped past this.
+     */
+    public static final int maxFingerprints = 64;
+    /**
+     * Number of stack frames making up a fingerprint
+     */
+    public static final int fingerprintFrames = 5;
+    /**
+     * Maximum number of frames written per exception in a compact stack trace
+     */
+    public static final int maxCompactFrames = 30;
+
+    /**
+     * Exceptions seen, by fingerprint
+     */
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+    /**
+     * Uploads left in the current window
+     */
+    private final AtomicInteger uploadsLeft = new AtomicInteger(maxUploadsPerWindow);
+    /**
+     * Number of exceptions dropped because too many fingerprints were being tracked
+     */
+    private final AtomicInteger droppedCount = new AtomicInteger();
+    /**
+     * Job flushing repeated exceptions, started on the first report
+     */
+    private volatile JobScheduler.Job flushJob;
+
+    /**
+     * Report an exception. Returns immediately, the upload (if any) happens on {@link Quickplay#networkPool}.
+     * @param e Exception that occurred
+     */
+    public void report(Throwable e) {
+        if(!isReporting()) {
+            return;
+        }
+
+        final String fingerprint = fingerprint(e);
+        Aggregate aggregate = aggregates.get(fingerprint);
+        if(aggregate == null) {
+            if(aggregates.size() >= maxFingerprints) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+            aggregate = aggregates.computeIfAbsent(fingerprint, key -> new Aggregate(key, e));
+        }
+        aggregate.lastSeenMillis = System.currentTimeMillis();
+        aggregate.total.incrementAndGet();
+
+        // Only the first occurrence is uploaded straight away, repeats wait for the flush
+        if(aggregate.pending.getAndIncrement() == 0 && aggregate.uploads.get() == 0) {
+            tryUpload(aggregate);
+        }
+        ensureFlushJob();
+    }
+
+    /**
+     * Whether the user has allowed exceptions to be reported
+     * @return Whether reports are uploaded
+     */
+    private boolean isReporting() {
+        return Quickplay.INSTANCE.usageStats != null && Quickplay.INSTANCE.usageStats.sendUsageStats;
+    }
+
+    /**
+     * Start the flush job if it isn't running. Synchronized with the flush job stopping itself, so an exception
+     * reported while it stops always restarts it.
+     */
+    private synchronized void ensureFlushJob() {
+        if(flushJob == null || flushJob.isDone()) {
+            flushJob = Quickplay.INSTANCE.jobScheduler.newJob(jobName, this::flush)
+                    .fixedDelay(windowSeconds, TimeUnit.SECONDS)
+                    .onDisable(JobScheduler.DisablePolicy.KEEP_RUNNING)
+                    .start();
+        }
+    }
+
+    /**
+     * Start a new window: upload counts of repeated exceptions and forget fingerprints that have gone quiet.
+     * Once every fingerprint has been forgotten the job stops, until {@link #report(Throwable)} starts it again.
+     */
+    private void flush() {
+        uploadsLeft.set(maxUploadsPerWindow);
+
+        final long staleBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(windowSeconds * 10);
+        for(Iterator<Aggregate> iter = aggregates.values().iterator(); iter.hasNext();) {
+            final Aggregate aggregate = iter.next();
+            if(aggregate.pending.get() > 0) {
+                tryUpload(aggregate);
+            } else if(aggregate.lastSeenMillis < staleBefore) {
+                iter.remove();
+            }
+        }
+
+        final int dropped = droppedCount.getAndSet(0);
+        if(dropped > 0) {
+            System.out.println("Dropped " + dropped + " exception reports, too many distinct exceptions");
+        }
+
+        synchronized(this) {
+            if(aggregates.isEmpty() && flushJob != null) {
+                flushJob.cancel();
+                flushJob = null;
+            }
+        }
+    }
+
+    /**
+     * Upload an aggregate's pending occurrences, if there are uploads left in this window
+     * @param aggregate Aggregate to upload
+     */
+    private void tryUpload(Aggregate aggregate) {
+        if(uploadsLeft.getAndDecrement() <= 0) {
+            uploadsLeft.incrementAndGet();
+            return;
+        }
+        final int occurrences = aggregate.pending.getAndSet(0);
+        if(occurrences <= 0) {
+            uploadsLeft.incrementAndGet();
+            return;
+        }
+        aggregate.uploads.incrementAndGet();
+        Quickplay.INSTANCE.networkPool.execute(() -> upload(aggregate, occurrences));
+    }
+
+    /**
+     * Send an exception to the web server and Google Analytics. Blocks, so only called on the network pool.
+     * @param aggregate Aggregate to send
+     * @param occurrences Number of times the exception happened since it was last sent
+     */
+    private void upload(Aggregate aggregate, int occurrences) {
+        if(!isReporting() || Quickplay.INSTANCE.requestFactory == null) {
+            return;
+        }
+        final WebResponse response = Quickplay.INSTANCE.requestFactory
+                .newExceptionRequest(aggregate.sample, aggregate.fingerprint, occurrences).execute();
+        if(response != null) {
+            for (ResponseAction action : response.actions)
+                action.run();
+        }
+        if(Quickplay.INSTANCE.ga != null) {
+            try {
+                Quickplay.INSTANCE.ga.createException().setExceptionDescription(aggregate.sample.getMessage()).send();
+            } catch (IOException e) {
+                // Not reported, as that could loop forever
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Get the number of distinct exceptions currently tracked
+     * @return Number of fingerprints
+     */
+    public int getFingerprintCount() {
+        return aggregates.size();
+    }
+
+    /**
+     * Get the fingerprint of an exception: its class followed by its topmost stack frames
+     * @param e Exception to fingerprint
+     * @return Fingerprint
+     */
+    public static String fingerprint(Throwable e) {
+        final StringBuilder builder = new StringBuilder(e.getClass().getName());
+        final StackTraceElement[] stack = e.getStackTrace();
+        for(int i = 0; i < stack.length && i < fingerprintFrames; i++) {
+            // Line numbers are left out, so fingerprints survive small changes to the code around them
+            builder.append('|').append(stack[i].getClassName()).append('.').append(stack[i].getMethodName());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get a compact version of an exception's stack trace. Runs of a recursing frame are collapsed, frames shared
+     * with the enclosing exception are left out of causes, and at most {@link #maxCompactFrames} are written per
+     * exception.
+     * @param e Exception to get the stack trace of
+     * @return Compact stack trace
+     */
+    public static String compactStackTrace(Throwable e) {
+        final StringBuilder builder = new StringBuilder();
+        final Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        StackTraceElement[] enclosing = new StackTraceElement[0];
+        for(Throwable current = e; current != null && seen.add(current); current = current.getCause()) {
+            if(current != e) {
+                builder.append("Caused by: ");
+            }
+            builder.append(current).append('\n');
+
+            final StackTraceElement[] stack = current.getStackTrace();
+            // Frames at the bottom of the stack which the enclosing exception already has
+            int shared = 0;
+            while(shared < stack.length && shared < enclosing.length &&
+                    stack[stack.length - 1 - shared].equals(enclosing[enclosing.length - 1 - shared])) {
+                shared++;
+            }
+
+            int written = 0;
+            int i = 0;
+            while(i < stack.length - shared && written < maxCompactFrames) {
+                int repeats = 1;
+                while(i + repeats < stack.length - shared && stack[i + repeats].equals(stack[i])) {
+                    repeats++;
+                }
+                builder.append("  at ").append(stack[i]);
+                if(repeats > 1) {
+                    builder.append(" x").append(repeats);
+                }
+                builder.append('\n');
+                written++;
+                i += repeats;
+            }
+            final int omitted = stack.length - i;
+            if(omitted > 0) {
+                builder.append("  ... ").append(omitted).append(" more\n");
+            }
+            enclosing = stack;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Occurrences of exceptions sharing a fingerprint
+     */
+    private static class Aggregate {
+        /**
+         * Fingerprint of the exceptions
+         */
+        final String fingerprint;
+        /**
+         * The first exception seen with this fingerprint, which is the one uploaded
+         */
+        final Throwable sample;
+        /**
+         * Number of occurrences not uploaded yet
+         */
+        final AtomicInteger pending = new AtomicInteger();
+        /**
+         * Number of occurrences in total
+         */
+        final AtomicInteger total = new AtomicInteger();
+        /**
+         * Number of uploads made for this fingerprint
+         */
+        final AtomicInteger uploads = new AtomicInteger();
+        /**
+         * When an exception with this fingerprint last happened
+         */
+        volatile long lastSeenMillis;
+
+        /**
+         * Constructor
+         * @param fingerprint Fingerprint of the exceptions
+         * @param sample The first exception seen
+         */
+        Aggregate(String fingerprint, Throwable sample) {
+            this.fingerprint = fingerprint;
+            this.sample = sample;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package co.bugg.quickplay.util.diagnostics;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.config.AssetFactory;
+import co.bugg.quickplay.util.EventRouter;
+import co.bugg.quickplay.util.concurrent.JobScheduler;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watchdog detecting frames that take too long to render, and finding out whether Quickplay is to blame.
+ *
+ * Every frame is timestamped on the client thread. A {@link JobScheduler} job checks the timestamp periodically,
+ * and if the current frame has been running for longer than the threshold the client thread's stack is sampled.
+ * Once the frame ends, the stall is attributed to Quickplay if most samples contained Quickplay code,
+ * and a report is appended to {@link #reportFile}, which is rotated once it gets too big.
+ */
+public class RenderWatchdog {
+
+    /**
+     * Name of the job checking for stalls
+     */
+    public static final String jobName = "render-watchdog";
+    /**
+     * Package prefix of classes belonging to Quickplay
+     */
+    public static final String quickplayPackage = "co.bugg.quickplay.";
+    /**
+     * Directory reports are written to
+     */
+    public static final String reportDirectory = AssetFactory.diagnosticsDirectory;
+    /**
+     * File the most recent reports are written to
+     */
+    public static final String reportFile = reportDirectory + "stalls.log";
+    /**
+     * Size in bytes at which {@link #reportFile} is rotated
+     */
+    public static final long maxReportSize = 512 * 1024;
+    /**
+     * Number of rotated report files kept, e.g. <code>stalls.1.log</code> to <code>stalls.3.log</code>
+     */
+    public static final int rotatedReports = 3;
+    /**
+     * Maximum number of stack samples taken during a single stall
+     */
+    public static final int maxSamples = 100;
+    /**
+     * Maximum number of stack frames written for each stall
+     */
+    public static final int maxReportedFrames = 40;
+
+    /**
+     * Number of milliseconds a frame has to take to count as a stall
+     */
+    private volatile long thresholdMillis = 100;
+    /**
+     * The client thread, captured on the first frame
+     */
+    private volatile Thread clientThread;
+    /**
+     * {@link System#nanoTime()} when the current frame started, or 0 if no frames have been seen yet
+     */
+    private volatile long frameStartNanos = 0;
+    /**
+     * Number of frames seen so far, used to tell when the stalled frame has ended
+     */
+    private volatile long frameCount = 0;
+    /**
+     * The stall currently being sampled, or null. Only accessed on the scheduler thread.
+     */
+    private Stall currentStall;
+    /**
+     * Subscription to render ticks, while the watchdog is running
+     */
+    private EventRouter.Subscription renderSubscription;
+    /**
+     * Job checking for stalls, while the watchdog is running
+     */
+    private JobScheduler.Job job;
+    /**
+     * Number of stalls detected since the watchdog was started
+     */
+    private volatile int stallCount = 0;
+
+    /**
+     * Start or stop the watchdog
+     * @param running Whether the watchdog should be running
+     * @param thresholdMillis Number of milliseconds a frame has to take to count as a stall
+     */
+    public synchronized void setRunning(boolean running, long thresholdMillis) {
+        final long newThreshold = Math.max(thresholdMillis, 20);
+        if(running == isRunning() && (!running || newThreshold == this.thresholdMillis)) {
+            return;
+        }
+        this.thresholdMillis = newThreshold;
+
+        if(isRunning()) {
+            renderSubscription.unsubscribe();
+            renderSubscription = null;
+            job.cancel();
+            job = null;
+            currentStall = null;
+        }
+        if(running) {
+            frameStartNanos = 0;
+            renderSubscription = Quickplay.INSTANCE.eventRouter.subscribe(TickEvent.RenderTickEvent.class, this::onRenderTick);
+            // Sample a few times per threshold, so stalls are caught reasonably close to when they pass it
+            job = Quickplay.INSTANCE.jobScheduler.newJob(jobName, this::check)
+                    .fixedRate(Math.max(this.thresholdMillis / 4, 5), TimeUnit.MILLISECONDS)
+                    .onDisable(JobScheduler.DisablePolicy.PAUSE)
+                    .start();
+        }
+    }
+
+    /**
+     * Whether the watchdog is running
+     * @return Whether the watchdog is running
+     */
+    public synchronized boolean isRunning() {
+        return job != null;
+    }
+
+    /**
+     * Getter for {@link #stallCount}
+     * @return {@link #stallCount}
+     */
+    public int getStallCount() {
+        return stallCount;
+    }
+
+    /**
+     * Called at the start and end of every frame on the client thread
+     * @param event Event data
+     */
+    public void onRenderTick(TickEvent.RenderTickEvent event) {
+        if(event.phase == TickEvent.Phase.START) {
+            if(clientThread == null) {
+                clientThread = Thread.currentThread();
+            }
+            frameStartNanos = System.nanoTime();
+            frameCount++;
+        }
+    }
+
+    /**
+     * Called periodically on the scheduler thread to check whether the current frame is taking too long
+     */
+    private void check() {
+        final Thread thread = clientThread;
+        final long frameStart = frameStartNanos;
+        if(thread == null || frameStart == 0) {
+            return;
+        }
+
+        final long frame = frameCount;
+        if(currentStall != null && currentStall.frame != frame) {
+            // The stalled frame has ended
+            finishStall(currentStall);
+            currentStall = null;
+        }
+
+        final long elapsedNanos = System.nanoTime() - frameStart;
+        if(elapsedNanos < TimeUnit.MILLISECONDS.toNanos(thresholdMillis)) {
+            return;
+        }
+
+        if(currentStall == null) {
+            currentStall = new Stall(frame);
+        }
+        currentStall.durationNanos = elapsedNanos;
+        if(currentStall.samples.size() < maxSamples) {
+            currentStall.samples.add(thread.getStackTrace());
+        }
+    }
+
+    /**
+     * Attribute a stall that has ended and write it to the report
+     * @param stall Stall that has ended
+     */
+    private void finishStall(Stall stall) {
+        if(stall.samples.isEmpty()) {
+            return;
+        }
+        stallCount++;
+
+        int quickplaySamples = 0;
+        StackTraceElement[] culpritStack = null;
+        for(StackTraceElement[] sample : stall.samples) {
+            if(findQuickplayFrame(sample) >= 0) {
+                quickplaySamples++;
+                if(culpritStack == null) {
+                    culpritStack = sample;
+                }
+            }
+        }
+        final boolean quickplay = quickplaySamples * 2 > stall.samples.size();
+        if(culpritStack == null) {
+            culpritStack = stall.samples.get(0);
+        }
+
+        final StringBuilder report = new StringBuilder();
+        report.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(stall.detectedAt))
+                .append(" frame stalled for at least ").append(TimeUnit.NANOSECONDS.toMillis(stall.durationNanos))
+                .append("ms, attributed to ").append(quickplay ? "Quickplay" : "non-Quickplay code")
+                .append(" (").append(quickplaySamples).append('/').append(stall.samples.size())
+                .append(" samples in Quickplay)\n");
+        final int culpritFrame = findQuickplayFrame(culpritStack);
+        if(culpritFrame >= 0) {
+            report.append("  Topmost Quickplay frame: ").append(culpritStack[culpritFrame]).append('\n');
+        }
+        for(int i = 0; i < culpritStack.length && i < maxReportedFrames; i++) {
+            report.append("    at ").append(culpritStack[i]).append('\n');
+        }
+        if(culpritStack.length > maxReportedFrames) {
+            report.append("    ... ").append(culpritStack.length - maxReportedFrames).append(" more\n");
+        }
+        report.append('\n');
+
+        Quickplay.INSTANCE.diskPool.execute(() -> writeReport(report.toString()));
+    }
+
+    /**
+     * Find the topmost Quickplay frame in a stack trace
+     * @param stack Stack trace, topmost frame first
+     * @return Index of the topmost Quickplay frame, or -1 if the stack doesn't contain Quickplay code
+     */
+    private static int findQuickplayFrame(StackTraceElement[] stack) {
+        for(int i = 0; i < stack.length; i++) {
+            if(stack[i].getClassName().startsWith(quickplayPackage)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Append a report to {@link #reportFile}, rotating it first if it's too big
+     * @param report Report to append
+     */
+    private static synchronized void writeReport(String report) {
+        try {
+            final File directory = new File(reportDirectory);
+            if(!directory.isDirectory()) {
+                directory.mkdirs();
+            }
+
+            final File file = new File(reportFile);
+            if(file.length() > maxReportSize) {
+                rotateReports();
+            }
+            Files.write(file.toPath(), report.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+            Quickplay.INSTANCE.sendExceptionRequest(e);
+        }
+    }
+
+    /**
+     * Shift <code>stalls.log</code> to <code>stalls.1.log</code>, <code>stalls.1.log</code> to
+     * <code>stalls.2.log</code> and so on, deleting the oldest
+     * @throws IOException on a file error
+     */
+    private static void rotateReports() throws IOException {
+        for(int i = rotatedReports; i > 0; i--) {
+            final File source = i == 1 ? new File(reportFile) : new File(rotatedReportFile(i - 1));
+            if(source.exists()) {
+                Files.move(source.toPath(), new File(rotatedReportFile(i)).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Get the path of a rotated report file
+     * @param index Index of the rotated file, starting at 1 for the most recent
+     * @return Path to the file
+     */
+    private static String rotatedReportFile(int index) {
+        return reportDirectory + "stalls." + index + ".log";
+    }
+
+    /**
+     * A frame that has taken longer than the threshold
+     */
+    private static class Stall {
+        /**
+         * {@link #frameCount} of the stalled frame
+         */
+        final long frame;
+        /**
+         * When the stall was detected
+         */
+        final Date detectedAt = new Date();
+        /**
+         * Stack samples of the client thread taken during the stall
+         */
+        final List<StackTraceElement[]> samples = new ArrayList<>();
+        /**
+         * How long the frame had been running for at the last check
+         */
+        long durationNanos;
+
+        /**
+         * Constructor
+         * @param frame {@link #frameCount} of the stalled frame
+         */
+        Stall(long frame) {
+            this.frame = frame;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package co.bugg.quickplay.util.diagnostics;
+
+import co.bugg.quickplay.config.AssetFactory;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records timed spans and milestones, and exports them as a Chrome trace
+ * (viewable at <code>chrome://tracing</code> or in Perfetto).
+ *
+ * Recording is off unless the <code>quickplay.trace</code> system property is true or it's turned on with
+ * <code>/qp trace start</code>. While off, {@link #begin(String, String)} returns a shared span that does nothing,
+ * so instrumented code costs a volatile read.
+ */
+public class TraceRecorder {
+
+    /**
+     * System property which turns recording on from launch, so that startup is captured
+     */
+    public static final String enabledProperty = "quickplay.trace";
+    /**
+     * Directory traces are exported to
+     */
+    public static final String traceDirectory = AssetFactory.diagnosticsDirectory;
+    /**
+     * Maximum number of events kept. Events recorded after this are dropped.
+     */
+    public static final int maxEvents = 100000;
+    /**
+     * Span returned while recording is off
+     */
+    public static final Span noopSpan = () -> {};
+
+    /**
+     * Whether events are being recorded
+     */
+    private volatile boolean enabled = Boolean.getBoolean(enabledProperty);
+    /**
+     * {@link System#nanoTime()} corresponding to JVM start, so timestamps show how far into launch events happened
+     */
+    private final long originNanos = System.nanoTime() -
+            (System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()) * 1000000L;
+    /**
+     * Recorded events
+     */
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of events in {@link #events}
+     */
+    private final AtomicInteger eventCount = new AtomicInteger();
+    /**
+     * Names of threads events have been recorded on, by thread ID
+     */
+    private final Map<Long, String> threadNames = new ConcurrentHashMap<>();
+    /**
+     * Milestones which have already been recorded
+     */
+    private final Set<String> milestones = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Getter for {@link #enabled}
+     * @return {@link #enabled}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Setter for {@link #enabled}
+     * @param enabled Whether events should be recorded
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Begin a span, which ends when {@link Span#end()} is called on the same thread
+     * @param name Name of the span
+     * @param category Category of the span, e.g. "startup"
+     * @return The span, or {@link #noopSpan} if recording is off
+     */
+    public Span begin(String name, String category) {
+        if(!enabled) {
+            return noopSpan;
+        }
+        final long start = System.nanoTime();
+        return () -> record(new Event(name, category, 'X', start, System.nanoTime() - start));
+    }
+
+    /**
+     * Record something happening at a point in time
+     * @param name Name of the event
+     * @param category Category of the event
+     */
+    public void instant(String name, String category) {
+        if(enabled) {
+            record(new Event(name, category, 'i', System.nanoTime(), 0));
+        }
+    }
+
+    /**
+     * Record a milestone, which is only recorded the first time it happens, e.g. the first GUI open
+     * @param name Name of the milestone
+     */
+    public void milestone(String name) {
+        if(enabled && milestones.add(name)) {
+            record(new Event(name, "milestone", 'i', System.nanoTime(), 0));
+        }
+    }
+
+    /**
+     * Add an event, unless there are too many events already
+     * @param event Event to add
+     */
+    private void record(Event event) {
+        if(eventCount.incrementAndGet() > maxEvents) {
+            eventCount.decrementAndGet();
+            return;
+        }
+        threadNames.putIfAbsent(event.threadId, Thread.currentThread().getName());
+        events.add(event);
+    }
+
+    /**
+     * Get the number of recorded events
+     * @return Number of events
+     */
+    public int size() {
+        return eventCount.get();
+    }
+
+    /**
+     * Remove all recorded events. Milestones that have already happened aren't recorded again.
+     */
+    public void clear() {
+        events.clear();
+        eventCount.set(0);
+    }
+
+    /**
+     * Write all recorded events to a new trace file in {@link #traceDirectory}
+     * @return The file written
+     * @throws IOException on a writing error
+     */
+    public File export() throws IOException {
+        final File directory = new File(traceDirectory);
+        if(!directory.isDirectory()) {
+            directory.mkdirs();
+        }
+        final File file = new File(traceDirectory + "trace-" +
+                new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date()) + ".json");
+
+        try(JsonWriter writer = new JsonWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("displayTimeUnit").value("ms");
+            writer.name("traceEvents").beginArray();
+            for(Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                writer.beginObject();
+                writer.name("name").value("thread_name");
+                writer.name("ph").value("M");
+                writer.name("pid").value(1);
+                writer.name("tid").value(thread.getKey());
+                writer.name("args").beginObject().name("name").value(thread.getValue()).endObject();
+                writer.endObject();
+            }
+            for(Event event : events) {
+                writer.beginObject();
+                writer.name("name").value(event.name);
+                writer.name("cat").value(event.category);
+                writer.name("ph").value(String.valueOf(event.phase));
+                writer.name("ts").value((event.startNanos - originNanos) / 1000);
+                if(event.phase == 'X') {
+                    writer.name("dur").value(event.durationNanos / 1000);
+                } else {
+                    // Global scope, so milestones are drawn across every thread
+                    writer.name("s").value("g");
+                }
+                writer.name("pid").value(1);
+                writer.name("tid").value(event.threadId);
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+        return file;
+    }
+
+    /**
+     * A span of time being recorded. Can be used in a try-with-resources block.
+     */
+    @FunctionalInterface
+    public interface Span extends AutoCloseable {
+        /**
+         * End this span. Should only be called once, on the thread the span began on.
+         */
+        void end();
+
+        @Override
+        default void close() {
+            end();
+        }
+    }
+
+    /**
+     * A recorded event
+     */
+    private static class Event {
+        /**
+         * Name of the event
+         */
+        final String name;
+        /**
+         * Category of the event
+         */
+        final String category;
+        /**
+         * Chrome trace phase: 'X' for a complete span or 'i' for an instant
+         */
+        final char phase;
+        /**
+         * {@link System#nanoTime()} when the event started
+         */
+        final long startNanos;
+        /**
+         * Duration of the event in nanoseconds, 0 for instants
+         */
+        final long durationNanos;
+        /**
+         * ID of the thread the event was recorded on
+         */
+        final long threadId = Thread.currentThread().getId();
+
+        /**
+         * Constructor
+         * @param name Name of the event
+         * @param category Category of the event
+         * @param phase Chrome trace phase
+         * @param startNanos {@link System#nanoTime()} when the event started
+         * @param durationNanos Duration of the event in nanoseconds
+         */
+        Event(String name, String category, char phase, long startNanos, long durationNanos) {
+            this.name = name;
+            this.category = category;
+            this.phase = phase;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+}
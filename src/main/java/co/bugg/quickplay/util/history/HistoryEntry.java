@@ -0,0 +1,60 @@
+package co.bugg.quickplay.util.history;
+
+import co.bugg.quickplay.util.ServerId;
+
+/**
+ * An instance the client was on, and when it got there
+ */
+public class HistoryEntry {
+    /**
+     * Time the client joined the instance, in milliseconds since the epoch
+     */
+    public final long timestamp;
+    /**
+     * Name of the instance, e.g. <code>mini104R</code>
+     */
+    public final String server;
+
+    /**
+     * Constructor
+     * @param timestamp Time the client joined the instance, in milliseconds since the epoch
+     * @param server Name of the instance
+     */
+    public HistoryEntry(long timestamp, String server) {
+        this.timestamp = timestamp;
+        this.server = server;
+    }
+
+    /**
+     * Get the type of this entry's server. See {@link #serverType(String)}
+     * @return The server type
+     */
+    public String getServerType() {
+        return serverType(server);
+    }
+
+    /**
+     * Whether this entry's server type contains a filter, ignoring case, so "lobby" matches every lobby
+     * @param typeFilter Filter, or null to match everything
+     * @return Whether the entry matches
+     */
+    public boolean matches(String typeFilter) {
+        return typeFilter == null || getServerType().contains(typeFilter.toLowerCase());
+    }
+
+    /**
+     * Get the type of a server, e.g. <code>mini</code> for <code>mini104R</code> and <code>bedwarslobby</code>
+     * for <code>bedwarslobby3</code>. Parsed without interning, as journal entries are only looked at once.
+     * @param server Server name
+     * @return The server type
+     * @see ServerId#getType()
+     */
+    public static String serverType(String server) {
+        return ServerId.parse(server).getType();
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + " " + server;
+    }
+}
@@ -0,0 +1,47 @@
+package co.bugg.quickplay.util.history;
+
+import java.util.List;
+
+/**
+ * One page of entries read from an {@link InstanceJournal}
+ */
+public class HistoryPage {
+    /**
+     * Entries on this page, most recent first
+     */
+    public final List<HistoryEntry> entries;
+    /**
+     * Index of this page, starting at 0 for the most recent
+     */
+    public final int page;
+    /**
+     * Maximum number of entries per page
+     */
+    public final int pageSize;
+    /**
+     * Number of matching entries across every page
+     */
+    public final int total;
+
+    /**
+     * Constructor
+     * @param entries Entries on this page, most recent first
+     * @param page Index of this page
+     * @param pageSize Maximum number of entries per page
+     * @param total Number of matching entries across every page
+     */
+    public HistoryPage(List<HistoryEntry> entries, int page, int pageSize, int total) {
+        this.entries = entries;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.total = total;
+    }
+
+    /**
+     * Get the number of pages needed for every matching entry
+     * @return Number of pages, at least 1
+     */
+    public int getPageCount() {
+        return Math.max((total + pageSize - 1) / pageSize, 1);
+    }
+}
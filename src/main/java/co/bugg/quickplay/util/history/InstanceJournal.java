@@ -0,0 +1,213 @@
+package co.bugg.quickplay.util.history;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.config.AssetFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Append-only journal of every instance the client has been on, kept across restarts.
+ *
+ * Each entry is one line of <code>&lt;timestamp&gt; &lt;server&gt;</code>. Entries are queued and appended on
+ * {@link Quickplay#diskPool}, and {@link #journalFile} is rotated once it gets too big, so the journal holds
+ * roughly {@link #rotatedJournals} + 1 times {@link #maxJournalSize} bytes of history. Pages are read by
+ * streaming the files, so only the requested page is ever held in memory.
+ */
+public class InstanceJournal {
+    /**
+     * Directory the journal is written to
+     */
+    public static final String journalDirectory = AssetFactory.historyDirectory;
+    /**
+     * File the most recent entries are written to
+     */
+    public static final String journalFile = journalDirectory + "instances.log";
+    /**
+     * Size in bytes at which {@link #journalFile} is rotated
+     */
+    public static final long maxJournalSize = 256 * 1024;
+    /**
+     * Number of rotated journal files kept, e.g. <code>instances.1.log</code> to <code>instances.8.log</code>
+     */
+    public static final int rotatedJournals = 8;
+
+    /**
+     * Entries waiting to be written
+     */
+    private final Queue<HistoryEntry> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Queue an entry to be appended to the journal
+     * @param entry Entry to append
+     */
+    public void append(HistoryEntry entry) {
+        pending.add(entry);
+        Quickplay.INSTANCE.diskPool.execute(this::flush);
+    }
+
+    /**
+     * Write every queued entry to {@link #journalFile}, rotating it first if it's too big
+     */
+    public synchronized void flush() {
+        if(pending.isEmpty()) {
+            return;
+        }
+        final StringBuilder lines = new StringBuilder();
+        HistoryEntry entry;
+        while((entry = pending.poll()) != null) {
+            lines.append(entry.timestamp).append(' ').append(entry.server).append('\n');
+        }
+
+        try {
+            final File directory = new File(journalDirectory);
+            if(!directory.isDirectory()) {
+                directory.mkdirs();
+            }
+
+            final File file = new File(journalFile);
+            if(file.length() > maxJournalSize) {
+                rotate();
+            }
+            Files.write(file.toPath(), lines.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+            Quickplay.INSTANCE.sendExceptionRequest(e);
+        }
+    }
+
+    /**
+     * Read a page of entries, most recent first. Blocks on file IO, so shouldn't be called on the client thread.
+     * @param page Index of the page, starting at 0 for the most recent
+     * @param pageSize Maximum number of entries per page
+     * @param typeFilter Only include servers whose type contains this, or null for every server.
+     *                   See {@link HistoryEntry#matches(String)}
+     * @return The page
+     * @throws IOException on a file error
+     */
+    public synchronized HistoryPage read(int page, int pageSize, String typeFilter) throws IOException {
+        flush();
+
+        // Count matching entries in each file first, so only the requested page has to be kept
+        final List<File> files = getFiles();
+        final int[] counts = new int[files.size()];
+        int total = 0;
+        for(int i = 0; i < files.size(); i++) {
+            counts[i] = scan(files.get(i), typeFilter, 0, 0, null);
+            total += counts[i];
+        }
+
+        final List<HistoryEntry> entries = new ArrayList<>(pageSize);
+        final int first = page * pageSize;
+        // Number of matching entries in files newer than the current one
+        int newer = 0;
+        for(int i = 0; i < files.size() && entries.size() < pageSize; i++) {
+            if(first + entries.size() < newer + counts[i]) {
+                // Within this file entries are oldest first, so turn newest-first indices around
+                final int from = counts[i] - (first + pageSize - newer);
+                final int to = counts[i] - (first + entries.size() - newer);
+                final List<HistoryEntry> fileEntries = new ArrayList<>();
+                scan(files.get(i), typeFilter, Math.max(from, 0), to, fileEntries);
+                Collections.reverse(fileEntries);
+                entries.addAll(fileEntries);
+            }
+            newer += counts[i];
+        }
+
+        return new HistoryPage(entries, page, pageSize, total);
+    }
+
+    /**
+     * Stream a journal file, counting matching entries and collecting those in a range
+     * @param file File to read
+     * @param typeFilter Only include servers whose type contains this, or null for every server
+     * @param from Index of the first matching entry to collect, oldest first
+     * @param to Index after the last matching entry to collect
+     * @param collect List to add collected entries to, or null to only count
+     * @return Number of matching entries in the file
+     * @throws IOException on a file error
+     */
+    private static int scan(File file, String typeFilter, int from, int to, List<HistoryEntry> collect) throws IOException {
+        int index = 0;
+        try(BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                final HistoryEntry entry = parse(line);
+                if(entry == null || !entry.matches(typeFilter)) {
+                    continue;
+                }
+                if(collect != null && index >= from && index < to) {
+                    collect.add(entry);
+                }
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Parse a journal line
+     * @param line Line to parse
+     * @return The entry, or null if the line is malformed
+     */
+    private static HistoryEntry parse(String line) {
+        final int space = line.indexOf(' ');
+        if(space <= 0 || space == line.length() - 1) {
+            return null;
+        }
+        try {
+            return new HistoryEntry(Long.parseLong(line.substring(0, space)), line.substring(space + 1));
+        } catch(NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get every existing journal file
+     * @return Journal files, most recent first
+     */
+    private static List<File> getFiles() {
+        final List<File> files = new ArrayList<>();
+        for(int i = 0; i <= rotatedJournals; i++) {
+            final File file = new File(i == 0 ? journalFile : rotatedJournalFile(i));
+            if(file.isFile()) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Shift <code>instances.log</code> to <code>instances.1.log</code>, <code>instances.1.log</code> to
+     * <code>instances.2.log</code> and so on, deleting the oldest
+     * @throws IOException on a file error
+     */
+    private static void rotate() throws IOException {
+        for(int i = rotatedJournals; i > 0; i--) {
+            final File source = i == 1 ? new File(journalFile) : new File(rotatedJournalFile(i - 1));
+            if(source.exists()) {
+                Files.move(source.toPath(), new File(rotatedJournalFile(i)).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Get the path of a rotated journal file
+     * @param index Index of the rotated file, starting at 1 for the most recent
+     * @return Path to the file
+     */
+    private static String rotatedJournalFile(int index) {
+        return journalDirectory + "instances." + index + ".log";
+    }
+}
@@ -0,0 +1,109 @@
+package co.bugg.quickplay.util.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity buffer keeping the most recently added items. Adding is O(1), and once the buffer is full
+ * each new item overwrites the oldest one.
+ * @param <T> Type of item held
+ */
+public class RingBuffer<T> {
+    /**
+     * Slots holding the items
+     */
+    private final Object[] items;
+    /**
+     * Index of the slot the next item is written to
+     */
+    private int head = 0;
+    /**
+     * Number of items held
+     */
+    private int size = 0;
+
+    /**
+     * Constructor
+     * @param capacity Maximum number of items held
+     */
+    public RingBuffer(int capacity) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        items = new Object[capacity];
+    }
+
+    /**
+     * Add an item, overwriting the oldest one if the buffer is full
+     * @param item Item to add
+     * @return this
+     */
+    public synchronized RingBuffer<T> add(T item) {
+        items[head] = item;
+        head = (head + 1) % items.length;
+        if(size < items.length) {
+            size++;
+        }
+        return this;
+    }
+
+    /**
+     * Get an item by how recently it was added
+     * @param index Index of the item, 0 being the most recent
+     * @return The item
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T get(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) items[(head - 1 - index + items.length * 2) % items.length];
+    }
+
+    /**
+     * Get the most recently added item
+     * @return The item, or null if the buffer is empty
+     */
+    public synchronized T latest() {
+        return size > 0 ? get(0) : null;
+    }
+
+    /**
+     * Copy the items into a list
+     * @return Every item held, most recent first
+     */
+    public synchronized List<T> toList() {
+        final List<T> list = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    /**
+     * Remove every item
+     */
+    public synchronized void clear() {
+        for(int i = 0; i < items.length; i++) {
+            items[i] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Get the number of items held
+     * @return {@link #size}
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Get the maximum number of items held
+     * @return Capacity of the buffer
+     */
+    public int capacity() {
+        return items.length;
+    }
+}
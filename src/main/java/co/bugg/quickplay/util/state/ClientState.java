@@ -0,0 +1,124 @@
+package co.bugg.quickplay.util.state;
+
+import co.bugg.quickplay.games.Game;
+import co.bugg.quickplay.util.ServerChecker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the client's state, shared between the client thread and pool threads.
+ * Changed by swapping in a new snapshot through {@link StateStore#update(java.util.function.UnaryOperator)}.
+ */
+public final class ClientState {
+
+    /**
+     * State before the mod has been enabled or connected anywhere
+     */
+    public static final ClientState initial = new ClientState(false, false, null, false, null,
+            Collections.emptyList(), 0);
+
+    /**
+     * Whether the mod is currently enabled
+     */
+    public final boolean enabled;
+    /**
+     * Whether the client is currently connected to the Hypixel network
+     */
+    public final boolean onHypixel;
+    /**
+     * Verification method used to verify the client is online Hypixel, or null if not on Hypixel.
+     */
+    public final ServerChecker.VerificationMethod verificationMethod;
+    /**
+     * Whether this client is premium or not
+     * Verified from the web server
+     */
+    public final boolean premiumClient;
+    /**
+     * Session key used for Premium-related resource requests
+     */
+    public final String sessionKey;
+    /**
+     * List of all games, in order of priority. Unmodifiable.
+     */
+    public final List<Game> gameList;
+    /**
+     * Incremented every time {@link #gameList} is replaced, so listeners can tell when it's changed
+     */
+    public final int gameListVersion;
+
+    /**
+     * Constructor
+     * @param enabled Whether the mod is enabled
+     * @param onHypixel Whether the client is on Hypixel
+     * @param verificationMethod How the client was verified to be on Hypixel
+     * @param premiumClient Whether the client is premium
+     * @param sessionKey Premium session key
+     * @param gameList Unmodifiable list of games
+     * @param gameListVersion Version of the game list
+     */
+    private ClientState(boolean enabled, boolean onHypixel, ServerChecker.VerificationMethod verificationMethod,
+                        boolean premiumClient, String sessionKey, List<Game> gameList, int gameListVersion) {
+        this.enabled = enabled;
+        this.onHypixel = onHypixel;
+        this.verificationMethod = verificationMethod;
+        this.premiumClient = premiumClient;
+        this.sessionKey = sessionKey;
+        this.gameList = gameList;
+        this.gameListVersion = gameListVersion;
+    }
+
+    /**
+     * Copy this state with a different {@link #enabled}
+     * @param enabled Whether the mod is enabled
+     * @return New state, or this if nothing changed
+     */
+    public ClientState withEnabled(boolean enabled) {
+        return enabled == this.enabled ? this : new ClientState(enabled, onHypixel, verificationMethod,
+                premiumClient, sessionKey, gameList, gameListVersion);
+    }
+
+    /**
+     * Copy this state with a different {@link #onHypixel} and {@link #verificationMethod}
+     * @param onHypixel Whether the client is on Hypixel
+     * @param verificationMethod How the client was verified to be on Hypixel, or null
+     * @return New state, or this if nothing changed
+     */
+    public ClientState withHypixel(boolean onHypixel, ServerChecker.VerificationMethod verificationMethod) {
+        return onHypixel == this.onHypixel && verificationMethod == this.verificationMethod ? this :
+                new ClientState(enabled, onHypixel, verificationMethod, premiumClient, sessionKey, gameList,
+                        gameListVersion);
+    }
+
+    /**
+     * Copy this state with a different {@link #premiumClient}
+     * @param premiumClient Whether the client is premium
+     * @return New state, or this if nothing changed
+     */
+    public ClientState withPremiumClient(boolean premiumClient) {
+        return premiumClient == this.premiumClient ? this : new ClientState(enabled, onHypixel, verificationMethod,
+                premiumClient, sessionKey, gameList, gameListVersion);
+    }
+
+    /**
+     * Copy this state with a different {@link #sessionKey}
+     * @param sessionKey Premium session key
+     * @return New state
+     */
+    public ClientState withSessionKey(String sessionKey) {
+        return new ClientState(enabled, onHypixel, verificationMethod, premiumClient, sessionKey, gameList,
+                gameListVersion);
+    }
+
+    /**
+     * Copy this state with a new game list, incrementing {@link #gameListVersion}
+     * @param gameList New list of games. Copied, so later changes to it don't affect the state.
+     * @return New state
+     */
+    public ClientState withGameList(List<Game> gameList) {
+        return new ClientState(enabled, onHypixel, verificationMethod, premiumClient, sessionKey,
+                Collections.unmodifiableList(new ArrayList<>(gameList)), gameListVersion + 1);
+    }
+}
@@ -0,0 +1,165 @@
+package co.bugg.quickplay.util.state;
+
+import co.bugg.quickplay.Quickplay;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holder of the current {@link ClientState}.
+ *
+ * Reading the state is a single volatile read, so it's cheap enough for every frame. Updates atomically swap in
+ * a new snapshot, and then notify watchers whose selected part of the state changed. Watchers are called one
+ * notification at a time and in the order snapshots were swapped in: each notification goes from the last snapshot
+ * watchers were told about to the latest one, so a watcher never sees an older value after a newer one. Whichever
+ * updating thread finds no notification in progress delivers it, including any updates made meanwhile by other
+ * threads, which return straight away rather than wait for slow watchers.
+ */
+public class StateStore {
+
+    /**
+     * Current state
+     */
+    private final AtomicReference<ClientState> state = new AtomicReference<>(ClientState.initial);
+    /**
+     * Everything watching for state changes
+     */
+    private final List<Watcher<?>> watchers = new CopyOnWriteArrayList<>();
+    /**
+     * Whether a thread is currently notifying watchers. Only the thread that set it touches {@link #lastNotified}.
+     */
+    private final AtomicBoolean notifying = new AtomicBoolean(false);
+    /**
+     * Last snapshot watchers were notified of
+     */
+    private volatile ClientState lastNotified = ClientState.initial;
+
+    /**
+     * Get the current state
+     * @return Current state snapshot
+     */
+    public ClientState get() {
+        return state.get();
+    }
+
+    /**
+     * Atomically update the state and notify watchers of what changed.
+     * The update function may be called more than once if other threads update the state at the same time,
+     * so it must not have side effects.
+     * @param update Function from the current state to the new state
+     * @return The new state
+     */
+    public ClientState update(UnaryOperator<ClientState> update) {
+        ClientState previous;
+        ClientState next;
+        do {
+            previous = state.get();
+            next = update.apply(previous);
+        } while(!state.compareAndSet(previous, next));
+
+        if(previous != next) {
+            notifyWatchers();
+        }
+        return next;
+    }
+
+    /**
+     * Notify watchers of every change since they were last notified, until they're up to date with the latest
+     * snapshot, unless another thread is already doing so. If a watcher updates the state itself, the change is
+     * picked up by the next pass of the loop rather than notified in the middle of the current one.
+     */
+    private void notifyWatchers() {
+        while(notifying.compareAndSet(false, true)) {
+            try {
+                ClientState latest;
+                while((latest = state.get()) != lastNotified) {
+                    final ClientState from = lastNotified;
+                    lastNotified = latest;
+                    for(Watcher<?> watcher : watchers) {
+                        watcher.check(from, latest);
+                    }
+                }
+            } finally {
+                notifying.set(false);
+            }
+            // Another thread may have updated the state and given up after the last check but before the flag
+            // was cleared, in which case nobody else is going to notify watchers of it
+            if(state.get() == lastNotified) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Watch part of the state for changes
+     * @param selector Function selecting the part of the state to watch, e.g. <code>state -&gt; state.onHypixel</code>
+     * @param listener Called with the old and new values whenever the selected value changes
+     * @param <T> Type of the selected value
+     * @return Subscription which stops watching when cancelled
+     */
+    public <T> Subscription watch(Function<ClientState, T> selector, BiConsumer<T, T> listener) {
+        final Watcher<T> watcher = new Watcher<>(selector, listener);
+        watchers.add(watcher);
+        return () -> watchers.remove(watcher);
+    }
+
+    /**
+     * Subscription returned by {@link #watch(Function, BiConsumer)}
+     */
+    @FunctionalInterface
+    public interface Subscription {
+        /**
+         * Stop watching
+         */
+        void unsubscribe();
+    }
+
+    /**
+     * A selector and the listener to call when its value changes
+     * @param <T> Type of the selected value
+     */
+    private static class Watcher<T> {
+        /**
+         * Function selecting the watched value
+         */
+        final Function<ClientState, T> selector;
+        /**
+         * Listener called with the old and new values
+         */
+        final BiConsumer<T, T> listener;
+
+        /**
+         * Constructor
+         * @param selector Function selecting the watched value
+         * @param listener Listener called with the old and new values
+         */
+        Watcher(Function<ClientState, T> selector, BiConsumer<T, T> listener) {
+            this.selector = selector;
+            this.listener = listener;
+        }
+
+        /**
+         * Call the listener if the selected value differs between two states
+         * @param previous State before the update
+         * @param next State after the update
+         */
+        void check(ClientState previous, ClientState next) {
+            final T oldValue = selector.apply(previous);
+            final T newValue = selector.apply(next);
+            if(!Objects.equals(oldValue, newValue)) {
+                try {
+                    listener.accept(oldValue, newValue);
+                } catch(Exception e) {
+                    e.printStackTrace();
+                    Quickplay.INSTANCE.sendExceptionRequest(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package co.bugg.quickplay.util.stats;
+
+import java.io.Serializable;
+
+/**
+ * Histogram of latencies with exponentially sized buckets, so it takes a fixed amount of memory and space on disk
+ * however many latencies are recorded. Percentiles are accurate to within one bucket, i.e. about 20%.
+ */
+public class LatencyHistogram implements Serializable {
+    /**
+     * Upper bound of the first bucket in milliseconds
+     */
+    public static final double firstBucketMillis = 250;
+    /**
+     * Ratio between the upper bounds of consecutive buckets
+     */
+    public static final double bucketGrowth = 1.2;
+    /**
+     * Number of buckets. The last one holds everything above roughly 2.5 minutes.
+     */
+    public static final int bucketCount = 37;
+
+    /**
+     * Number of latencies recorded in each bucket
+     */
+    public long[] counts = new long[bucketCount];
+    /**
+     * Number of latencies recorded
+     */
+    public long count = 0;
+    /**
+     * Sum of every latency recorded, in milliseconds
+     */
+    public long totalMillis = 0;
+    /**
+     * Largest latency recorded, in milliseconds
+     */
+    public long maxMillis = 0;
+
+    /**
+     * Record a latency
+     * @param millis Latency in milliseconds
+     * @return this
+     */
+    public LatencyHistogram record(long millis) {
+        if(counts == null || counts.length != bucketCount) {
+            counts = new long[bucketCount];
+        }
+        millis = Math.max(millis, 0);
+        counts[bucketFor(millis)]++;
+        count++;
+        totalMillis += millis;
+        maxMillis = Math.max(maxMillis, millis);
+        return this;
+    }
+
+    /**
+     * Get a percentile of the recorded latencies
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of the bucket the percentile falls into, capped at {@link #maxMillis}, or 0 if nothing
+     * has been recorded
+     */
+    public long percentile(double percentile) {
+        if(count == 0 || counts == null) {
+            return 0;
+        }
+        final long rank = Math.max((long) Math.ceil(count * percentile / 100), 1);
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= rank) {
+                return Math.min((long) upperBound(i), maxMillis);
+            }
+        }
+        return maxMillis;
+    }
+
+    /**
+     * Get the mean of the recorded latencies
+     * @return Mean in milliseconds, or 0 if nothing has been recorded
+     */
+    public long mean() {
+        return count == 0 ? 0 : totalMillis / count;
+    }
+
+    /**
+     * Format a latency for display, e.g. <code>4.2s</code>
+     * @param millis Latency in milliseconds
+     * @return Latency in seconds, to one decimal place
+     */
+    public static String formatSeconds(long millis) {
+        return String.format("%.1fs", millis / 1000.0);
+    }
+
+    /**
+     * Find the bucket a latency belongs in
+     * @param millis Latency in milliseconds
+     * @return Index of the bucket
+     */
+    private static int bucketFor(long millis) {
+        if(millis <= firstBucketMillis) {
+            return 0;
+        }
+        final int bucket = (int) Math.ceil(Math.log(millis / firstBucketMillis) / Math.log(bucketGrowth));
+        return Math.min(bucket, bucketCount - 1);
+    }
+
+    /**
+     * Get the upper bound of a bucket
+     * @param bucket Index of the bucket
+     * @return Upper bound in milliseconds, or infinity for the last bucket
+     */
+    private static double upperBound(int bucket) {
+        return bucket == bucketCount - 1 ? Double.POSITIVE_INFINITY : firstBucketMillis * Math.pow(bucketGrowth, bucket);
+    }
+}
@@ -0,0 +1,165 @@
+package co.bugg.quickplay.util.stats;
+
+import co.bugg.quickplay.Quickplay;
+import co.bugg.quickplay.config.ConfigLatencyStats;
+import co.bugg.quickplay.util.ServerId;
+import co.bugg.quickplay.util.history.HistoryEntry;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Measures how long each mode takes to get the client into a game.
+ *
+ * Every <code>/play</code> command sent through the chat buffer is timestamped, whether it came from a game GUI, a
+ * keybind or party mode. The next instance change the instance watcher sees is correlated with it: if it's a game
+ * server, the time between the two is recorded in the mode's {@link LatencyHistogram}, which is saved to
+ * {@link ConfigLatencyStats} on {@link Quickplay#diskPool}.
+ */
+public class LatencyTracker {
+    /**
+     * Prefix of mode commands
+     */
+    public static final String modeCommandPrefix = "/play ";
+    /**
+     * Number of milliseconds after which a command is assumed not to have got the client into a game
+     */
+    public static final long maxLatencyMillis = 3 * 60 * 1000;
+
+    /**
+     * Listener for messages sent through the chat buffer
+     */
+    private final Consumer<String> sendListener = this::onMessageSent;
+    /**
+     * Listener for instance changes
+     */
+    private final Consumer<HistoryEntry> instanceListener = this::onInstanceChange;
+    /**
+     * Most recent mode command waiting for the client to join a game, or null
+     */
+    private volatile PendingCommand pending;
+    /**
+     * Whether the tracker is listening
+     */
+    private boolean started = false;
+
+    /**
+     * Start listening for mode commands & instance changes
+     * @return this
+     */
+    public synchronized LatencyTracker start() {
+        if(!started && Quickplay.INSTANCE.chatBuffer != null && Quickplay.INSTANCE.instanceWatcher != null) {
+            Quickplay.INSTANCE.chatBuffer.addSendListener(sendListener);
+            Quickplay.INSTANCE.instanceWatcher.addInstanceListener(instanceListener);
+            started = true;
+        }
+        return this;
+    }
+
+    /**
+     * Stop listening, forgetting any command waiting for a game
+     * @return this
+     */
+    public synchronized LatencyTracker stop() {
+        if(started) {
+            Quickplay.INSTANCE.chatBuffer.removeSendListener(sendListener);
+            Quickplay.INSTANCE.instanceWatcher.removeInstanceListener(instanceListener);
+            started = false;
+        }
+        pending = null;
+        return this;
+    }
+
+    /**
+     * Called with every message sent through the chat buffer, on the client thread
+     * @param message Message sent
+     */
+    private void onMessageSent(String message) {
+        if(message.startsWith(modeCommandPrefix)) {
+            pending = new PendingCommand(message.trim(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Called whenever the instance watcher sees the client change instance
+     * @param entry The new instance & when the client got there
+     */
+    private void onInstanceChange(HistoryEntry entry) {
+        final PendingCommand command = pending;
+        pending = null;
+        if(command == null) {
+            return;
+        }
+
+        final long latency = entry.timestamp - command.sentMillis;
+        final ServerId serverId = ServerId.of(entry.server);
+        if(latency < 0 || latency > maxLatencyMillis || !serverId.isInGame()) {
+            return;
+        }
+        record(command.command, latency);
+    }
+
+    /**
+     * Record a latency for a mode and save the stats
+     * @param command Command used to join the mode
+     * @param latency Latency in milliseconds
+     */
+    private void record(String command, long latency) {
+        final ConfigLatencyStats stats = Quickplay.INSTANCE.latencyStats;
+        if(stats == null) {
+            return;
+        }
+        synchronized(stats) {
+            stats.modes.computeIfAbsent(command, c -> new LatencyHistogram()).record(latency);
+        }
+        Quickplay.INSTANCE.diskPool.execute(() -> {
+            try {
+                synchronized(stats) {
+                    stats.save();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                Quickplay.INSTANCE.sendExceptionRequest(e);
+            }
+        });
+    }
+
+    /**
+     * Get the histogram recorded for a mode
+     * @param command Command used to join the mode
+     * @return The histogram, or null if no latencies have been recorded for it
+     */
+    public LatencyHistogram getHistogram(String command) {
+        final ConfigLatencyStats stats = Quickplay.INSTANCE.latencyStats;
+        if(stats == null || command == null) {
+            return null;
+        }
+        synchronized(stats) {
+            return stats.modes.get(command.trim());
+        }
+    }
+
+    /**
+     * A mode command waiting for the client to join a game
+     */
+    private static class PendingCommand {
+        /**
+         * Command sent
+         */
+        final String command;
+        /**
+         * Time the command was sent, in milliseconds since the epoch
+         */
+        final long sentMillis;
+
+        /**
+         * Constructor
+         * @param command Command sent
+         * @param sentMillis Time the command was sent, in milliseconds since the epoch
+         */
+        PendingCommand(String command, long sentMillis) {
+            this.command = command;
+            this.sentMillis = sentMillis;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package co.bugg.quickplay.util;
+
+import co.bugg.quickplay.util.chat.ChatPipeline;
+import co.bugg.quickplay.util.chat.ChatType;
+import co.bugg.quickplay.util.concurrent.JobScheduler;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link Lifecycle} start/stop cycles
+ */
+public class LifecycleTest {
+
+    @Test
+    public void startsInOrderAndStopsInReverse() {
+        final List<String> calls = new ArrayList<>();
+        final Lifecycle lifecycle = new Lifecycle()
+                .register("a", () -> calls.add("start a"), () -> calls.add("stop a"))
+                .register("b", () -> calls.add("start b"), () -> calls.add("stop b"))
+                .register("c", null, () -> calls.add("stop c"));
+
+        lifecycle.start();
+        assertEquals(Arrays.asList("c", "b", "a"), lifecycle.getStartedComponents());
+        lifecycle.stop();
+
+        assertEquals(Arrays.asList("start a", "start b", "stop c", "stop b", "stop a"), calls);
+        assertTrue(lifecycle.getStartedComponents().isEmpty());
+    }
+
+    @Test
+    public void startAndStopAreIdempotent() {
+        final AtomicInteger starts = new AtomicInteger();
+        final AtomicInteger stops = new AtomicInteger();
+        final Lifecycle lifecycle = new Lifecycle().register("a", starts::incrementAndGet, stops::incrementAndGet);
+
+        lifecycle.start();
+        lifecycle.start();
+        lifecycle.stop();
+        lifecycle.stop();
+
+        assertEquals(1, starts.get());
+        assertEquals(1, stops.get());
+    }
+
+    @Test
+    public void repeatedCyclesStayBalanced() {
+        final AtomicInteger running = new AtomicInteger();
+        final Lifecycle lifecycle = new Lifecycle()
+                .register("a", running::incrementAndGet, running::decrementAndGet)
+                .register("b", running::incrementAndGet, running::decrementAndGet);
+
+        for(int i = 0; i < 1000; i++) {
+            lifecycle.start();
+            assertEquals(2, running.get());
+            lifecycle.stop();
+            assertEquals(0, running.get());
+        }
+    }
+
+    @Test
+    public void realComponentsReturnToBaseline() {
+        final JobScheduler jobScheduler = new JobScheduler();
+        final EventRouter eventRouter = new EventRouter();
+        final ChatPipeline chatPipeline = new ChatPipeline();
+        final List<EventRouter.Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        // Like the journal flush, lives across enables and is only paused while disabled
+        jobScheduler.newJob("paused-while-disabled", () -> {})
+                .fixedDelay(1, TimeUnit.HOURS)
+                .onDisable(JobScheduler.DisablePolicy.PAUSE)
+                .start();
+
+        // Shaped like the components Quickplay registers: jobs, listeners & Hypixel-only subsystems
+        final Lifecycle lifecycle = new Lifecycle()
+                .register("jobs", jobScheduler::onEnable, jobScheduler::onDisable)
+                .register("poller", () -> jobScheduler.newJob("poller", () -> {})
+                        .fixedRate(1, TimeUnit.HOURS)
+                        .onDisable(JobScheduler.DisablePolicy.CANCEL)
+                        .start(), null)
+                .register("listeners", () -> {
+                    subscriptions.add(eventRouter.subscribe(TickEvent.ClientTickEvent.class, e -> {}));
+                    subscriptions.add(eventRouter.subscribe(WorldEvent.Load.class, e -> {}));
+                }, () -> {
+                    subscriptions.forEach(EventRouter.Subscription::unsubscribe);
+                    subscriptions.clear();
+                })
+                .register("chat", () -> {
+                    subscriptions.add(chatPipeline.subscribe(ChatType.WHEREAMI, chat -> {}));
+                    subscriptions.add(chatPipeline.subscribe(ChatType.SENDING_TO, chat -> {}));
+                }, null);
+
+        final int jobs = jobScheduler.getJobs().size();
+        final int tickListeners = eventRouter.listenerCount(TickEvent.ClientTickEvent.class);
+        final int worldListeners = eventRouter.listenerCount(WorldEvent.Load.class);
+        final int whereamiHandlers = chatPipeline.handlerCount(ChatType.WHEREAMI);
+        final int sendingToHandlers = chatPipeline.handlerCount(ChatType.SENDING_TO);
+
+        try {
+            for(int i = 0; i < 1000; i++) {
+                lifecycle.start();
+                assertEquals(jobs + 1, jobScheduler.getJobs().size());
+                assertEquals(tickListeners + 1, eventRouter.listenerCount(TickEvent.ClientTickEvent.class));
+                assertEquals(whereamiHandlers + 1, chatPipeline.handlerCount(ChatType.WHEREAMI));
+                lifecycle.stop();
+            }
+
+            assertEquals(jobs, jobScheduler.getJobs().size());
+            assertTrue(jobScheduler.getJob("paused-while-disabled").isPaused());
+            assertEquals(tickListeners, eventRouter.listenerCount(TickEvent.ClientTickEvent.class));
+            assertEquals(worldListeners, eventRouter.listenerCount(WorldEvent.Load.class));
+            assertEquals(whereamiHandlers, chatPipeline.handlerCount(ChatType.WHEREAMI));
+            assertEquals(sendingToHandlers, chatPipeline.handlerCount(ChatType.SENDING_TO));
+            assertTrue(subscriptions.isEmpty());
+        } finally {
+            jobScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentStartAndStopNeverOverlap() throws InterruptedException {
+        final AtomicInteger running = new AtomicInteger();
+        final List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        final Lifecycle lifecycle = new Lifecycle().register("a",
+                () -> seen.add(running.incrementAndGet()),
+                () -> seen.add(running.decrementAndGet()));
+
+        final CountDownLatch go = new CountDownLatch(1);
+        final Thread starter = new Thread(() -> {
+            awaitQuietly(go);
+            for(int i = 0; i < 1000; i++) {
+                lifecycle.start();
+            }
+        });
+        final Thread stopper = new Thread(() -> {
+            awaitQuietly(go);
+            for(int i = 0; i < 1000; i++) {
+                lifecycle.stop();
+            }
+        });
+        starter.start();
+        stopper.start();
+        go.countDown();
+        starter.join();
+        stopper.join();
+        lifecycle.stop();
+
+        assertEquals(0, running.get());
+        for(int value : seen) {
+            assertTrue("component started twice or stopped before starting", value == 0 || value == 1);
+        }
+    }
+
+    /**
+     * Wait for a latch, ignoring interrupts
+     * @param latch Latch to wait for
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch(InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
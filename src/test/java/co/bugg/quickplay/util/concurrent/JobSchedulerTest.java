@@ -0,0 +1,79 @@
+package co.bugg.quickplay.util.concurrent;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for pausing and resuming {@link JobScheduler} jobs while they're running
+ */
+public class JobSchedulerTest {
+
+    /**
+     * Scheduler under test
+     */
+    private final JobScheduler jobScheduler = new JobScheduler();
+
+    @After
+    public void shutdown() {
+        jobScheduler.shutdown();
+    }
+
+    @Test
+    public void fixedDelayResumedMidRunKeepsOneChain() throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final JobScheduler.Job job = jobScheduler.newJob("fixed-delay", () -> {
+            running.countDown();
+            awaitQuietly(release);
+        }).fixedDelay(50, TimeUnit.MILLISECONDS).start();
+
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        job.pause();
+        job.resume();
+        release.countDown();
+        final long runs = job.getRunCount();
+        Thread.sleep(500);
+
+        // One chain runs about 10 times in 500ms, two would run about 20 times
+        final long runsSince = job.getRunCount() - runs;
+        assertTrue("ran " + runsSince + " times", runsSince <= 13);
+    }
+
+    @Test
+    public void onceResumedAfterPausedRunDoesNotRunAgain() throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final JobScheduler.Job job = jobScheduler.newJob("once", () -> {
+            running.countDown();
+            awaitQuietly(release);
+        }).start();
+
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        job.pause();
+        release.countDown();
+        Thread.sleep(100);
+        job.resume();
+        Thread.sleep(100);
+
+        assertEquals(1, job.getRunCount());
+        assertTrue(job.isDone());
+    }
+
+    /**
+     * Wait for a latch, ignoring interrupts
+     * @param latch Latch to wait for
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch(InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}